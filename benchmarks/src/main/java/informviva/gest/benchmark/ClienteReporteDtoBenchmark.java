@@ -0,0 +1,48 @@
+package informviva.gest.benchmark;
+
+import informviva.gest.dto.ClienteReporteDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de construir un {@link ClienteReporteDTO} a partir de una fila de la consulta agrupada por
+ * cliente (constructor usado por la expresión JPQL de VentaRepositorio): concatenación del nombre,
+ * promedio por compra en BigDecimal y conversión de la fecha de la última compra.
+ *
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ClienteReporteDtoBenchmark {
+
+    private Long id = 42L;
+    private String rut = "12.345.678-5";
+    private String nombre = "María";
+    private String apellido = "González";
+    private String email = "maria.gonzalez@correo.cl";
+    private LocalDate fechaRegistro = LocalDate.of(2024, 3, 1);
+    private Long compras = 7L;
+    private Long total = 245_700L;
+    private LocalDateTime ultimaCompra = LocalDateTime.of(2025, 1, 15, 10, 30);
+
+    @Benchmark
+    public ClienteReporteDTO desdeFilaAgrupada() {
+        return new ClienteReporteDTO(id, rut, nombre, apellido, email, fechaRegistro, compras, total, ultimaCompra);
+    }
+}
@@ -0,0 +1,97 @@
+package informviva.gest.benchmark;
+
+import informviva.gest.dto.ClienteReporteDTO;
+import informviva.gest.util.Dinero;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reducciones de ReporteClienteServicioImpl.obtenerEstadisticasGenerales sobre el reporte por cliente:
+ * total vendido, transacciones, promedio por cliente y ticket promedio.
+ * <p>
+ * El servicio depende de Spring y de la base de datos, por lo que aquí se reproduce solo el cálculo
+ * sobre la lista ya cargada: {@link #dosStreams()} con un Stream por medida, como estaba antes, y
+ * {@link #unaPasada()} con el recorrido único que usa el servicio.
+ *
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EstadisticasClientesBenchmark {
+
+    /**
+     * Medidas calculadas, devueltas para que JMH no elimine el cálculo
+     */
+    public record Estadisticas(long ventasTotales, int totalTransacciones, BigDecimal promedioComprasPorCliente,
+                               BigDecimal ticketPromedio) {
+    }
+
+    @Param({"1000", "100000"})
+    public int clientes;
+
+    private List<ClienteReporteDTO> reporte;
+
+    @Setup
+    public void generarReporte() {
+        reporte = new ArrayList<>(clientes);
+        LocalDate registro = LocalDate.of(2024, 3, 1);
+        LocalDateTime ultimaCompra = LocalDateTime.of(2025, 1, 15, 10, 30);
+        for (int i = 0; i < clientes; i++) {
+            long compras = 1 + i % 12;
+            reporte.add(new ClienteReporteDTO((long) i, "12345678-5", "Nombre" + i, "Apellido", "c" + i + "@correo.cl",
+                    registro, compras, compras * (15_000L + i % 997 * 100L), ultimaCompra));
+        }
+    }
+
+    @Benchmark
+    public Estadisticas dosStreams() {
+        long ventasTotales = reporte.stream()
+                .map(ClienteReporteDTO::getTotalCompras)
+                .reduce(0L, Long::sum);
+        int totalTransacciones = reporte.stream()
+                .mapToInt(ClienteReporteDTO::getComprasRealizadas)
+                .sum();
+        return promedios(ventasTotales, totalTransacciones);
+    }
+
+    @Benchmark
+    public Estadisticas unaPasada() {
+        long ventasTotales = 0L;
+        int totalTransacciones = 0;
+        for (ClienteReporteDTO cliente : reporte) {
+            ventasTotales = Math.addExact(ventasTotales, cliente.getTotalCompras());
+            totalTransacciones += cliente.getComprasRealizadas();
+        }
+        return promedios(ventasTotales, totalTransacciones);
+    }
+
+    private Estadisticas promedios(long ventasTotales, int totalTransacciones) {
+        BigDecimal promedioComprasPorCliente = Dinero.aBigDecimal(ventasTotales).divide(
+                BigDecimal.valueOf(reporte.size()), 2, RoundingMode.HALF_UP);
+        BigDecimal ticketPromedio = Dinero.aBigDecimal(ventasTotales).divide(
+                BigDecimal.valueOf(totalTransacciones), 2, RoundingMode.HALF_UP);
+        return new Estadisticas(ventasTotales, totalTransacciones, promedioComprasPorCliente, ticketPromedio);
+    }
+}
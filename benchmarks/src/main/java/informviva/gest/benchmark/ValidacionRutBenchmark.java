@@ -0,0 +1,67 @@
+package informviva.gest.benchmark;
+
+import informviva.gest.validador.ValidadorRutClase;
+import informviva.gest.validador.ValidadorRutUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por RUT de {@link ValidadorRutUtil#validar(String)} y de {@link ValidadorRutClase#isValid}
+ * (la validación de la anotación @ValidadorRut de Cliente).
+ * <p>
+ * Cada invocación valida la misma mezcla de {@value #CANTIDAD} RUT: válidos con y sin puntos,
+ * con K minúscula y mayúscula, dígito verificador incorrecto y entradas mal formadas.
+ *
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidacionRutBenchmark {
+
+    static final int CANTIDAD = 8;
+
+    private final String[] ruts = {
+            "12.345.678-5",
+            "12345678-5",
+            "7.654.321-6",
+            "11.111.111-1",
+            "15.858.767-k",
+            "15858767K",
+            "12.345.678-9",
+            "12.34A.678-5"
+    };
+
+    private final ValidadorRutClase validadorRutClase = new ValidadorRutClase();
+
+    @Benchmark
+    @OperationsPerInvocation(CANTIDAD)
+    public void validar(Blackhole bh) {
+        for (String rut : ruts) {
+            bh.consume(ValidadorRutUtil.validar(rut));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CANTIDAD)
+    public void isValid(Blackhole bh) {
+        for (String rut : ruts) {
+            bh.consume(validadorRutClase.isValid(rut, null));
+        }
+    }
+}
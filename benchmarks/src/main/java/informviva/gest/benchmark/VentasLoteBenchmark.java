@@ -0,0 +1,218 @@
+package informviva.gest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ventas por segundo del patrón de escritura de la carga masiva (/api/ventas/lote).
+ * <p>
+ * Compara, sobre H2 en memoria, las inserciones con ID IDENTITY (una sentencia y una lectura de
+ * la clave generada por fila, sin posibilidad de agrupar) contra IDs reservados en bloques de 50
+ * desde una tabla de secuencia, como la emula Hibernate en MySQL, con INSERT agrupados en lotes
+ * JDBC de 50 ventas. Cada venta tiene {@value #DETALLES_POR_VENTA} detalles y cada invocación
+ * escribe un bloque de {@value #VENTAS_POR_BLOQUE} ventas en una transacción.
+ * <p>
+ * Mide el patrón de sentencias, no el endpoint completo: no incluye Hibernate, validación, stock
+ * ni la latencia de red de MySQL, que en producción agranda la diferencia a favor de los lotes.
+ *
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class VentasLoteBenchmark {
+
+    static final int VENTAS_POR_BLOQUE = 50;
+    static final int DETALLES_POR_VENTA = 3;
+    private static final int TAMANO_BLOQUE_SECUENCIA = 50;
+
+    private Connection conexion;
+    private Timestamp fecha;
+
+    private long siguienteVentaId;
+    private long ultimaVentaIdReservada;
+    private long siguienteDetalleId;
+    private long ultimoDetalleIdReservado;
+
+    @Setup(Level.Trial)
+    public void crearEsquema() throws SQLException {
+        conexion = DriverManager.getConnection("jdbc:h2:mem:ventas_lote;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        conexion.setAutoCommit(false);
+        try (Statement st = conexion.createStatement()) {
+            st.execute("CREATE TABLE ventas_identidad (id BIGINT AUTO_INCREMENT PRIMARY KEY, cliente_id BIGINT, " +
+                    "fecha TIMESTAMP, subtotal BIGINT, impuesto BIGINT, total BIGINT, estado VARCHAR(20))");
+            st.execute("CREATE TABLE venta_detalles_identidad (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "venta_id BIGINT, producto_id BIGINT, cantidad INT, precio_unitario BIGINT, subtotal BIGINT, total BIGINT)");
+            st.execute("CREATE TABLE ventas (id BIGINT PRIMARY KEY, cliente_id BIGINT, " +
+                    "fecha TIMESTAMP, subtotal BIGINT, impuesto BIGINT, total BIGINT, estado VARCHAR(20))");
+            st.execute("CREATE TABLE venta_detalles (id BIGINT PRIMARY KEY, " +
+                    "venta_id BIGINT, producto_id BIGINT, cantidad INT, precio_unitario BIGINT, subtotal BIGINT, total BIGINT)");
+            st.execute("CREATE TABLE ventas_seq (next_val BIGINT)");
+            st.execute("CREATE TABLE venta_detalles_seq (next_val BIGINT)");
+            // El valor leído es el último ID del bloque: el primer bloque es 1..50
+            st.execute("INSERT INTO ventas_seq VALUES (" + TAMANO_BLOQUE_SECUENCIA + ")");
+            st.execute("INSERT INTO venta_detalles_seq VALUES (" + TAMANO_BLOQUE_SECUENCIA + ")");
+        }
+        conexion.commit();
+        fecha = Timestamp.valueOf(LocalDateTime.of(2025, 1, 15, 10, 30));
+    }
+
+    @TearDown(Level.Iteration)
+    public void vaciarTablas() throws SQLException {
+        try (Statement st = conexion.createStatement()) {
+            st.execute("TRUNCATE TABLE ventas_identidad");
+            st.execute("TRUNCATE TABLE venta_detalles_identidad");
+            st.execute("TRUNCATE TABLE ventas");
+            st.execute("TRUNCATE TABLE venta_detalles");
+        }
+        conexion.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws SQLException {
+        try (Statement st = conexion.createStatement()) {
+            st.execute("SHUTDOWN");
+        }
+        conexion.close();
+    }
+
+    /**
+     * IDs IDENTITY: cada venta se inserta sola para conocer su ID antes de insertar sus detalles
+     */
+    @Benchmark
+    @OperationsPerInvocation(VENTAS_POR_BLOQUE)
+    public long identidadFilaPorFila() throws SQLException {
+        long ultimoId = 0;
+        try (PreparedStatement venta = conexion.prepareStatement(
+                "INSERT INTO ventas_identidad (cliente_id, fecha, subtotal, impuesto, total, estado) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement detalle = conexion.prepareStatement(
+                     "INSERT INTO venta_detalles_identidad (venta_id, producto_id, cantidad, precio_unitario, subtotal, total) " +
+                             "VALUES (?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int v = 0; v < VENTAS_POR_BLOQUE; v++) {
+                asignarVenta(venta, 1, v);
+                venta.executeUpdate();
+                long ventaId = claveGenerada(venta);
+                for (int d = 0; d < DETALLES_POR_VENTA; d++) {
+                    detalle.setLong(1, ventaId);
+                    asignarDetalle(detalle, 2, d);
+                    detalle.executeUpdate();
+                    ultimoId = claveGenerada(detalle);
+                }
+            }
+        }
+        conexion.commit();
+        return ultimoId;
+    }
+
+    /**
+     * IDs de secuencia reservados en bloques de 50 e INSERT agrupados en lotes JDBC
+     */
+    @Benchmark
+    @OperationsPerInvocation(VENTAS_POR_BLOQUE)
+    public long secuenciaEnLotes() throws SQLException {
+        long ultimoId = 0;
+        try (PreparedStatement venta = conexion.prepareStatement(
+                "INSERT INTO ventas (id, cliente_id, fecha, subtotal, impuesto, total, estado) VALUES (?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement detalle = conexion.prepareStatement(
+                     "INSERT INTO venta_detalles (id, venta_id, producto_id, cantidad, precio_unitario, subtotal, total) " +
+                             "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int v = 0; v < VENTAS_POR_BLOQUE; v++) {
+                long ventaId = siguienteVentaId();
+                venta.setLong(1, ventaId);
+                asignarVenta(venta, 2, v);
+                venta.addBatch();
+                for (int d = 0; d < DETALLES_POR_VENTA; d++) {
+                    ultimoId = siguienteDetalleId();
+                    detalle.setLong(1, ultimoId);
+                    detalle.setLong(2, ventaId);
+                    asignarDetalle(detalle, 3, d);
+                    detalle.addBatch();
+                }
+            }
+            venta.executeBatch();
+            detalle.executeBatch();
+        }
+        conexion.commit();
+        return ultimoId;
+    }
+
+    private void asignarVenta(PreparedStatement ps, int desde, int v) throws SQLException {
+        ps.setLong(desde, 1 + v % 20);
+        ps.setTimestamp(desde + 1, fecha);
+        ps.setLong(desde + 2, 30_000L);
+        ps.setLong(desde + 3, 5_700L);
+        ps.setLong(desde + 4, 35_700L);
+        ps.setString(desde + 5, "COMPLETADA");
+    }
+
+    private static void asignarDetalle(PreparedStatement ps, int desde, int d) throws SQLException {
+        ps.setLong(desde, 1 + d);
+        ps.setInt(desde + 1, 2);
+        ps.setLong(desde + 2, 5_000L);
+        ps.setLong(desde + 3, 10_000L);
+        ps.setLong(desde + 4, 10_000L);
+    }
+
+    private static long claveGenerada(PreparedStatement ps) throws SQLException {
+        try (ResultSet claves = ps.getGeneratedKeys()) {
+            claves.next();
+            return claves.getLong(1);
+        }
+    }
+
+    private long siguienteVentaId() throws SQLException {
+        if (siguienteVentaId == 0 || siguienteVentaId > ultimaVentaIdReservada) {
+            ultimaVentaIdReservada = reservarBloque("ventas_seq");
+            siguienteVentaId = ultimaVentaIdReservada - TAMANO_BLOQUE_SECUENCIA + 1;
+        }
+        return siguienteVentaId++;
+    }
+
+    private long siguienteDetalleId() throws SQLException {
+        if (siguienteDetalleId == 0 || siguienteDetalleId > ultimoDetalleIdReservado) {
+            ultimoDetalleIdReservado = reservarBloque("venta_detalles_seq");
+            siguienteDetalleId = ultimoDetalleIdReservado - TAMANO_BLOQUE_SECUENCIA + 1;
+        }
+        return siguienteDetalleId++;
+    }
+
+    /**
+     * Lee y adelanta la tabla de secuencia como el optimizador pooled de Hibernate:
+     * el valor leído es el último ID del bloque
+     */
+    private long reservarBloque(String secuencia) throws SQLException {
+        try (Statement st = conexion.createStatement();
+             ResultSet rs = st.executeQuery("SELECT next_val FROM " + secuencia + " FOR UPDATE")) {
+            rs.next();
+            long valor = rs.getLong(1);
+            st.executeUpdate("UPDATE " + secuencia + " SET next_val = " + (valor + TAMANO_BLOQUE_SECUENCIA));
+            return valor;
+        }
+    }
+}
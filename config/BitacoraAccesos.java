@@ -0,0 +1,262 @@
+package informviva.gest.config;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import informviva.gest.util.HistogramaLatencia;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bitácora de accesos HTTP sobre un buffer circular preasignado.
+ * <p>
+ * {@link LoggingFilter} copia en una ranura del buffer los datos de cada solicitud (tiempos,
+ * estado, bytes, usuario, referencias a método y ruta) sin crear objetos ni formatear texto.
+ * Un hilo consumidor en segundo plano recorre las ranuras publicadas, escribe la línea de log
+ * y acumula por endpoint (método + patrón de la ruta) el histograma de latencias y las
+ * sentencias SQL ejecutadas.
+ * <p>
+ * Si el consumidor se atrasa y el buffer se llena, las solicitudes nuevas no esperan:
+ * su registro se descarta y se cuenta.
+ * <p>
+ * Sin datos, el consumidor espera activamente unas pocas vueltas y luego se estaciona; la
+ * solicitud que publica una ranura lo despierta si lo encuentra estacionado, de modo que en
+ * reposo el hilo se despierta a lo sumo diez veces por segundo.
+ */
+@Component
+public class BitacoraAccesos {
+
+    private static final Logger logger = LoggerFactory.getLogger(BitacoraAccesos.class);
+    private static final DateTimeFormatter FORMATO_FECHA =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final int VUELTAS_ESPERA_ACTIVA = 100;
+    // Tope de la espera estacionada; solo importa si se pierde un aviso o al detener la bitácora
+    private static final long ESPERA_MAXIMA_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // Evita que rutas no mapeadas generen histogramas sin límite
+    private static final int MAXIMO_ENDPOINTS = 500;
+    private static final String SIN_PATRON = "(sin mapeo)";
+
+    /**
+     * Métricas acumuladas de un endpoint
+     */
+    private static final class MetricaEndpoint {
+        private final HistogramaLatencia latencias = new HistogramaLatencia();
+        private final LongAdder sentencias = new LongAdder();
+        private final LongAccumulator maximoSentencias = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Resumen de un endpoint
+     *
+     * @param latencia                Latencias en milisegundos
+     * @param sentenciasPorSolicitud  Promedio de sentencias SQL por solicitud
+     * @param maximoSentencias        Máximo de sentencias SQL en una solicitud
+     */
+    public record ResumenEndpoint(HistogramaLatencia.Resumen latencia, double sentenciasPorSolicitud,
+                                  long maximoSentencias) {
+    }
+
+    /**
+     * Ranura reutilizable del buffer; se publica escribiendo su número de secuencia
+     */
+    private static final class Ranura {
+        private volatile long secuencia = -1;
+        private long inicioEpochMs;
+        private long duracionNanos;
+        private long sentencias;
+        private int estado;
+        private long bytes;
+        private String metodo;
+        private String uri;
+        private String patron;
+        private String usuario;
+        private String ip;
+        private boolean escribirLinea;
+    }
+
+    private final Ranura[] ranuras;
+    private final int mascara;
+    private final AtomicLong siguiente = new AtomicLong();
+    private final AtomicLong consumido = new AtomicLong();
+    private final LongAdder descartados = new LongAdder();
+    private final Map<String, MetricaEndpoint> endpoints = new ConcurrentHashMap<>();
+    private final Thread consumidor;
+    private volatile boolean activo = true;
+    private volatile boolean consumidorEstacionado;
+
+    public BitacoraAccesos(@Value("${informviva.accesos.capacidad:8192}") int capacidad) {
+        int tamano = Integer.highestOneBit(Math.max(2, capacidad - 1)) << 1;
+        this.ranuras = new Ranura[tamano];
+        for (int i = 0; i < tamano; i++) {
+            ranuras[i] = new Ranura();
+        }
+        this.mascara = tamano - 1;
+        this.consumidor = Thread.ofPlatform().name("bitacora-accesos").daemon().unstarted(this::consumir);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        consumidor.start();
+    }
+
+    /**
+     * Registra una solicitud terminada
+     *
+     * @param inicioEpochMs Instante de inicio (System.currentTimeMillis)
+     * @param duracionNanos Duración medida con System.nanoTime
+     * @param sentencias    Sentencias SQL ejecutadas por la solicitud
+     * @param estado        Código de estado HTTP
+     * @param bytes         Bytes de la respuesta, o -1 si no se conocen
+     * @param metodo        Método HTTP
+     * @param uri           URI solicitada
+     * @param patron        Patrón de la ruta que atendió la solicitud, o null
+     * @param usuario       Usuario autenticado, o null
+     * @param ip            IP del cliente
+     * @param escribirLinea true para escribir la línea en el log además de medir la latencia
+     */
+    public void registrar(long inicioEpochMs, long duracionNanos, long sentencias, int estado, long bytes, String metodo, String uri,
+                          String patron, String usuario, String ip, boolean escribirLinea) {
+        long secuencia;
+        do {
+            secuencia = siguiente.get();
+            if (secuencia - consumido.get() >= ranuras.length) {
+                descartados.increment();
+                return;
+            }
+        } while (!siguiente.compareAndSet(secuencia, secuencia + 1));
+
+        Ranura ranura = ranuras[(int) (secuencia & mascara)];
+        ranura.inicioEpochMs = inicioEpochMs;
+        ranura.duracionNanos = duracionNanos;
+        ranura.sentencias = sentencias;
+        ranura.estado = estado;
+        ranura.bytes = bytes;
+        ranura.metodo = metodo;
+        ranura.uri = uri;
+        ranura.patron = patron;
+        ranura.usuario = usuario;
+        ranura.ip = ip;
+        ranura.escribirLinea = escribirLinea;
+        // Escritura volátil: publica los campos anteriores al consumidor
+        ranura.secuencia = secuencia;
+        if (consumidorEstacionado) {
+            LockSupport.unpark(consumidor);
+        }
+    }
+
+    private void consumir() {
+        int vueltasSinDatos = 0;
+        while (activo || consumido.get() < siguiente.get()) {
+            if (procesarSiguiente()) {
+                vueltasSinDatos = 0;
+            } else if (vueltasSinDatos < VUELTAS_ESPERA_ACTIVA) {
+                vueltasSinDatos++;
+                Thread.onSpinWait();
+            } else {
+                consumidorEstacionado = true;
+                // Se revisa después de marcarse: una ranura publicada antes de la marca no avisa
+                if (!hayPublicada() && activo) {
+                    LockSupport.parkNanos(this, ESPERA_MAXIMA_NANOS);
+                }
+                consumidorEstacionado = false;
+            }
+        }
+    }
+
+    private boolean hayPublicada() {
+        long secuencia = consumido.get();
+        return ranuras[(int) (secuencia & mascara)].secuencia == secuencia;
+    }
+
+    private boolean procesarSiguiente() {
+        if (!hayPublicada()) {
+            return false;
+        }
+        long secuencia = consumido.get();
+        Ranura ranura = ranuras[(int) (secuencia & mascara)];
+        try {
+            procesar(ranura);
+        } catch (RuntimeException e) {
+            logger.error("Error al registrar un acceso: {}", e.getMessage());
+        }
+        // Soltar referencias antes de liberar la ranura
+        ranura.uri = null;
+        ranura.usuario = null;
+        ranura.ip = null;
+        consumido.set(secuencia + 1);
+        return true;
+    }
+
+    private void procesar(Ranura ranura) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(ranura.duracionNanos);
+        String endpoint = ranura.metodo + " " + (ranura.patron != null ? ranura.patron : SIN_PATRON);
+        MetricaEndpoint metrica = endpoints.get(endpoint);
+        if (metrica == null && endpoints.size() < MAXIMO_ENDPOINTS) {
+            metrica = endpoints.computeIfAbsent(endpoint, clave -> new MetricaEndpoint());
+        }
+        if (metrica != null) {
+            metrica.latencias.registrar(micros);
+            metrica.sentencias.add(ranura.sentencias);
+            metrica.maximoSentencias.accumulate(ranura.sentencias);
+        }
+
+        if (ranura.escribirLinea && logger.isInfoEnabled()) {
+            logger.info("[{}] Usuario: {} | {}:{} | Estado: {} | Bytes: {} | {} ms | SQL: {} | IP: {}",
+                    FORMATO_FECHA.format(Instant.ofEpochMilli(ranura.inicioEpochMs)),
+                    ranura.usuario != null ? ranura.usuario : "Anonymous",
+                    ranura.metodo, ranura.uri, ranura.estado,
+                    ranura.bytes >= 0 ? ranura.bytes : "-",
+                    micros / 1000.0, ranura.sentencias, ranura.ip);
+        }
+    }
+
+    /**
+     * Latencias y sentencias SQL por endpoint, ordenadas por nombre
+     *
+     * @return Resumen (p50, p95, p99 y sentencias por solicitud) de cada endpoint
+     */
+    public Map<String, ResumenEndpoint> resumenEndpoints() {
+        Map<String, ResumenEndpoint> resumen = new TreeMap<>();
+        endpoints.forEach((endpoint, metrica) -> {
+            HistogramaLatencia.Resumen latencia = metrica.latencias.resumen();
+            double promedio = latencia.cantidad() == 0 ? 0 : (double) metrica.sentencias.sum() / latencia.cantidad();
+            resumen.put(endpoint, new ResumenEndpoint(latencia, Math.round(promedio * 10) / 10.0,
+                    metrica.maximoSentencias.get()));
+        });
+        return resumen;
+    }
+
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    public long getPendientes() {
+        return siguiente.get() - consumido.get();
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        activo = false;
+        LockSupport.unpark(consumidor);
+        consumidor.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
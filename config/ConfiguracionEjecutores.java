@@ -0,0 +1,30 @@
+package informviva.gest.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Ejecutores de tareas de la aplicación.
+ * Habilita además las tareas programadas (por ejemplo, el vaciado de {@code RegistroUltimoAcceso}).
+ *
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+@Configuration
+@EnableScheduling
+public class ConfiguracionEjecutores {
+
+    /**
+     * Ejecutor con un hilo virtual por tarea para consultas independientes que se lanzan
+     * en paralelo (por ejemplo, las del dashboard). Las tareas pasan la mayor parte del
+     * tiempo esperando a la base de datos, por lo que no conviene un pool fijo de hilos.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService ejecutorConsultas() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
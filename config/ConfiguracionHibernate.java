@@ -0,0 +1,40 @@
+package informviva.gest.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de propiedades de Hibernate.
+ * Habilita el envío de INSERT/UPDATE en lotes JDBC, necesario para la carga masiva de ventas,
+ * y registra {@link ContadorSentenciasSql} para contar las sentencias de cada solicitud.
+ *
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+@Configuration
+public class ConfiguracionHibernate {
+
+    /**
+     * Tamaño de lote JDBC; coincide con el allocationSize de las secuencias de ventas
+     */
+    public static final int TAMANO_LOTE = 50;
+
+    /**
+     * Tamaño de fetch para consultas que se recorren como Stream.
+     * Con MySQL Connector/J, Integer.MIN_VALUE hace que el driver entregue las filas una a una
+     * en lugar de cargar el resultado completo en memoria.
+     */
+    public static final String TAMANO_FETCH_STREAMING = "" + Integer.MIN_VALUE;
+
+    @Bean
+    HibernatePropertiesCustomizer personalizarHibernate() {
+        return propiedades -> {
+            propiedades.put(AvailableSettings.STATEMENT_BATCH_SIZE, TAMANO_LOTE);
+            propiedades.put(AvailableSettings.ORDER_INSERTS, true);
+            propiedades.put(AvailableSettings.ORDER_UPDATES, true);
+            propiedades.put(AvailableSettings.STATEMENT_INSPECTOR, new ContadorSentenciasSql());
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package informviva.gest.config;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Service;
+
+/**
+ * Instrumentación de la capa de servicios.
+ * Registra {@link MetricasServicios} como advisor de infraestructura, de modo que lo aplica el
+ * mismo mecanismo de proxies que @Transactional sin requerir AspectJ.
+ *
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+@Configuration
+public class ConfiguracionMetricas {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static MetricasServicios metricasServicios() {
+        return new MetricasServicios();
+    }
+
+    /**
+     * Aplica las métricas a los métodos de las clases anotadas con @Service.
+     * Se ejecuta antes que la transacción para que la latencia incluya su apertura y commit.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor asesorMetricasServicios(MetricasServicios metricasServicios) {
+        DefaultPointcutAdvisor asesor = new DefaultPointcutAdvisor(
+                new AnnotationMatchingPointcut(Service.class, true), metricasServicios);
+        asesor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return asesor;
+    }
+}
@@ -0,0 +1,71 @@
+package informviva.gest.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Origen de datos con réplica de lectura.
+ * Solo se activa si se configura {@code informviva.datasource.replica.url}; sin esa propiedad se
+ * usa el origen de datos que Spring Boot arma con {@code spring.datasource.*}.
+ * <p>
+ * La primaria se sigue configurando con {@code spring.datasource.*} (incluido
+ * {@code spring.datasource.hikari.*}). Las transacciones de solo lectura usan la réplica según
+ * {@link OrigenDatosEnrutado}. Para probarlo localmente basta con apuntar ambas URL a dos bases
+ * embebidas distintas (por ejemplo dos bases H2 en memoria).
+ *
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "informviva.datasource.replica", name = "url")
+public class ConfiguracionOrigenDatos {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource origenPrimario(DataSourceProperties propiedades) {
+        HikariDataSource origen = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        origen.setPoolName("primaria");
+        return origen;
+    }
+
+    @Bean
+    public HikariDataSource origenReplica(@Value("${informviva.datasource.replica.url}") String url,
+                                          @Value("${informviva.datasource.replica.usuario:${spring.datasource.username:}}") String usuario,
+                                          @Value("${informviva.datasource.replica.clave:${spring.datasource.password:}}") String clave,
+                                          @Value("${informviva.datasource.replica.maximo-conexiones:10}") int maximoConexiones) {
+        HikariDataSource origen = new HikariDataSource();
+        origen.setPoolName("replica");
+        origen.setJdbcUrl(url);
+        origen.setUsername(usuario);
+        origen.setPassword(clave);
+        origen.setMaximumPoolSize(maximoConexiones);
+        origen.setReadOnly(true);
+        return origen;
+    }
+
+    @Bean
+    public OrigenDatosEnrutado origenDatosEnrutado(HikariDataSource origenPrimario, HikariDataSource origenReplica,
+                                                   @Value("${informviva.datasource.replica.retraso-maximo-ms:5000}") long retrasoMaximoMs) {
+        return new OrigenDatosEnrutado(origenPrimario, origenReplica, Duration.ofMillis(retrasoMaximoMs));
+    }
+
+    /**
+     * Origen de datos que usan JPA y JdbcTemplate. La conexión se obtiene en la primera sentencia,
+     * cuando ya se sabe si la transacción es de solo lectura.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(OrigenDatosEnrutado origenDatosEnrutado) {
+        return new LazyConnectionDataSourceProxy(origenDatosEnrutado);
+    }
+}
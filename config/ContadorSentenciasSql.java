@@ -0,0 +1,123 @@
+package informviva.gest.config;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cuenta las sentencias SQL que prepara Hibernate, en total y por solicitud.
+ * <p>
+ * El conteo por solicitud se asocia al hilo que {@link LoggingFilter} inicia y detiene. Las
+ * tareas que la solicitud lanza en otros hilos pueden sumar al mismo conteo con
+ * {@link #continuar(Conteo)} (así lo hace {@code EjecutorConsultasParalelas}). Las consultas
+ * hechas con JdbcTemplate no pasan por Hibernate y no se cuentan.
+ * <p>
+ * Con {@link #setRegistrarSentencias(boolean)} activo se guarda además el texto de las primeras
+ * sentencias de cada solicitud, para diagnosticar consultas N+1 en desarrollo.
+ */
+public class ContadorSentenciasSql implements StatementInspector {
+
+    private static final int MAXIMO_SENTENCIAS_REGISTRADAS = 100;
+
+    private static final ThreadLocal<Conteo> CONTEO_SOLICITUD = new ThreadLocal<>();
+    private static final LongAdder TOTAL = new LongAdder();
+    private static volatile boolean registrarSentencias;
+
+    /**
+     * Conteo de una solicitud, compartido por los hilos que trabajan para ella
+     */
+    public static final class Conteo {
+        private final AtomicLong cantidad = new AtomicLong();
+        private final Queue<String> sentencias = registrarSentencias ? new ConcurrentLinkedQueue<>() : null;
+
+        private void registrar(String sql) {
+            long numero = cantidad.incrementAndGet();
+            if (sentencias != null && numero <= MAXIMO_SENTENCIAS_REGISTRADAS) {
+                sentencias.add(sql);
+            }
+        }
+
+        public long cantidad() {
+            return cantidad.get();
+        }
+
+        /**
+         * @return Texto de las sentencias registradas; vacío si el registro está desactivado
+         */
+        public List<String> sentencias() {
+            return sentencias != null ? List.copyOf(sentencias) : List.of();
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        TOTAL.increment();
+        Conteo conteo = CONTEO_SOLICITUD.get();
+        if (conteo != null) {
+            conteo.registrar(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Comienza a contar las sentencias del hilo actual
+     */
+    public static void iniciar() {
+        CONTEO_SOLICITUD.set(new Conteo());
+    }
+
+    /**
+     * @return Conteo del hilo actual, o null si no se inició
+     */
+    public static Conteo conteoActual() {
+        return CONTEO_SOLICITUD.get();
+    }
+
+    /**
+     * @return Sentencias contadas en el hilo actual desde {@link #iniciar()}; 0 si no se inició
+     */
+    public static long actual() {
+        Conteo conteo = CONTEO_SOLICITUD.get();
+        return conteo != null ? conteo.cantidad() : 0;
+    }
+
+    /**
+     * Suma las sentencias del hilo actual al conteo de otra solicitud hasta llamar a {@link #detener()}
+     *
+     * @param conteo Conteo obtenido con {@link #conteoActual()} en el hilo de la solicitud; null no cuenta
+     */
+    public static void continuar(Conteo conteo) {
+        if (conteo != null) {
+            CONTEO_SOLICITUD.set(conteo);
+        }
+    }
+
+    /**
+     * Deja de contar en el hilo actual
+     *
+     * @return Sentencias contadas desde {@link #iniciar()}
+     */
+    public static long detener() {
+        long sentencias = actual();
+        CONTEO_SOLICITUD.remove();
+        return sentencias;
+    }
+
+    public static long total() {
+        return TOTAL.sum();
+    }
+
+    public static void setRegistrarSentencias(boolean registrar) {
+        registrarSentencias = registrar;
+    }
+}
@@ -0,0 +1,29 @@
+package informviva.gest.config;
+
+import informviva.gest.repository.VentaDetalleRepositorio;
+import informviva.gest.service.ProductoEstadisticaServicio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Genera las estadísticas de ventas por producto al iniciar si la tabla está vacía y ya existen
+ * líneas de venta (primera ejecución después de incorporar producto_estadisticas).
+ */
+@Configuration
+public class InicializadorEstadisticasProductos {
+    private static final Logger logger = LoggerFactory.getLogger(InicializadorEstadisticasProductos.class);
+
+    @Bean
+    CommandLineRunner inicializarEstadisticasProductos(ProductoEstadisticaServicio productoEstadisticaServicio,
+                                                       VentaDetalleRepositorio ventaDetalleRepositorio) {
+        return args -> {
+            if (productoEstadisticaServicio.estaVacio() && ventaDetalleRepositorio.count() > 0) {
+                logger.info("Estadísticas de productos vacías, reconstruyendo desde la tabla venta_detalles");
+                productoEstadisticaServicio.reconstruir();
+            }
+        };
+    }
+}
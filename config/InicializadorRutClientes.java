@@ -0,0 +1,55 @@
+package informviva.gest.config;
+
+import informviva.gest.model.Cliente;
+import informviva.gest.repository.ClienteRepositorio;
+import informviva.gest.validador.ValidadorRutUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Completa el RUT normalizado de los clientes registrados antes de incorporar la columna
+ * rut_normalizado. Los RUT duplicados se dejan sin normalizar y se informan en el log
+ * para revisarlos manualmente, ya que la columna tiene un índice único.
+ */
+@Configuration
+public class InicializadorRutClientes {
+    private static final Logger logger = LoggerFactory.getLogger(InicializadorRutClientes.class);
+
+    @Bean
+    CommandLineRunner normalizarRutClientes(ClienteRepositorio clienteRepositorio) {
+        return args -> {
+            List<Cliente> pendientes = clienteRepositorio.findByRutNormalizadoIsNullAndRutIsNotNull();
+            if (pendientes.isEmpty()) {
+                return;
+            }
+
+            Set<String> asignados = new HashSet<>();
+            int actualizados = 0;
+            for (Cliente cliente : pendientes) {
+                String rutNormalizado = ValidadorRutUtil.normalizar(cliente.getRut());
+                if (rutNormalizado == null) {
+                    continue;
+                }
+                if (!asignados.add(rutNormalizado) || clienteRepositorio.existsByRutNormalizado(rutNormalizado)) {
+                    logger.warn("RUT duplicado {} en el cliente {}; se deja sin normalizar", cliente.getRut(), cliente.getId());
+                    continue;
+                }
+                try {
+                    cliente.setRutNormalizado(rutNormalizado);
+                    clienteRepositorio.save(cliente);
+                    actualizados++;
+                } catch (Exception e) {
+                    logger.warn("No se pudo normalizar el RUT del cliente {}: {}", cliente.getId(), e.getMessage());
+                }
+            }
+            logger.info("RUT normalizado asignado a {} de {} clientes pendientes", actualizados, pendientes.size());
+        };
+    }
+}
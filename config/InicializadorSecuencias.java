@@ -0,0 +1,68 @@
+package informviva.gest.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+/**
+ * Alinea las secuencias de ventas y detalles con los IDs ya existentes.
+ * <p>
+ * Venta y VentaDetalle usan secuencias pooled (allocationSize 50). En MySQL Hibernate las emula
+ * con las tablas ventas_seq y venta_detalles_seq, que al crearse parten en 1; en una base con
+ * ventas generadas por AUTO_INCREMENT los primeros IDs asignados chocarían con los existentes.
+ * Se ejecuta después de crear el EntityManagerFactory (y con ello el esquema) y antes de que la
+ * aplicación atienda solicitudes, y solo adelanta la secuencia: nunca la retrocede.
+ * <p>
+ * El optimizador pooled toma el valor leído como el último ID del bloque, por lo que la secuencia
+ * debe quedar en MAX(id) + 50 para que el primer bloque empiece en MAX(id) + 1.
+ */
+@Configuration
+@DependsOn("entityManagerFactory")
+public class InicializadorSecuencias {
+    private static final Logger logger = LoggerFactory.getLogger(InicializadorSecuencias.class);
+
+    /**
+     * Debe coincidir con allocationSize de los @SequenceGenerator de Venta y VentaDetalle
+     */
+    static final int TAMANO_BLOQUE = 50;
+
+    // Tabla de secuencia -> tabla cuyos IDs genera
+    private static final Map<String, String> SECUENCIAS = Map.of(
+            "ventas_seq", "ventas",
+            "venta_detalles_seq", "venta_detalles");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InicializadorSecuencias(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void alinearSecuencias() {
+        SECUENCIAS.forEach(this::alinear);
+    }
+
+    private void alinear(String secuencia, String tabla) {
+        try {
+            Long maximo = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + tabla, Long.class);
+            if (maximo == null) {
+                return;
+            }
+            long minimo = maximo + TAMANO_BLOQUE;
+            int actualizadas = jdbcTemplate.update(
+                    "UPDATE " + secuencia + " SET next_val = ? WHERE next_val < ?", minimo, minimo);
+            if (actualizadas > 0) {
+                logger.info("Secuencia {} adelantada a {} (MAX(id) de {} = {})", secuencia, minimo, tabla, maximo);
+            }
+        } catch (DataAccessException e) {
+            // Bases con secuencias nativas u otro esquema: se informa y se deja como está
+            logger.warn("No se pudo alinear la secuencia {} con la tabla {}: {}", secuencia, tabla, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package informviva.gest.config;
+
+import informviva.gest.model.VentaDetalle;
+import informviva.gest.repository.VentaDetalleRepositorio;
+import informviva.gest.repository.VentaRepositorio;
+import informviva.gest.service.VentaDiariaServicio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Genera el resumen diario de ventas al iniciar si la tabla está vacía y ya existen ventas
+ * (primera ejecución después de incorporar ventas_diarias).
+ * <p>
+ * También aplica, una sola vez, la migración de venta_detalles.categoria: si los detalles más
+ * antiguos aún tienen categoría NULL, les asigna la categoría actual del producto y reconstruye el
+ * resumen en la misma transacción, de modo que el resumen y las categorías guardadas coinciden.
+ * Una vez migrados no quedan detalles con categoría NULL y la verificación es una lectura por
+ * clave primaria.
+ */
+@Configuration
+public class InicializadorVentasDiarias {
+    private static final Logger logger = LoggerFactory.getLogger(InicializadorVentasDiarias.class);
+
+    @Bean
+    CommandLineRunner inicializarVentasDiarias(VentaDiariaServicio ventaDiariaServicio, VentaRepositorio ventaRepositorio,
+                                               VentaDetalleRepositorio ventaDetalleRepositorio,
+                                               TransactionTemplate transactionTemplate) {
+        return args -> {
+            VentaDetalle primero = ventaDetalleRepositorio.findFirstByOrderByIdAsc();
+            if (primero != null && primero.getCategoria() == null) {
+                transactionTemplate.executeWithoutResult(estado -> {
+                    int completados = ventaDetalleRepositorio.completarCategoriaFaltante();
+                    logger.info("Categoría registrada en {} detalles de venta anteriores; reconstruyendo el resumen diario",
+                            completados);
+                    ventaDiariaServicio.reconstruir();
+                });
+                return;
+            }
+            if (ventaDiariaServicio.estaVacio() && ventaRepositorio.count() > 0) {
+                logger.info("Resumen diario de ventas vacío, reconstruyendo desde la tabla ventas");
+                ventaDiariaServicio.reconstruir();
+            }
+        };
+    }
+}
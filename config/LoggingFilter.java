@@ -6,93 +6,109 @@ package informviva.gest.config;
  */
 
 
-import informviva.gest.util.MensajesConstantes;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
- * Filtro para registrar accesos y acciones de seguridad
+ * Filtro para registrar accesos y acciones de seguridad.
+ * Mide cada solicitud (duración y sentencias SQL) y entrega los datos a {@link BitacoraAccesos}, que escribe el log
+ * y calcula las latencias en segundo plano; en la solicitud solo se leen valores ya disponibles.
  */
 @Component
 public class LoggingFilter extends OncePerRequestFilter {
 
-    private static final Logger logger = LoggerFactory.getLogger(LoggingFilter.class);
-    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String ENCABEZADO_IP_ORIGEN = "X-Forwarded-For";
+
+    private final BitacoraAccesos bitacoraAccesos;
+
+    public LoggingFilter(BitacoraAccesos bitacoraAccesos) {
+        this.bitacoraAccesos = bitacoraAccesos;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        // Obtener información del usuario autenticado (si existe)
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth != null && auth.isAuthenticated() && !"anonymousUser".equals(auth.getPrincipal())
-                ? auth.getName()
-                : "Anonymous";
-
-        // Obtener información de la solicitud
-        String requestMethod = request.getMethod();
-        String requestURI = request.getRequestURI();
-        String remoteAddr = getClientIpAddress(request);
-        String userAgent = request.getHeader("User-Agent");
-        String timestamp = LocalDateTime.now().format(formatter);
+        long inicioEpochMs = System.currentTimeMillis();
+        long inicio = System.nanoTime();
+        ContadorSentenciasSql.iniciar();
+        try {
+            // Procesar la solicitud
+            filterChain.doFilter(request, response);
+        } finally {
+            long duracion = System.nanoTime() - inicio;
+            long sentencias = ContadorSentenciasSql.detener();
+            String requestURI = request.getRequestURI();
+
+            bitacoraAccesos.registrar(inicioEpochMs, duracion, sentencias, response.getStatus(), bytesRespuesta(response),
+                    request.getMethod(), requestURI,
+                    (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+                    usuarioActual(), getClientIpAddress(request), debeEscribirLinea(requestURI));
+        }
+    }
 
-        // Registrar antes de procesar la solicitud
-        if (requestURI.startsWith("/api") ||
+    /**
+     * Solo se escriben en el log las rutas de API, sesión y panel; el resto solo se mide
+     */
+    private boolean debeEscribirLinea(String requestURI) {
+        return requestURI.startsWith("/api") ||
                 requestURI.equals("/login") ||
                 requestURI.equals("/logout") ||
-                requestURI.startsWith("/panel")) {
-
-            logger.info("[{}] Usuario: {} | {}:{} | IP: {} | Agente: {}",
-                    timestamp, username, requestMethod, requestURI, remoteAddr, userAgent);
-        }
+                requestURI.startsWith("/panel");
+    }
 
-        // Procesar la solicitud
-        filterChain.doFilter(request, response);
+    /**
+     * Obtiene el usuario autenticado (si existe)
+     *
+     * @return Nombre de usuario, o null si la solicitud es anónima
+     */
+    private String usuarioActual() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)
+                ? auth.getName()
+                : null;
+    }
 
-        // No registramos nada después de la respuesta para evitar sobrecarga de logs
+    /**
+     * Tamaño de la respuesta según Content-Length; las respuestas por bloques (chunked) no lo informan
+     */
+    private long bytesRespuesta(HttpServletResponse response) {
+        String contentLength = response.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 
     /**
-     * Obtiene la dirección IP real del cliente, incluso detrás de proxies
+     * Obtiene la dirección IP del cliente: la primera de X-Forwarded-For si la solicitud pasó por un proxy
      *
      * @param request La solicitud HTTP
      * @return La dirección IP del cliente
      */
     private String getClientIpAddress(HttpServletRequest request) {
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.isEmpty() || MensajesConstantes.UNK.equalsIgnoreCase(ip)) {
-            ip = request.getHeader("Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || MensajesConstantes.UNK.equalsIgnoreCase(ip)) {
-            ip = request.getHeader("WL-Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || MensajesConstantes.UNK.equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_CLIENT_IP");
-        }
-        if (ip == null || ip.isEmpty() || MensajesConstantes.UNK.equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_X_FORWARDED_FOR");
-        }
-        if (ip == null || ip.isEmpty() || MensajesConstantes.UNK.equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
+        String ip = request.getHeader(ENCABEZADO_IP_ORIGEN);
+        if (ip == null || ip.isEmpty()) {
+            return request.getRemoteAddr();
         }
 
         // Si hay múltiples IPs (X-Forwarded-For puede contener una lista), tomar la primera
-        if (ip != null && ip.contains(",")) {
-            ip = ip.split(",")[0].trim();
-        }
-
-        return ip;
+        int coma = ip.indexOf(',');
+        return coma >= 0 ? ip.substring(0, coma).trim() : ip;
     }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package informviva.gest.config;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import informviva.gest.util.HistogramaLatencia;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Interceptor que mide las llamadas a los métodos públicos de los servicios:
+ * cantidad de llamadas, errores e histograma de latencias por método.
+ * Se aplica a las clases anotadas con @Service (ver {@link ConfiguracionMetricas}).
+ * <p>
+ * Las llamadas anidadas entre servicios se miden en cada nivel, por lo que el tiempo de un
+ * método incluye el de los servicios que invoca.
+ */
+public class MetricasServicios implements MethodInterceptor {
+
+    /**
+     * Métricas acumuladas de un método
+     */
+    private static final class MetricaMetodo {
+        private final String nombre;
+        private final LongAdder llamadas = new LongAdder();
+        private final LongAdder errores = new LongAdder();
+        private final HistogramaLatencia latencias = new HistogramaLatencia();
+
+        private MetricaMetodo(String nombre) {
+            this.nombre = nombre;
+        }
+    }
+
+    /**
+     * Resumen de un método de servicio
+     */
+    public record Resumen(long llamadas, long errores, HistogramaLatencia.Resumen latencia) {
+    }
+
+    private final Map<Method, MetricaMetodo> porMetodo = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MetricaMetodo metrica = porMetodo.computeIfAbsent(invocation.getMethod(), metodo -> {
+            Class<?> clase = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis())
+                    : metodo.getDeclaringClass();
+            return new MetricaMetodo(nombre(clase, metodo));
+        });
+
+        long inicio = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            metrica.errores.increment();
+            throw e;
+        } finally {
+            metrica.llamadas.increment();
+            metrica.latencias.registrar(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - inicio));
+        }
+    }
+
+    /**
+     * Resumen por método, ordenado por nombre: Clase.metodo(TiposDeParametros)
+     */
+    public Map<String, Resumen> resumen() {
+        Map<String, Resumen> resumen = new TreeMap<>();
+        porMetodo.values().forEach(metrica -> resumen.put(metrica.nombre,
+                new Resumen(metrica.llamadas.sum(), metrica.errores.sum(), metrica.latencias.resumen())));
+        return resumen;
+    }
+
+    // Los tipos de parámetros distinguen las sobrecargas de un mismo método
+    private static String nombre(Class<?> clase, Method metodo) {
+        StringJoiner parametros = new StringJoiner(",", "(", ")");
+        for (Class<?> tipo : metodo.getParameterTypes()) {
+            parametros.add(tipo.getSimpleName());
+        }
+        return clase.getSimpleName() + "." + metodo.getName() + parametros;
+    }
+}
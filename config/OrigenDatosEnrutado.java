@@ -0,0 +1,193 @@
+package informviva.gest.config;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Origen de datos que envía las transacciones de solo lectura a la réplica y el resto a la primaria.
+ * <p>
+ * La decisión se toma al obtener la conexión, por lo que debe envolverse en un
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: así la conexión se pide
+ * con la transacción ya iniciada y su marca de solo lectura disponible.
+ * <p>
+ * Para no leer datos que la réplica aún no recibe, cuando un cliente confirma una transacción
+ * de escritura sus lecturas siguen yendo a la primaria durante {@code retrasoMaximo}. Se considera
+ * de escritura toda transacción que no es de solo lectura y usó una conexión. El cliente se
+ * identifica por su sesión HTTP; sin sesión, por el usuario autenticado o, en último caso, por la
+ * dirección remota (ver {@link #claveConsistencia()}). Los hilos que trabajan para una solicitud,
+ * como los de {@code EjecutorConsultasParalelas}, heredan su clave con {@link #continuar(String)}.
+ * Las tareas sin solicitud (programadas, de inicio) no tienen clave y no aplican esta regla.
+ * <p>
+ * Los valores que se guardan en caché sin vencimiento deben leerse con {@link #leerDePrimaria(Supplier)}:
+ * una réplica atrasada podría devolver datos anteriores a la invalidación y dejarlos en caché.
+ */
+public class OrigenDatosEnrutado extends AbstractRoutingDataSource {
+
+    /**
+     * Destino de una conexión
+     */
+    public enum Destino {
+        PRIMARIA, REPLICA
+    }
+
+    /**
+     * Cantidad de sesiones registradas a partir de la cual se descartan las ya vencidas
+     */
+    private static final int LIMPIAR_SOBRE = 1_000;
+
+    private static final ThreadLocal<String> CLAVE_CONTINUADA = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> FORZAR_PRIMARIA = new ThreadLocal<>();
+
+    private final long retrasoMaximoNanos;
+    private final Map<String, Long> ultimaEscrituraPorCliente = new ConcurrentHashMap<>();
+    private final Map<Destino, LongAdder> conexiones = Map.of(
+            Destino.PRIMARIA, new LongAdder(), Destino.REPLICA, new LongAdder());
+
+    /**
+     * @param primaria      Origen de datos de escritura
+     * @param replica       Origen de datos de solo lectura
+     * @param retrasoMaximo Tiempo tras una escritura en que el cliente sigue leyendo de la primaria
+     */
+    public OrigenDatosEnrutado(DataSource primaria, DataSource replica, Duration retrasoMaximo) {
+        this.retrasoMaximoNanos = retrasoMaximo.toNanos();
+        setTargetDataSources(Map.<Object, Object>of(Destino.PRIMARIA, primaria, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primaria);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Destino destino = elegirDestino();
+        conexiones.get(destino).increment();
+        return destino;
+    }
+
+    private Destino elegirDestino() {
+        String clave = claveConsistencia();
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (FORZAR_PRIMARIA.get() != null || clave != null && escribioRecientemente(clave)) {
+                return Destino.PRIMARIA;
+            }
+            return Destino.REPLICA;
+        }
+        if (clave != null && TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    registrarEscritura(clave);
+                }
+            });
+        }
+        return Destino.PRIMARIA;
+    }
+
+    private boolean escribioRecientemente(String clave) {
+        Long instante = ultimaEscrituraPorCliente.get(clave);
+        if (instante == null) {
+            return false;
+        }
+        if (System.nanoTime() - instante < retrasoMaximoNanos) {
+            return true;
+        }
+        ultimaEscrituraPorCliente.remove(clave, instante);
+        return false;
+    }
+
+    private void registrarEscritura(String clave) {
+        long ahora = System.nanoTime();
+        ultimaEscrituraPorCliente.put(clave, ahora);
+        if (ultimaEscrituraPorCliente.size() > LIMPIAR_SOBRE) {
+            ultimaEscrituraPorCliente.values().removeIf(instante -> ahora - instante >= retrasoMaximoNanos);
+        }
+    }
+
+    /**
+     * Identifica al cliente cuyas escrituras recientes deben leerse de la primaria: la clave
+     * continuada en el hilo, o la de la solicitud en curso (sesión, usuario o dirección remota)
+     *
+     * @return Clave del cliente, o null si el hilo no trabaja para una solicitud
+     */
+    public static String claveConsistencia() {
+        String continuada = CLAVE_CONTINUADA.get();
+        if (continuada != null) {
+            return continuada;
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos) {
+            HttpServletRequest solicitud = atributos.getRequest();
+            HttpSession sesion = solicitud.getSession(false);
+            if (sesion != null) {
+                return "sesion:" + sesion.getId();
+            }
+            if (solicitud.getRemoteUser() != null) {
+                return "usuario:" + solicitud.getRemoteUser();
+            }
+            return "remoto:" + solicitud.getRemoteAddr();
+        }
+        return null;
+    }
+
+    /**
+     * Aplica en el hilo actual la clave de la solicitud que lanzó la tarea, hasta llamar a {@link #detener()}
+     *
+     * @param clave Clave obtenida con {@link #claveConsistencia()} en el hilo de la solicitud; null no aplica nada
+     */
+    public static void continuar(String clave) {
+        if (clave != null) {
+            CLAVE_CONTINUADA.set(clave);
+        }
+    }
+
+    /**
+     * Quita la clave continuada del hilo actual
+     */
+    public static void detener() {
+        CLAVE_CONTINUADA.remove();
+    }
+
+    /**
+     * Ejecuta una lectura enviando a la primaria las conexiones que se obtengan durante ella,
+     * aunque la transacción sea de solo lectura. La conexión se elige al obtenerse: si la
+     * transacción en curso ya usa una conexión de la réplica, la lectura debe abrir una nueva
+     * (por ejemplo con REQUIRES_NEW).
+     *
+     * @param lectura Lectura a ejecutar
+     * @return Resultado de la lectura
+     */
+    public static <T> T leerDePrimaria(Supplier<T> lectura) {
+        Boolean anterior = FORZAR_PRIMARIA.get();
+        FORZAR_PRIMARIA.set(Boolean.TRUE);
+        try {
+            return lectura.get();
+        } finally {
+            if (anterior == null) {
+                FORZAR_PRIMARIA.remove();
+            }
+        }
+    }
+
+    /**
+     * @param destino Primaria o réplica
+     * @return Conexiones entregadas a ese destino desde el inicio
+     */
+    public long conexionesEntregadas(Destino destino) {
+        return conexiones.get(destino).sum();
+    }
+}
@@ -0,0 +1,29 @@
+package informviva.gest.config;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Número máximo de sentencias SQL que puede ejecutar una solicitud atendida por el endpoint.
+ * Lo verifica {@link VerificadorPresupuestoSql} antes de escribir la respuesta; en una clase,
+ * aplica a todos sus endpoints que no declaren uno propio.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface PresupuestoSql {
+
+    /**
+     * @return Sentencias permitidas por solicitud
+     */
+    int maximo();
+}
@@ -0,0 +1,85 @@
+package informviva.gest.config;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import informviva.gest.exception.PresupuestoSqlExcedidoException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.lang.reflect.Method;
+
+/**
+ * Verifica el presupuesto de sentencias SQL de los endpoints anotados con {@link PresupuestoSql}.
+ * <p>
+ * La verificación se hace justo antes de escribir el cuerpo de la respuesta, cuando todavía es
+ * posible responder con un error, usando el conteo de {@link ContadorSentenciasSql} de la solicitud
+ * (incluye las consultas lanzadas en paralelo por {@code EjecutorConsultasParalelas}).
+ * <p>
+ * Por defecto un exceso solo se registra como advertencia. Con
+ * {@code informviva.sql.presupuesto.estricto=true} (pensado para desarrollo) se guarda el texto
+ * de las sentencias, se registran como error y la solicitud falla con
+ * {@link PresupuestoSqlExcedidoException}, de modo que una consulta N+1 nueva se detecta al
+ * primer uso del endpoint.
+ */
+@ControllerAdvice
+public class VerificadorPresupuestoSql implements ResponseBodyAdvice<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificadorPresupuestoSql.class);
+
+    private final boolean estricto;
+
+    public VerificadorPresupuestoSql(@Value("${informviva.sql.presupuesto.estricto:false}") boolean estricto) {
+        this.estricto = estricto;
+        ContadorSentenciasSql.setRegistrarSentencias(estricto);
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return presupuesto(returnType) != null;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        ContadorSentenciasSql.Conteo conteo = ContadorSentenciasSql.conteoActual();
+        PresupuestoSql presupuesto = presupuesto(returnType);
+        if (conteo == null || presupuesto == null || conteo.cantidad() <= presupuesto.maximo()) {
+            return body;
+        }
+
+        String mensaje = String.format("%s %s ejecutó %d sentencias SQL (presupuesto: %d)",
+                request.getMethod(), request.getURI().getPath(), conteo.cantidad(), presupuesto.maximo());
+        if (!estricto) {
+            logger.warn(mensaje);
+            return body;
+        }
+
+        logger.error("{}. Sentencias:\n{}", mensaje, String.join("\n", conteo.sentencias()));
+        throw new PresupuestoSqlExcedidoException(mensaje);
+    }
+
+    private PresupuestoSql presupuesto(MethodParameter returnType) {
+        Method metodo = returnType.getMethod();
+        if (metodo == null) {
+            return null;
+        }
+        PresupuestoSql presupuesto = AnnotatedElementUtils.findMergedAnnotation(metodo, PresupuestoSql.class);
+        return presupuesto != null
+                ? presupuesto
+                : AnnotatedElementUtils.findMergedAnnotation(returnType.getContainingClass(), PresupuestoSql.class);
+    }
+}
@@ -1,13 +1,18 @@
 package informviva.gest.controlador;
 
+import informviva.gest.dto.PaginaCursorDTO;
 import informviva.gest.model.Cliente;
 import informviva.gest.service.ClienteServicio;
 import informviva.gest.service.VentaServicio;
+import informviva.gest.util.CursorPaginacion;
+import informviva.gest.util.Dinero;
 import informviva.gest.util.MensajesConstantes;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -15,6 +20,8 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.List;
+
 @Controller
 @RequestMapping("/clientes")
 public class ClienteControlador {
@@ -31,20 +38,40 @@ public class ClienteControlador {
      * VISTA PRINCIPAL - Lista de clientes (acceso general)
      * Ruta: /clientes
      * Vista: templates/clientes/lista.html
+     * <p>
+     * Con el parámetro cursor la lista avanza por clave (nombre, id) y el costo de cada página
+     * no depende de su profundidad; sin él se mantiene la paginación por número de página.
+     * En ambos casos se entrega cursorSiguiente para el enlace a la página siguiente.
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'VENTAS')")
     public String listarClientes(Model modelo,
                                  @ModelAttribute("mensaje") String mensaje,
                                  @RequestParam(defaultValue = "0") int page,
-                                 @RequestParam(defaultValue = "10") int size) {
-
-        // Paginación
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Cliente> clientesPage = clienteServicio.obtenerTodosPaginados(pageable);
-
-        modelo.addAttribute("clientes", clientesPage.getContent());
-        modelo.addAttribute("currentPage", clientesPage);
+                                 @RequestParam(defaultValue = "10") int size,
+                                 @RequestParam(required = false) String cursor) {
+
+        if (cursor != null && !cursor.isBlank()) {
+            PaginaCursorDTO<Cliente> pagina = clienteServicio.listarPorCursor(cursor, CursorPaginacion.limitarTamano(size));
+            modelo.addAttribute("clientes", pagina.contenido());
+            modelo.addAttribute("cursorSiguiente", pagina.siguiente());
+            modelo.addAttribute("haySiguiente", pagina.haySiguiente());
+        } else {
+            // Paginación (mismo orden que el recorrido por cursor)
+            Pageable pageable = PageRequest.of(page, size, Sort.by("nombre", "id"));
+            Page<Cliente> clientesPage = clienteServicio.obtenerTodosPaginados(pageable);
+            List<Cliente> clientes = clientesPage.getContent();
+
+            modelo.addAttribute("clientes", clientes);
+            modelo.addAttribute("currentPage", clientesPage);
+            String cursorSiguiente = null;
+            if (clientesPage.hasNext()) {
+                Cliente ultimo = clientes.get(clientes.size() - 1);
+                cursorSiguiente = CursorPaginacion.codificar(ultimo.getNombre(), ultimo.getId());
+            }
+            modelo.addAttribute("cursorSiguiente", cursorSiguiente);
+            modelo.addAttribute("haySiguiente", clientesPage.hasNext());
+        }
         modelo.addAttribute("mensaje", mensaje);
 
         return "clientes/lista"; // → templates/clientes/lista.html
@@ -130,7 +157,7 @@ public class ClienteControlador {
         // Obtener información adicional del cliente
         var ventasCliente = ventaServicio.buscarPorCliente(cliente);
         var totalCompras = ventasCliente.stream()
-                .mapToDouble(venta -> venta.getTotal())
+                .mapToLong(venta -> Dinero.valor(venta.getTotal()))
                 .sum();
 
         modelo.addAttribute("cliente", cliente);
@@ -154,6 +181,9 @@ public class ClienteControlador {
         // Validar RUT
         if (!clienteServicio.rutEsValido(cliente.getRut())) {
             resultado.rejectValue("rut", "error.cliente", MensajesConstantes.ERROR_RUT_INVALIDO);
+        } else if (clienteServicio.existeOtroClienteConRut(cliente.getRut(), cliente.getId())) {
+            // También al editar: el RUT se normaliza al guardar y rut_normalizado es único
+            resultado.rejectValue("rut", "error.cliente", MensajesConstantes.ERROR_RUT_DUPLICADO);
         }
 
         if (resultado.hasErrors()) {
@@ -169,6 +199,15 @@ public class ClienteControlador {
             redirectAttributes.addFlashAttribute("mensaje", mensaje);
 
             return "redirect:/clientes/detalle/" + cliente.getId();
+        } catch (DataIntegrityViolationException e) {
+            // Otro cliente registró el mismo RUT entre la verificación y el guardado
+            if (clienteServicio.existeOtroClienteConRut(cliente.getRut(), cliente.getId())) {
+                resultado.rejectValue("rut", "error.cliente", MensajesConstantes.ERROR_RUT_DUPLICADO);
+                modelo.addAttribute("esNuevo", cliente.getId() == null);
+                return "clientes/formulario";
+            }
+            redirectAttributes.addFlashAttribute("error", "Error al guardar cliente: " + e.getMessage());
+            return "redirect:/clientes";
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Error al guardar cliente: " + e.getMessage());
             return "redirect:/clientes";
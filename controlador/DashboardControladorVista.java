@@ -1,10 +1,12 @@
 package informviva.gest.controlador;
 
-import informviva.gest.dto.MetricaDTO;
+import informviva.gest.dto.DashboardDatosDTO;
 import informviva.gest.dto.VentaPorCategoriaDTO;
 import informviva.gest.dto.VentaPorPeriodoDTO;
 import informviva.gest.model.Producto;
 import informviva.gest.model.Venta;
+import informviva.gest.service.DashboardServicio;
+import informviva.gest.service.EjecutorConsultasParalelas;
 import informviva.gest.service.ProductoServicio;
 import informviva.gest.service.ReporteServicio;
 import informviva.gest.service.VentaServicio;
@@ -16,23 +18,31 @@ import org.springframework.web.bind.annotation.RequestMapping;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping("/dashboard")
 public class DashboardControladorVista {
 
+    private static final int UMBRAL_BAJO_STOCK = 5;
+
     private final VentaServicio ventaServicio;
     private final ProductoServicio productoServicio;
     private final ReporteServicio reporteServicio;
+    private final DashboardServicio dashboardServicio;
+    private final EjecutorConsultasParalelas ejecutorConsultas;
 
     public DashboardControladorVista(VentaServicio ventaServicio,
                                      ProductoServicio productoServicio,
-                                     ReporteServicio reporteServicio) {
+                                     ReporteServicio reporteServicio,
+                                     DashboardServicio dashboardServicio,
+                                     EjecutorConsultasParalelas ejecutorConsultas) {
         this.ventaServicio = ventaServicio;
         this.productoServicio = productoServicio;
         this.reporteServicio = reporteServicio;
+        this.dashboardServicio = dashboardServicio;
+        this.ejecutorConsultas = ejecutorConsultas;
     }
 
     @GetMapping
@@ -43,70 +53,38 @@ public class DashboardControladorVista {
         LocalDate hoy = LocalDate.now();
         model.addAttribute("currentDate", hoy);
 
-        // Rango de la semana actual
-        LocalDate inicioSemana = hoy.minusDays(hoy.getDayOfWeek().getValue() - 1);
+        // Semana actual y semana anterior
+        DashboardServicio.Periodos periodos = dashboardServicio.calcularPeriodos("semana");
+        LocalDate inicioSemana = periodos.inicio();
         LocalDate finSemana = inicioSemana.plusDays(6);
 
-        LocalDateTime inicioSemanaDT = inicioSemana.atStartOfDay();
-        LocalDateTime finSemanaDT = finSemana.atTime(LocalTime.MAX);
-
-        Double totalVentas = ventaServicio.calcularTotalVentas(inicioSemanaDT, finSemanaDT);
-        Long totalTransacciones = ventaServicio.contarTransacciones(inicioSemanaDT, finSemanaDT);
-        Long productosVendidos = ventaServicio.contarArticulosVendidos(inicioSemanaDT, finSemanaDT);
-        Double ticketPromedio = ventaServicio.calcularTicketPromedio(inicioSemanaDT, finSemanaDT);
-
-        Long clientesNuevos = reporteServicio.contarClientesNuevosEntreFechas(inicioSemana, finSemana);
-
-        // Semana anterior
-        LocalDate inicioSemanaAnterior = inicioSemana.minusWeeks(1);
-        LocalDate finSemanaAnterior = finSemana.minusWeeks(1);
-
-        LocalDateTime inicioSemanaAnteriorDT = inicioSemanaAnterior.atStartOfDay();
-        LocalDateTime finSemanaAnteriorDT = finSemanaAnterior.atTime(LocalTime.MAX);
-
-        Double totalVentasAnterior = ventaServicio.calcularTotalVentas(inicioSemanaAnteriorDT, finSemanaAnteriorDT);
-        Long totalTransaccionesAnterior = ventaServicio.contarTransacciones(inicioSemanaAnteriorDT, finSemanaAnteriorDT);
-        Long productosVendidosAnterior = ventaServicio.contarArticulosVendidos(inicioSemanaAnteriorDT, finSemanaAnteriorDT);
-        Double ticketPromedioAnterior = ventaServicio.calcularTicketPromedio(inicioSemanaAnteriorDT, finSemanaAnteriorDT);
-
-        Long clientesNuevosAnterior = reporteServicio.contarClientesNuevosEntreFechas(inicioSemanaAnterior, finSemanaAnterior);
-
-        Double porcentajeCambioVentas = ventaServicio.calcularPorcentajeCambio(totalVentas, totalVentasAnterior);
-        Double porcentajeCambioTransacciones = ventaServicio.calcularPorcentajeCambio(
-                totalTransacciones != null ? totalTransacciones.doubleValue() : 0.0,
-                totalTransaccionesAnterior != null ? totalTransaccionesAnterior.doubleValue() : 0.0);
-        Double porcentajeCambioTicket = ventaServicio.calcularPorcentajeCambio(ticketPromedio, ticketPromedioAnterior);
-        Double porcentajeCambioClientes = ventaServicio.calcularPorcentajeCambio(
-                clientesNuevos != null ? clientesNuevos.doubleValue() : 0.0,
-                clientesNuevosAnterior != null ? clientesNuevosAnterior.doubleValue() : 0.0);
-        Double porcentajeCambioProductos = ventaServicio.calcularPorcentajeCambio(
-                productosVendidos != null ? productosVendidos.doubleValue() : 0.0,
-                productosVendidosAnterior != null ? productosVendidosAnterior.doubleValue() : 0.0);
-
-        MetricaDTO ventasMetrica = new MetricaDTO(totalVentas, porcentajeCambioVentas);
-        MetricaDTO transaccionesMetrica = new MetricaDTO(totalTransacciones, porcentajeCambioTransacciones);
-        MetricaDTO ticketMetrica = new MetricaDTO(ticketPromedio, porcentajeCambioTicket);
-        MetricaDTO clientesMetrica = new MetricaDTO(clientesNuevos, porcentajeCambioClientes);
-        MetricaDTO productosMetrica = new MetricaDTO(productosVendidos, porcentajeCambioProductos);
-
-        List<VentaPorPeriodoDTO> ventasPorDia = reporteServicio.obtenerVentasPorPeriodoEntreFechas(inicioSemana, finSemana);
-        List<VentaPorCategoriaDTO> ventasPorCategoria = reporteServicio.obtenerVentasPorCategoriaEntreFechas(inicioSemana, finSemana);
-
-        // Ventas recientes usando LocalDateTime
-        List<Venta> ventasRecientes = ventaServicio.buscarPorRangoFechas(inicioSemanaDT, LocalDateTime.now());
-
-        List<Producto> productosConBajoStock = productoServicio.listarConBajoStock(5);
-
-        model.addAttribute("ventasMetrica", ventasMetrica);
-        model.addAttribute("transaccionesMetrica", transaccionesMetrica);
-        model.addAttribute("ticketMetrica", ticketMetrica);
-        model.addAttribute("clientesMetrica", clientesMetrica);
-        model.addAttribute("productosMetrica", productosMetrica);
-
-        model.addAttribute("ventasPorDiaData", ventasPorDia);
-        model.addAttribute("ventasPorCategoriaData", ventasPorCategoria);
-        model.addAttribute("ventasRecientes", ventasRecientes);
-        model.addAttribute("productosConBajoStock", productosConBajoStock);
+        // Las consultas son independientes: se lanzan todas y luego se esperan los resultados
+        EjecutorConsultasParalelas.Lote lote = ejecutorConsultas.nuevoLote();
+        CompletableFuture<List<VentaPorPeriodoDTO>> ventasPorDia = lote.ejecutar("ventas por día",
+                () -> reporteServicio.obtenerVentasPorPeriodoEntreFechas(inicioSemana, finSemana), List.of());
+        CompletableFuture<List<VentaPorCategoriaDTO>> ventasPorCategoria = lote.ejecutar("ventas por categoría",
+                () -> reporteServicio.obtenerVentasPorCategoriaEntreFechas(inicioSemana, finSemana), List.of());
+        CompletableFuture<List<Venta>> ventasRecientes = lote.ejecutar("ventas recientes",
+                () -> ventaServicio.buscarPorRangoFechas(periodos.inicioDT(), LocalDateTime.now()), List.of());
+        CompletableFuture<List<Producto>> productosConBajoStock = lote.ejecutar("productos con bajo stock",
+                () -> productoServicio.listarConBajoStock(UMBRAL_BAJO_STOCK), List.of());
+
+        DashboardDatosDTO.Metricas metricas = dashboardServicio.calcularMetricas(periodos, lote);
+
+        model.addAttribute("ventasMetrica", metricas.ventas());
+        model.addAttribute("transaccionesMetrica", metricas.transacciones());
+        model.addAttribute("ticketMetrica", metricas.ticket());
+        model.addAttribute("clientesMetrica", metricas.clientes());
+        model.addAttribute("productosMetrica", metricas.productos());
+
+        model.addAttribute("ventasPorDiaData", ventasPorDia.join());
+        model.addAttribute("ventasPorCategoriaData", ventasPorCategoria.join());
+        model.addAttribute("ventasRecientes", ventasRecientes.join());
+        model.addAttribute("productosConBajoStock", productosConBajoStock.join());
+
+        // Después de esperar todas las consultas: indica si alguna sección muestra valores de respaldo
+        model.addAttribute("datosParciales", lote.parcial());
+        model.addAttribute("consultasNoDisponibles", lote.consultasNoDisponibles());
 
         return "dashboard";
     }
@@ -0,0 +1,105 @@
+package informviva.gest.controlador;
+
+import informviva.gest.service.ExportacionServicio;
+import informviva.gest.util.RolesConstantes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Controlador para exportaciones CSV en streaming.
+ * Las filas se escriben directamente en la respuesta mientras se leen de la base de datos;
+ * con gzip=true el archivo se entrega comprimido (.csv.gz).
+ *
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+@Controller
+@RequestMapping("/reportes/exportar")
+@PreAuthorize("hasAnyRole('" + RolesConstantes.ADMIN + "', '" + RolesConstantes.GERENTE + "', '"
+        + RolesConstantes.VENTAS + "')")
+public class ExportacionControlador {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportacionControlador.class);
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType APPLICATION_GZIP = new MediaType("application", "gzip");
+
+    private final ExportacionServicio exportacionServicio;
+
+    public ExportacionControlador(ExportacionServicio exportacionServicio) {
+        this.exportacionServicio = exportacionServicio;
+    }
+
+    /**
+     * Exporta el resumen de compras por cliente del período
+     */
+    @GetMapping("/clientes")
+    public ResponseEntity<StreamingResponseBody> exportarClientes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        LocalDate inicio = startDate != null ? startDate : LocalDate.now().minusMonths(3);
+        LocalDate fin = endDate != null ? endDate : LocalDate.now();
+
+        return responder("reporte_clientes_" + inicio + "_" + fin, gzip, salida -> {
+            long filas = exportacionServicio.exportarClientes(inicio, fin, salida, gzip);
+            logger.info("Reporte de clientes exportado a CSV: {} filas", filas);
+        });
+    }
+
+    /**
+     * Exporta las ventas del período
+     */
+    @GetMapping("/ventas")
+    public ResponseEntity<StreamingResponseBody> exportarVentas(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        LocalDate inicio = startDate != null ? startDate : LocalDate.now().minusMonths(3);
+        LocalDate fin = endDate != null ? endDate : LocalDate.now();
+
+        return responder("ventas_" + inicio + "_" + fin, gzip, salida -> {
+            long filas = exportacionServicio.exportarVentas(inicio, fin, salida, gzip);
+            logger.info("Ventas exportadas a CSV: {} filas", filas);
+        });
+    }
+
+    /**
+     * Exporta el catálogo de productos
+     */
+    @GetMapping("/productos")
+    public ResponseEntity<StreamingResponseBody> exportarProductos(
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        return responder("productos_" + LocalDate.now(), gzip, salida -> {
+            long filas = exportacionServicio.exportarProductos(salida, gzip);
+            logger.info("Productos exportados a CSV: {} filas", filas);
+        });
+    }
+
+    private ResponseEntity<StreamingResponseBody> responder(String nombreArchivo, boolean gzip,
+                                                            StreamingResponseBody cuerpo) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(gzip ? APPLICATION_GZIP : TEXT_CSV);
+        headers.setContentDispositionFormData("attachment", nombreArchivo + (gzip ? ".csv.gz" : ".csv"));
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(cuerpo);
+    }
+}
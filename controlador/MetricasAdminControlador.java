@@ -0,0 +1,98 @@
+package informviva.gest.controlador;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import informviva.gest.config.BitacoraAccesos;
+import informviva.gest.config.ContadorSentenciasSql;
+import informviva.gest.config.MetricasServicios;
+import informviva.gest.config.OrigenDatosEnrutado;
+import informviva.gest.service.AuditoriaVistasRol;
+import informviva.gest.service.CacheVentas;
+import informviva.gest.util.RolesConstantes;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Métricas de funcionamiento de la aplicación para administradores.
+ * Los valores se acumulan en memoria desde el inicio de la aplicación.
+ */
+@Controller
+@RequestMapping("/admin/metricas")
+@PreAuthorize("hasRole('" + RolesConstantes.ADMIN + "')")
+public class MetricasAdminControlador {
+
+    private static final String VISTA_METRICAS = "admin/metricas";
+
+    private final BitacoraAccesos bitacoraAccesos;
+    private final MetricasServicios metricasServicios;
+    private final CacheVentas cacheVentas;
+    private final AuditoriaVistasRol auditoriaVistasRol;
+    private final ObjectProvider<OrigenDatosEnrutado> origenDatosEnrutado;
+
+    public MetricasAdminControlador(BitacoraAccesos bitacoraAccesos,
+                                    MetricasServicios metricasServicios,
+                                    CacheVentas cacheVentas,
+                                    AuditoriaVistasRol auditoriaVistasRol,
+                                    ObjectProvider<OrigenDatosEnrutado> origenDatosEnrutado) {
+        this.bitacoraAccesos = bitacoraAccesos;
+        this.metricasServicios = metricasServicios;
+        this.cacheVentas = cacheVentas;
+        this.auditoriaVistasRol = auditoriaVistasRol;
+        this.origenDatosEnrutado = origenDatosEnrutado;
+    }
+
+    /**
+     * Página de métricas
+     */
+    @GetMapping
+    public String mostrarMetricas(Model model) {
+        model.addAllAttributes(obtenerMetricas());
+        return VISTA_METRICAS;
+    }
+
+    /**
+     * Todas las métricas en JSON
+     */
+    @GetMapping("/datos")
+    @ResponseBody
+    public Map<String, Object> obtenerMetricas() {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("servicios", metricasServicios.resumen());
+        metricas.put("endpoints", bitacoraAccesos.resumenEndpoints());
+        metricas.put("sentenciasSqlTotales", ContadorSentenciasSql.total());
+        metricas.put("cacheTotalVentas", cacheVentas.totalVentas().estadisticas());
+        metricas.put("cacheResumenVentas", cacheVentas.resumenVentas().estadisticas());
+        metricas.put("auditoriaVistasRol", auditoriaVistasRol.estadisticas());
+        metricas.put("registrosAccesoDescartados", bitacoraAccesos.getDescartados());
+        // Solo con réplica de lectura configurada
+        origenDatosEnrutado.ifAvailable(origen -> metricas.put("conexionesPorOrigen", Map.of(
+                "primaria", origen.conexionesEntregadas(OrigenDatosEnrutado.Destino.PRIMARIA),
+                "replica", origen.conexionesEntregadas(OrigenDatosEnrutado.Destino.REPLICA))));
+        return metricas;
+    }
+
+    /**
+     * Latencias y sentencias SQL por endpoint (p50, p95, p99 y máximo en milisegundos)
+     */
+    @GetMapping("/latencias")
+    @ResponseBody
+    public Map<String, Object> latencias() {
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("endpoints", bitacoraAccesos.resumenEndpoints());
+        respuesta.put("registrosDescartados", bitacoraAccesos.getDescartados());
+        respuesta.put("registrosPendientes", bitacoraAccesos.getPendientes());
+        return respuesta;
+    }
+}
@@ -6,8 +6,11 @@ package informviva.gest.controlador;
  */
 
 
+import informviva.gest.dto.PaginaCursorDTO;
+import informviva.gest.dto.ProductoSugerenciaDTO;
 import informviva.gest.model.Producto;
 import informviva.gest.service.ProductoServicio;
+import informviva.gest.util.CursorPaginacion;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +22,8 @@ import java.util.List;
 @RequestMapping("/api/productos")
 public class ProductoControlador {
 
+    private static final int LIMITE_MAXIMO_SUGERENCIAS = 50;
+
     private final ProductoServicio productoServicio;
 
     public ProductoControlador(ProductoServicio productoServicio) {
@@ -44,6 +49,32 @@ public class ProductoControlador {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Sugiere productos activos cuyo código, nombre o marca contienen el texto ingresado
+     *
+     * @param q      Texto ingresado
+     * @param limite Cantidad máxima de sugerencias (1 a 50)
+     * @return Sugerencias ordenadas por relevancia
+     */
+    @GetMapping("/autocompletar")
+    public List<ProductoSugerenciaDTO> autocompletar(@RequestParam("q") String q,
+                                                     @RequestParam(defaultValue = "10") int limite) {
+        return productoServicio.autocompletar(q, Math.max(1, Math.min(limite, LIMITE_MAXIMO_SUGERENCIAS)));
+    }
+
+    /**
+     * Lista los productos ordenados por nombre, una página a la vez
+     *
+     * @param cursor Cursor devuelto por la página anterior; omitir para la primera
+     * @param tamano Cantidad de productos por página (1 a 100)
+     * @return Página de productos con el cursor de la siguiente
+     */
+    @GetMapping("/pagina")
+    public PaginaCursorDTO<Producto> listarPagina(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "50") int tamano) {
+        return productoServicio.listarPorCursor(cursor, CursorPaginacion.limitarTamano(tamano));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Producto> buscarPorId(@PathVariable Long id) {
         Producto producto = productoServicio.buscarPorId(id);
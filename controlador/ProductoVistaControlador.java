@@ -1,9 +1,13 @@
 package informviva.gest.controlador;
 
 
+import informviva.gest.dto.PaginaCursorDTO;
 import informviva.gest.model.Producto;
+import informviva.gest.model.ProductoEstadistica;
+import informviva.gest.service.ProductoEstadisticaServicio;
 import informviva.gest.service.ProductoServicio;
 import informviva.gest.service.VentaServicio;
+import informviva.gest.util.CursorPaginacion;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -18,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Controlador para las vistas de gestión de productos
@@ -29,15 +34,21 @@ public class ProductoVistaControlador {
 
     private final ProductoServicio productoServicio;
     private final VentaServicio ventaServicio;
+    private final ProductoEstadisticaServicio productoEstadisticaServicio;
 
-    public ProductoVistaControlador(ProductoServicio productoServicio, VentaServicio ventaServicio) {
+    public ProductoVistaControlador(ProductoServicio productoServicio, VentaServicio ventaServicio,
+                                    ProductoEstadisticaServicio productoEstadisticaServicio) {
         this.productoServicio = productoServicio;
         this.ventaServicio = ventaServicio;
+        this.productoEstadisticaServicio = productoEstadisticaServicio;
     }
 
     /**
      * Vista de productos para VENDEDORES - Solo lectura (consulta de inventario)
      * Acceso: VENTAS
+     * <p>
+     * Sin filtros y con el parámetro cursor, la lista avanza por clave (nombre, id) en lugar
+     * de número de página; cursorSiguiente se entrega en ambos modos.
      */
     @GetMapping("/productos/vendedor")
     @PreAuthorize("hasAnyRole('ADMIN', 'VENTAS', 'PRODUCTOS', 'GERENTE')")
@@ -47,15 +58,36 @@ public class ProductoVistaControlador {
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String categoria,
             @RequestParam(required = false) Boolean soloConStock,
+            @RequestParam(required = false) String cursor,
             Model model) {
 
-        // Configurar paginación
-        Pageable pageable = PageRequest.of(page, size, Sort.by("nombre").ascending());
+        boolean sinFiltros = (search == null || search.isBlank())
+                && (categoria == null || categoria.isBlank())
+                && !Boolean.TRUE.equals(soloConStock);
 
-        // Aplicar filtros
-        Page<Producto> productosPage = aplicarFiltros(search, categoria, soloConStock, pageable);
+        if (sinFiltros && cursor != null && !cursor.isBlank()) {
+            PaginaCursorDTO<Producto> pagina = productoServicio.listarPorCursor(cursor, CursorPaginacion.limitarTamano(size));
+            model.addAttribute("productos", pagina.contenido());
+            model.addAttribute("cursorSiguiente", pagina.siguiente());
+            model.addAttribute("haySiguiente", pagina.haySiguiente());
+        } else {
+            // Configurar paginación (mismo orden que el recorrido por cursor)
+            Pageable pageable = PageRequest.of(page, size, Sort.by("nombre", "id").ascending());
 
-        model.addAttribute("productosPage", productosPage);
+            // Aplicar filtros
+            Page<Producto> productosPage = aplicarFiltros(search, categoria, soloConStock, pageable);
+            List<Producto> productos = productosPage.getContent();
+
+            String cursorSiguiente = null;
+            if (sinFiltros && productosPage.hasNext()) {
+                Producto ultimo = productos.get(productos.size() - 1);
+                cursorSiguiente = CursorPaginacion.codificar(ultimo.getNombre(), ultimo.getId());
+            }
+            model.addAttribute("productosPage", productosPage);
+            model.addAttribute("productos", productos);
+            model.addAttribute("cursorSiguiente", cursorSiguiente);
+            model.addAttribute("haySiguiente", productosPage.hasNext());
+        }
         model.addAttribute("search", search);
         model.addAttribute("categoria", categoria);
         model.addAttribute("soloConStock", soloConStock);
@@ -225,13 +257,13 @@ public class ProductoVistaControlador {
             return "redirect:/productos";
         }
 
-        // Obtener estadísticas del producto
-        Long totalVendido = ventaServicio.contarUnidadesVendidasPorProducto(id);
-        Double ingresosTotales = ventaServicio.calcularIngresosPorProducto(id);
+        // Estadísticas acumuladas del producto (una fila por clave primaria)
+        ProductoEstadistica estadistica = productoEstadisticaServicio.obtener(id);
 
         model.addAttribute("producto", producto);
-        model.addAttribute("totalVendido", totalVendido);
-        model.addAttribute("ingresosTotales", ingresosTotales);
+        model.addAttribute("totalVendido", estadistica.getUnidadesVendidas());
+        model.addAttribute("ingresosTotales", estadistica.getIngresos());
+        model.addAttribute("ultimaVenta", estadistica.getUltimaVenta());
         model.addAttribute("ventasRecientes", ventaServicio.buscarVentasRecientesPorProducto(id, 5));
 
         return "productos/detalle";
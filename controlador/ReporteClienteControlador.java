@@ -1,7 +1,9 @@
 package informviva.gest.controlador;
 
+import informviva.gest.config.PresupuestoSql;
 import informviva.gest.dto.ClienteReporteDTO;
 import informviva.gest.model.Cliente;
+import informviva.gest.service.ExportacionServicio;
 import informviva.gest.service.ReporteClienteServicio;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,7 +19,9 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +42,9 @@ public class ReporteClienteControlador {
     @Autowired
     private ReporteClienteServicio reporteClienteServicio;
 
+    @Autowired
+    private ExportacionServicio exportacionServicio;
+
     /**
      * Muestra la página principal de reportes de clientes
      */
@@ -130,10 +137,11 @@ public class ReporteClienteControlador {
     }
 
     /**
-     * Exporta el reporte de clientes a Excel
+     * Exporta el reporte de clientes a Excel.
+     * El archivo se escribe directamente en la respuesta a medida que se generan las filas.
      */
     @GetMapping("/exportar/excel")
-    public ResponseEntity<byte[]> exportarReporteExcel(
+    public ResponseEntity<StreamingResponseBody> exportarReporteExcel(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
 
@@ -146,23 +154,22 @@ public class ReporteClienteControlador {
                 endDate = LocalDate.now();
             }
 
-            // Generar reporte
-            List<ClienteReporteDTO> clientes = reporteClienteServicio.generarReporteClientes(startDate, endDate);
-
-            // Exportar a Excel
-            byte[] excelData = reporteClienteServicio.exportarReporteClientes(clientes, "EXCEL");
-
             // Preparar respuesta
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
             headers.setContentDispositionFormData("attachment",
                     "reporte_clientes_" + startDate + "_" + endDate + ".xlsx");
 
-            logger.info("Reporte de clientes exportado a Excel exitosamente");
+            LocalDate inicio = startDate;
+            LocalDate fin = endDate;
+            StreamingResponseBody cuerpo = salida -> {
+                long filas = reporteClienteServicio.exportarReporteClientesExcel(inicio, fin, salida);
+                logger.info("Reporte de clientes exportado a Excel exitosamente ({} filas)", filas);
+            };
 
             return ResponseEntity.ok()
                     .headers(headers)
-                    .body(excelData);
+                    .body(cuerpo);
 
         } catch (Exception e) {
             logger.error("Error al exportar reporte a Excel: {}", e.getMessage());
@@ -171,44 +178,34 @@ public class ReporteClienteControlador {
     }
 
     /**
-     * Exporta el reporte de clientes a CSV
+     * Exporta el reporte de clientes a CSV.
+     * Las filas se leen de la base de datos y se escriben en la respuesta a medida que llegan.
      */
     @GetMapping("/exportar/csv")
-    public ResponseEntity<byte[]> exportarReporteCSV(
+    public ResponseEntity<StreamingResponseBody> exportarReporteCSV(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-
-        try {
-            // Establecer fechas por defecto si no se proporcionan
-            if (startDate == null) {
-                startDate = LocalDate.now().minusMonths(3);
-            }
-            if (endDate == null) {
-                endDate = LocalDate.now();
-            }
-
-            // Generar reporte
-            List<ClienteReporteDTO> clientes = reporteClienteServicio.generarReporteClientes(startDate, endDate);
-
-            // Exportar a CSV
-            byte[] csvData = reporteClienteServicio.exportarReporteClientes(clientes, "CSV");
-
-            // Preparar respuesta
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_PLAIN);
-            headers.setContentDispositionFormData("attachment",
-                    "reporte_clientes_" + startDate + "_" + endDate + ".csv");
-
-            logger.info("Reporte de clientes exportado a CSV exitosamente");
-
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(csvData);
-
-        } catch (Exception e) {
-            logger.error("Error al exportar reporte a CSV: {}", e.getMessage());
-            return ResponseEntity.internalServerError().build();
-        }
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        // Establecer fechas por defecto si no se proporcionan
+        LocalDate inicio = startDate != null ? startDate : LocalDate.now().minusMonths(3);
+        LocalDate fin = endDate != null ? endDate : LocalDate.now();
+
+        // Preparar respuesta
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(gzip ? new MediaType("application", "gzip")
+                : new MediaType("text", "csv", StandardCharsets.UTF_8));
+        headers.setContentDispositionFormData("attachment",
+                "reporte_clientes_" + inicio + "_" + fin + (gzip ? ".csv.gz" : ".csv"));
+
+        StreamingResponseBody cuerpo = salida -> {
+            long filas = exportacionServicio.exportarClientes(inicio, fin, salida, gzip);
+            logger.info("Reporte de clientes exportado a CSV exitosamente ({} filas)", filas);
+        };
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(cuerpo);
     }
 
     /**
@@ -216,6 +213,7 @@ public class ReporteClienteControlador {
      */
     @GetMapping("/api/datos")
     @ResponseBody
+    @PresupuestoSql(maximo = 10)
     public ResponseEntity<Map<String, Object>> obtenerDatosClientes(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
@@ -25,7 +25,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 // -------------------------------------------------------------------------------------------
@@ -67,24 +66,8 @@ public class UsuarioAdminControlador {
         // Configurar paginación con ordenamiento por ID descendente
         Pageable pageable = PageRequest.of(page, size, Sort.by("id").descending());
 
-        // Obtener y filtrar usuarios
-        List<Usuario> usuarios;
-        if (search != null && !search.trim().isEmpty()) {
-            // NOTA: Si quieres que la exportación a PDF respete el filtro de búsqueda,
-            // deberías pasar el parámetro 'search' también al método de exportación,
-            // y que tu servicio de usuario tenga un método para buscar por filtro sin paginación.
-            List<Usuario> todosUsuarios = usuarioServicio.listarTodos(); // Obtiene todos para filtrar en memoria
-            usuarios = todosUsuarios.stream()
-                    .filter(u -> u.getNombre().toLowerCase().contains(search.toLowerCase()) ||
-                            u.getApellido().toLowerCase().contains(search.toLowerCase()) ||
-                            u.getUsername().toLowerCase().contains(search.toLowerCase()))
-                    .toList();
-        } else {
-            usuarios = usuarioServicio.listarTodos(); // Obtener todos los usuarios para la paginación
-        }
-
-        // Crear la página
-        Page<Usuario> usuariosPage = PageWrapper.createPageFromList(usuarios, pageable);
+        // Filtrar y paginar en la base de datos
+        Page<Usuario> usuariosPage = usuarioServicio.listarPaginados(search, pageable);
         model.addAttribute(RutasConstantes.ATTR_USUARIOS_PAGE, usuariosPage);
         model.addAttribute(RutasConstantes.ATTR_SEARCH, search);
 
@@ -397,113 +380,4 @@ public class UsuarioAdminControlador {
     }
     // ---------------------------------------
 
-
-    /**
-     * Clase auxiliar para simular paginación en memoria
-     */
-    private static class PageWrapper<T> implements Page<T> {
-        private final List<T> content;
-        private final Pageable pageable;
-        private final long total;
-
-        private PageWrapper(List<T> content, Pageable pageable, long total) {
-            this.content = content;
-            this.pageable = pageable;
-            this.total = total;
-        }
-
-        public static <T> Page<T> createPageFromList(List<T> list, Pageable pageable) {
-            int start = (int) pageable.getOffset();
-            int end = Math.min((start + pageable.getPageSize()), list.size());
-
-            if (start > list.size()) {
-                return new PageWrapper<>(List.of(), pageable, list.size());
-            }
-
-            return new PageWrapper<>(list.subList(start, end), pageable, list.size());
-        }
-
-        @Override
-        public int getTotalPages() {
-            return (int) Math.ceil((double) total / pageable.getPageSize());
-        }
-
-        @Override
-        public long getTotalElements() {
-            return total;
-        }
-
-        @Override
-        public int getNumber() {
-            return pageable.getPageNumber();
-        }
-
-        @Override
-        public int getSize() {
-            return pageable.getPageSize();
-        }
-
-        @Override
-        public int getNumberOfElements() {
-            return content.size();
-        }
-
-        @Override
-        public List<T> getContent() {
-            return content;
-        }
-
-        @Override
-        public boolean hasContent() {
-            return !content.isEmpty();
-        }
-
-        @Override
-        public Sort getSort() {
-            return pageable.getSort();
-        }
-
-        @Override
-        public boolean isFirst() {
-            return pageable.getPageNumber() == 0;
-        }
-
-        @Override
-        public boolean isLast() {
-            return pageable.getPageNumber() == getTotalPages() - 1;
-        }
-
-        @Override
-        public boolean hasNext() {
-            return pageable.getPageNumber() < getTotalPages() - 1;
-        }
-
-        @Override
-        public boolean hasPrevious() {
-            return pageable.getPageNumber() > 0;
-        }
-
-        @Override
-        public Pageable nextPageable() {
-            return hasNext() ? pageable.next() : Pageable.unpaged();
-        }
-
-        @Override
-        public Pageable previousPageable() {
-            return hasPrevious() ? pageable.previousOrFirst() : Pageable.unpaged();
-        }
-
-        @Override
-        public <U> Page<U> map(java.util.function.Function<? super T, ? extends U> converter) {
-            return new PageWrapper<>(
-                    getContent().stream().map(converter).collect(java.util.stream.Collectors.toList()),
-                    pageable,
-                    total);
-        }
-
-        @Override
-        public Iterator<T> iterator() {
-            return content.iterator();
-        }
-    }
 }
\ No newline at end of file
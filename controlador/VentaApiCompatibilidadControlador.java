@@ -6,6 +6,7 @@ package informviva.gest.controlador;
  */
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import informviva.gest.controlador.api.VentaRestControlador;
 import informviva.gest.dto.VentaDTO;
 import informviva.gest.model.Cliente;
@@ -45,9 +46,10 @@ public class VentaApiCompatibilidadControlador {
 
     public VentaApiCompatibilidadControlador(VentaServicio ventaServicio,
                                              ProductoServicio productoServicio,
-                                             ClienteServicio clienteServicio) {
+                                             ClienteServicio clienteServicio,
+                                             ObjectMapper objectMapper) {
         // Reutilizamos el controlador REST nuevo a través de delegación
-        this.ventaRestControlador = new VentaRestControlador(ventaServicio, productoServicio, clienteServicio);
+        this.ventaRestControlador = new VentaRestControlador(ventaServicio, productoServicio, clienteServicio, objectMapper);
     }
 
     /**
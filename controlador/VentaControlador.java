@@ -1,5 +1,6 @@
 package informviva.gest.controlador;
 
+import informviva.gest.dto.PaginaCursorDTO;
 import informviva.gest.dto.VentaDTO;
 import informviva.gest.exception.RecursoNoEncontradoException;
 import informviva.gest.exception.StockInsuficienteException;
@@ -9,6 +10,7 @@ import informviva.gest.service.ClienteServicio;
 import informviva.gest.service.ProductoServicio;
 import informviva.gest.service.UsuarioServicio;
 import informviva.gest.service.VentaServicio;
+import informviva.gest.util.CursorPaginacion;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +47,9 @@ public class VentaControlador {
     private static final String PARAM_VENTAS_RECIENTES = "ventasRecientes";
     private static final String PARAM_FECHA_INICIO = "fechaInicio";
     private static final String PARAM_FECHA_FIN = "fechaFin";
+    private static final String PARAM_CURSOR_SIGUIENTE = "cursorSiguiente";
+    private static final String PARAM_HAY_SIGUIENTE = "haySiguiente";
+    private static final String PARAM_TAMANO = "tamano";
     private static final String PARAM_MENSAJE = "mensaje";
     private static final String PARAM_ERROR = "error";
 
@@ -82,15 +87,22 @@ public class VentaControlador {
     }
 
     @GetMapping("/lista")
-    public String mostrarPaginaVentas(Model model) {
+    public String mostrarPaginaVentas(@RequestParam(required = false) String cursor,
+                                      @RequestParam(defaultValue = "50") int tamano,
+                                      Model model) {
         LocalDate hoy = LocalDate.now();
         LocalDate inicioDeMes = hoy.withDayOfMonth(1);
 
         LocalDateTime inicioDeMesDT = inicioDeMes.atStartOfDay();
         LocalDateTime hoyDT = hoy.atTime(LocalTime.MAX);
 
-        List<Venta> ventasRecientes = ventaServicio.buscarPorRangoFechas(inicioDeMesDT, hoyDT);
-        model.addAttribute(PARAM_VENTAS_RECIENTES, ventasRecientes);
+        // Una página del mes a la vez; el enlace "siguiente" lleva el cursor de la última venta mostrada
+        int tamanoPagina = CursorPaginacion.limitarTamano(tamano);
+        PaginaCursorDTO<Venta> pagina = ventaServicio.buscarPaginaPorRangoFechas(inicioDeMesDT, hoyDT, cursor, tamanoPagina);
+        model.addAttribute(PARAM_VENTAS_RECIENTES, pagina.contenido());
+        model.addAttribute(PARAM_CURSOR_SIGUIENTE, pagina.siguiente());
+        model.addAttribute(PARAM_HAY_SIGUIENTE, pagina.haySiguiente());
+        model.addAttribute(PARAM_TAMANO, tamanoPagina);
         model.addAttribute(PARAM_FECHA_INICIO, inicioDeMes);
         model.addAttribute(PARAM_FECHA_FIN, hoy);
 
@@ -134,7 +146,7 @@ public class VentaControlador {
     @GetMapping("/detalle/{id}")
     public String mostrarDetalleVenta(@PathVariable Long id, Model model) {
         try {
-            Venta venta = ventaServicio.buscarPorId(id);
+            Venta venta = ventaServicio.buscarDetallePorId(id);
             model.addAttribute("venta", venta);
             return VISTA_DETALLE;
         } catch (RecursoNoEncontradoException e) {
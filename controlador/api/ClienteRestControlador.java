@@ -0,0 +1,40 @@
+package informviva.gest.controlador.api;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import informviva.gest.dto.ClienteFila;
+import informviva.gest.dto.PaginaCursorDTO;
+import informviva.gest.service.ClienteServicio;
+import informviva.gest.util.CursorPaginacion;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/clientes")
+public class ClienteRestControlador {
+
+    private final ClienteServicio clienteServicio;
+
+    public ClienteRestControlador(ClienteServicio clienteServicio) {
+        this.clienteServicio = clienteServicio;
+    }
+
+    /**
+     * Lista los clientes ordenados por nombre, una página a la vez
+     *
+     * @param cursor Cursor devuelto por la página anterior; omitir para la primera
+     * @param tamano Cantidad de clientes por página (1 a 100)
+     * @return Página de clientes con el cursor de la siguiente
+     */
+    @GetMapping("/pagina")
+    public PaginaCursorDTO<ClienteFila> listarPagina(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "50") int tamano) {
+        return clienteServicio.listarFilasPorCursor(cursor, CursorPaginacion.limitarTamano(tamano));
+    }
+}
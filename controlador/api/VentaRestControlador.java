@@ -1,5 +1,11 @@
 package informviva.gest.controlador.api;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import informviva.gest.config.PresupuestoSql;
+import informviva.gest.dto.PaginaCursorDTO;
+import informviva.gest.dto.ProductoStockFila;
+import informviva.gest.dto.ResultadoLoteVentasDTO;
 import informviva.gest.dto.VentaDTO;
 import informviva.gest.exception.RecursoNoEncontradoException;
 import informviva.gest.exception.StockInsuficienteException;
@@ -9,15 +15,20 @@ import informviva.gest.model.Venta;
 import informviva.gest.service.ClienteServicio;
 import informviva.gest.service.ProductoServicio;
 import informviva.gest.service.VentaServicio;
+import informviva.gest.util.CursorPaginacion;
 import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,24 +41,27 @@ public class VentaRestControlador {
     private static final String ERROR_CREAR = "Error al crear la venta: ";
     private static final String ERROR_ACTUALIZAR = "Error al actualizar la venta: ";
     private static final String ERROR_ANULAR = "Error al anular la venta: ";
+    private static final String ERROR_LOTE = "Error al procesar el lote de ventas: ";
+    private static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
 
     private final VentaServicio ventaServicio;
     private final ProductoServicio productoServicio;
     private final ClienteServicio clienteServicio;
+    private final ObjectMapper objectMapper;
 
     public VentaRestControlador(VentaServicio ventaServicio,
                                 ProductoServicio productoServicio,
-                                ClienteServicio clienteServicio) {
+                                ClienteServicio clienteServicio,
+                                ObjectMapper objectMapper) {
         this.ventaServicio = ventaServicio;
         this.productoServicio = productoServicio;
         this.clienteServicio = clienteServicio;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/productos")
-    public List<Producto> obtenerProductosConStock() {
-        return productoServicio.listar().stream()
-                .filter(producto -> producto.getStock() > 0)
-                .collect(Collectors.toList());
+    public List<ProductoStockFila> obtenerProductosConStock() {
+        return productoServicio.listarFilasConStock();
     }
 
     @GetMapping("/productos/{id}")
@@ -82,6 +96,40 @@ public class VentaRestControlador {
         }
     }
 
+    /**
+     * Carga masiva de ventas recibidas como arreglo JSON
+     */
+    @PostMapping(value = "/lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> crearVentasLote(@RequestBody List<VentaDTO> ventas) {
+        return procesarLote(ventas);
+    }
+
+    /**
+     * Carga masiva de ventas recibidas como NDJSON (una venta JSON por línea).
+     * El cuerpo se lee de forma incremental sin materializarlo como texto.
+     */
+    @PostMapping(value = "/lote", consumes = MEDIA_TYPE_NDJSON)
+    public ResponseEntity<Object> crearVentasLoteNdjson(InputStream cuerpo) {
+        List<VentaDTO> ventas = new ArrayList<>();
+        try (MappingIterator<VentaDTO> iterador = objectMapper.readerFor(VentaDTO.class).readValues(cuerpo)) {
+            iterador.forEachRemaining(ventas::add);
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.badRequest().body(ERROR_LOTE + e.getMessage());
+        }
+        return procesarLote(ventas);
+    }
+
+    private ResponseEntity<Object> procesarLote(List<VentaDTO> ventas) {
+        try {
+            ResultadoLoteVentasDTO resultado = ventaServicio.guardarLote(ventas);
+            return ResponseEntity.ok(resultado);
+        } catch (StockInsuficienteException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ERROR_LOTE + e.getMessage());
+        }
+    }
+
     @GetMapping
     public List<VentaDTO> listarVentas() {
         List<Venta> ventas = ventaServicio.listarTodas();
@@ -91,9 +139,10 @@ public class VentaRestControlador {
     }
 
     @GetMapping("/{id}")
+    @PresupuestoSql(maximo = 5)
     public ResponseEntity<Object> obtenerVentaPorId(@PathVariable Long id) {
         try {
-            Venta venta = ventaServicio.buscarPorId(id);
+            Venta venta = ventaServicio.buscarDetallePorId(id);
             return ResponseEntity.ok(ventaServicio.convertirADTO(venta));
         } catch (RecursoNoEncontradoException e) {
             return ResponseEntity.notFound().build();
@@ -126,6 +175,28 @@ public class VentaRestControlador {
         }
     }
 
+    /**
+     * Lista las ventas del rango de la más reciente a la más antigua, una página a la vez.
+     * La respuesta incluye el cursor opaco para pedir la página siguiente.
+     *
+     * @param fechaInicio Fecha de inicio (ISO)
+     * @param fechaFin    Fecha de fin (ISO)
+     * @param cursor      Cursor devuelto por la página anterior; omitir para la primera
+     * @param tamano      Cantidad de ventas por página (1 a 100)
+     * @return Página de ventas
+     */
+    @GetMapping("/pagina")
+    @PresupuestoSql(maximo = 10)
+    public PaginaCursorDTO<VentaDTO> listarPagina(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int tamano) {
+        return ventaServicio.buscarPaginaPorRangoFechas(fechaInicio.atStartOfDay(), fechaFin.atTime(LocalTime.MAX),
+                        cursor, CursorPaginacion.limitarTamano(tamano))
+                .map(ventaServicio::convertirADTO);
+    }
+
     @GetMapping("/filtrar")
     public ResponseEntity<Map<String, Object>> filtrarVentas(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
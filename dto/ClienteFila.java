@@ -0,0 +1,13 @@
+package informviva.gest.dto;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+/**
+ * Fila del listado de clientes, obtenida por proyección sin cargar las entidades
+ */
+public record ClienteFila(Long id, String rut, String nombre, String apellido, String email, String telefono) {
+}
@@ -6,12 +6,15 @@ package informviva.gest.dto;
  */
 
 
+import informviva.gest.util.Dinero;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
@@ -23,7 +26,26 @@ public class ClienteReporteDTO {
     private String email;
     private LocalDate fechaRegistro;
     private Integer comprasRealizadas;
-    private BigDecimal totalCompras;
+    private Long totalCompras; // Pesos
     private BigDecimal promedioPorCompra;
     private LocalDate ultimaCompra;
+
+    /**
+     * Constructor usado por la consulta agrupada por cliente de VentaRepositorio
+     */
+    public ClienteReporteDTO(Long id, String rut, String nombre, String apellido, String email,
+                             LocalDate fechaRegistro, Long comprasRealizadas, Long totalCompras,
+                             LocalDateTime ultimaCompra) {
+        this.id = id;
+        this.rut = rut;
+        this.nombreCompleto = nombre + " " + apellido;
+        this.email = email;
+        this.fechaRegistro = fechaRegistro;
+        this.comprasRealizadas = comprasRealizadas.intValue();
+        this.totalCompras = Dinero.valor(totalCompras);
+        this.promedioPorCompra = comprasRealizadas > 0
+                ? Dinero.aBigDecimal(this.totalCompras).divide(BigDecimal.valueOf(comprasRealizadas), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+        this.ultimaCompra = ultimaCompra != null ? ultimaCompra.toLocalDate() : null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package informviva.gest.dto;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+/**
+ * Conteo de un período y de su período anterior obtenidos en una sola consulta
+ */
+public record ComparativoConteoDTO(Long actual, Long anterior) {
+
+    public ComparativoConteoDTO {
+        actual = actual != null ? actual : 0L;
+        anterior = anterior != null ? anterior : 0L;
+    }
+}
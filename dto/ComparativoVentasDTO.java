@@ -0,0 +1,31 @@
+package informviva.gest.dto;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import informviva.gest.util.Dinero;
+
+/**
+ * Totales (en pesos) y transacciones de dos períodos obtenidos en una sola consulta de agregación condicional
+ */
+public record ComparativoVentasDTO(Long totalActual, Long transaccionesActual,
+                                   Long totalAnterior, Long transaccionesAnterior) {
+
+    public ComparativoVentasDTO {
+        totalActual = Dinero.valor(totalActual);
+        transaccionesActual = transaccionesActual != null ? transaccionesActual : 0L;
+        totalAnterior = Dinero.valor(totalAnterior);
+        transaccionesAnterior = transaccionesAnterior != null ? transaccionesAnterior : 0L;
+    }
+
+    public double ticketActual() {
+        return Dinero.promedio(totalActual, transaccionesActual);
+    }
+
+    public double ticketAnterior() {
+        return Dinero.promedio(totalAnterior, transaccionesAnterior);
+    }
+}
@@ -0,0 +1,29 @@
+package informviva.gest.dto;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import java.util.List;
+
+/**
+ * Datos del dashboard (/api/dashboard/datos).
+ * Los nombres de los componentes definen la estructura JSON que consume el panel.
+ * Si alguna consulta falló o excedió su tiempo máximo, {@code parcial} es verdadero y
+ * {@code consultasNoDisponibles} indica cuáles secciones traen valores de respaldo (ceros o vacías).
+ */
+public record DashboardDatosDTO(String periodo, Metricas metricas, Graficos graficos, Tablas tablas,
+                                boolean parcial, List<String> consultasNoDisponibles) {
+
+    public record Metricas(MetricaDTO ventas, MetricaDTO transacciones, MetricaDTO ticket,
+                           MetricaDTO clientes, MetricaDTO productos) {
+    }
+
+    public record Graficos(List<VentaPorPeriodoDTO> ventasPorPeriodo, List<VentaPorCategoriaDTO> ventasPorCategoria) {
+    }
+
+    public record Tablas(List<VentaResumenFila> ventasRecientes, List<ProductoStockFila> productosConBajoStock) {
+    }
+}
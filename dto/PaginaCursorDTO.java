@@ -0,0 +1,42 @@
+package informviva.gest.dto;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de un listado recorrido por cursor (keyset).
+ * No incluye totales ni número de página: el costo de obtener cada página no depende
+ * de cuántas se hayan recorrido antes.
+ *
+ * @param contenido    Elementos de la página
+ * @param siguiente    Cursor opaco para pedir la página siguiente; null si no hay más
+ * @param haySiguiente true si existen más elementos después de esta página
+ * @param <T>          Tipo de los elementos
+ */
+public record PaginaCursorDTO<T>(List<T> contenido, String siguiente, boolean haySiguiente) {
+
+    /**
+     * Arma la página a partir de una consulta que pidió un elemento más que el tamaño solicitado
+     *
+     * @param filas  Resultado de la consulta (hasta tamano + 1 elementos)
+     * @param tamano Tamaño de la página
+     * @param cursor Función que codifica el cursor a partir del último elemento de la página
+     * @return Página con a lo más tamano elementos
+     */
+    public static <T> PaginaCursorDTO<T> de(List<T> filas, int tamano, Function<T, String> cursor) {
+        boolean haySiguiente = filas.size() > tamano;
+        List<T> contenido = haySiguiente ? filas.subList(0, tamano) : filas;
+        String siguiente = haySiguiente ? cursor.apply(contenido.get(contenido.size() - 1)) : null;
+        return new PaginaCursorDTO<>(List.copyOf(contenido), siguiente, haySiguiente);
+    }
+
+    public <R> PaginaCursorDTO<R> map(Function<T, R> conversion) {
+        return new PaginaCursorDTO<>(contenido.stream().map(conversion).toList(), siguiente, haySiguiente);
+    }
+}
@@ -0,0 +1,20 @@
+package informviva.gest.dto;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+/**
+ * Fila de la exportación de productos, obtenida por proyección sin cargar las entidades
+ */
+public record ProductoExportacionDTO(Long id,
+                                     String codigo,
+                                     String nombre,
+                                     String categoria,
+                                     String marca,
+                                     Long precio,
+                                     Integer stock,
+                                     Boolean activo) {
+}
@@ -0,0 +1,13 @@
+package informviva.gest.dto;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+/**
+ * Campos de un producto usados por el índice de búsqueda en memoria
+ */
+public record ProductoIndiceDTO(Long id, String codigo, String nombre, String marca, Boolean activo) {
+}
@@ -0,0 +1,17 @@
+package informviva.gest.dto;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+/**
+ * Fila de producto con su stock para el formulario de ventas y el aviso de bajo stock,
+ * obtenida por proyección sin cargar las entidades
+ *
+ * @param categoria Nombre de la categoría
+ * @param precio    Precio en pesos
+ */
+public record ProductoStockFila(Long id, String codigo, String nombre, String categoria, Integer stock, Long precio) {
+}
@@ -0,0 +1,13 @@
+package informviva.gest.dto;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+/**
+ * Sugerencia de producto para el autocompletado del formulario de ventas
+ */
+public record ProductoSugerenciaDTO(Long id, String codigo, String nombre, String marca, Long precio, Integer stock) {
+}
@@ -6,11 +6,11 @@ import lombok.NoArgsConstructor;
 
 @Data
 @NoArgsConstructor
-@AllArgsConstructor // Lombok generará el constructor (String, Long, Double, Double)
+@AllArgsConstructor // Lombok generará el constructor (String, Long, Long, Double)
 public class ProductoVendidoDTO {
     private String nombre;
     private Long unidadesVendidas;
-    private Double ingresos;
+    private Long ingresos; // Pesos
     private Double porcentajeTotal;
     // Elimina el constructor manual si lo añadiste
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package informviva.gest.dto;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de una carga masiva de ventas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLoteVentasDTO {
+
+    private int totalRecibidas;
+    private int exitosas;
+    private int fallidas;
+    private long duracionMs;
+    private double ventasPorSegundo;
+
+    // Un resultado por cada venta recibida, en el mismo orden del lote
+    private List<ResultadoVenta> resultados;
+
+    /**
+     * Resultado individual de una venta del lote
+     *
+     * @param indice  Posición de la venta en el lote (base 0)
+     * @param ventaId ID asignado si se guardó, null en caso contrario
+     * @param exitoso true si la venta se guardó
+     * @param mensaje Motivo del rechazo, null si se guardó
+     */
+    public record ResultadoVenta(int indice, Long ventaId, boolean exitoso, String mensaje) {
+
+        public static ResultadoVenta exito(int indice, Long ventaId) {
+            return new ResultadoVenta(indice, ventaId, true, null);
+        }
+
+        public static ResultadoVenta fallo(int indice, String mensaje) {
+            return new ResultadoVenta(indice, null, false, mensaje);
+        }
+    }
+}
@@ -29,7 +29,7 @@ public class VentaDetalleDTO {
     @Min(value = 1, message = "La cantidad debe ser al menos 1")
     private Integer cantidad;
 
-    private Double precioUnitario;
+    private Long precioUnitario;
 
-    private Double descuento;
+    private Long descuento;
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package informviva.gest.dto;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila de la exportación de ventas, obtenida por proyección sin cargar las entidades
+ */
+public record VentaExportacionDTO(Long id,
+                                  LocalDateTime fecha,
+                                  String clienteRut,
+                                  String clienteNombre,
+                                  String clienteApellido,
+                                  String vendedor,
+                                  String metodoPago,
+                                  String estado,
+                                  Long subtotal,
+                                  Long impuesto,
+                                  Long total) {
+}
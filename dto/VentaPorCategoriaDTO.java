@@ -6,9 +6,9 @@ import lombok.NoArgsConstructor;
 
 @Data
 @NoArgsConstructor
-@AllArgsConstructor // Lombok generará el constructor (String, Double)
+@AllArgsConstructor // Lombok generará el constructor (String, Long)
 public class VentaPorCategoriaDTO {
     private String categoria;
-    private Double total;
+    private Long total; // Pesos
     // Elimina el constructor manual si lo añadiste
 }
\ No newline at end of file
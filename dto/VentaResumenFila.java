@@ -0,0 +1,20 @@
+package informviva.gest.dto;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila de las tablas de ventas recientes, obtenida por proyección sin cargar las entidades
+ *
+ * @param cliente  Nombre completo del cliente
+ * @param vendedor Nombre completo del vendedor
+ * @param total    Total en pesos
+ */
+public record VentaResumenFila(Long id, LocalDateTime fecha, String cliente, String vendedor, Long total,
+                               String estado) {
+}
@@ -0,0 +1,18 @@
+package informviva.gest.evento;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import java.time.LocalDate;
+
+/**
+ * Evento publicado cuando se registra, modifica o elimina un cliente.
+ * Indica la fecha de registro afectada para invalidar los conteos de clientes nuevos.
+ *
+ * @param fechaRegistro Fecha de registro del cliente; null si no se conoce
+ */
+public record ClienteModificadoEvento(LocalDate fechaRegistro) {
+}
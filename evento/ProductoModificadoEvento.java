@@ -0,0 +1,21 @@
+package informviva.gest.evento;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import informviva.gest.model.Producto;
+
+/**
+ * Evento publicado cuando se crea o modifica un producto (datos o estado activo).
+ * Lleva los campos indexados para que los oyentes no tengan que volver a leer el producto.
+ */
+public record ProductoModificadoEvento(Long productoId, String codigo, String nombre, String marca, boolean activo) {
+
+    public static ProductoModificadoEvento de(Producto producto) {
+        return new ProductoModificadoEvento(producto.getId(), producto.getCodigo(), producto.getNombre(),
+                producto.getMarca(), Boolean.TRUE.equals(producto.getActivo()));
+    }
+}
@@ -0,0 +1,23 @@
+package informviva.gest.evento;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado cuando se crean, anulan o eliminan ventas.
+ * Indica el rango de fechas de las ventas afectadas para invalidar resultados calculados.
+ *
+ * @param desde Fecha de la venta más antigua afectada
+ * @param hasta Fecha de la venta más reciente afectada
+ */
+public record VentaModificadaEvento(LocalDateTime desde, LocalDateTime hasta) {
+
+    public static VentaModificadaEvento de(LocalDateTime fecha) {
+        return new VentaModificadaEvento(fecha, fecha);
+    }
+}
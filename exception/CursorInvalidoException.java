@@ -0,0 +1,22 @@
+package informviva.gest.exception;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+/**
+ * Excepción lanzada cuando un cursor de paginación no puede decodificarse,
+ * ya sea porque fue alterado o porque pertenece a otro listado.
+ */
+public class CursorInvalidoException extends RuntimeException {
+
+    public CursorInvalidoException(String mensaje) {
+        super(mensaje);
+    }
+
+    public CursorInvalidoException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
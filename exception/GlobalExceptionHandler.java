@@ -67,6 +67,25 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Maneja cursores de paginación alterados o de otro listado
+     *
+     * @param ex      La excepción capturada
+     * @param request La solicitud web actual
+     * @return ResponseEntity con detalles del error
+     */
+    @ExceptionHandler(CursorInvalidoException.class)
+    public ResponseEntity<ErrorResponse> manejarCursorInvalido(CursorInvalidoException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMessage(),
+                request.getDescription(false),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Maneja excepciones de validación de argumentos de método
      *
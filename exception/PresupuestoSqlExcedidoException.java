@@ -0,0 +1,18 @@
+package informviva.gest.exception;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+/**
+ * Excepción lanzada en modo estricto cuando una solicitud ejecuta más sentencias SQL
+ * que las permitidas por el presupuesto de su endpoint.
+ */
+public class PresupuestoSqlExcedidoException extends RuntimeException {
+
+    public PresupuestoSqlExcedidoException(String mensaje) {
+        super(mensaje);
+    }
+}
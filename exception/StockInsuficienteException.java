@@ -6,21 +6,27 @@ package informviva.gest.exception;
  */
 
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * Excepción lanzada cuando no hay suficiente stock de un producto para completar una operación.
  * Se utiliza principalmente al crear o actualizar ventas cuando la cantidad solicitada
  * supera el stock disponible.
  *
  * @author Roberto Rivas
- * @version 1.0
+ * @version 1.1
  */
 public class StockInsuficienteException extends RuntimeException {
 
+    private final List<LineaSinStock> lineasSinStock;
+
     /**
      * Constructor por defecto
      */
     public StockInsuficienteException() {
         super("No hay suficiente stock disponible");
+        this.lineasSinStock = List.of();
     }
 
     /**
@@ -30,6 +36,7 @@ public class StockInsuficienteException extends RuntimeException {
      */
     public StockInsuficienteException(String mensaje) {
         super(mensaje);
+        this.lineasSinStock = List.of();
     }
 
     /**
@@ -40,6 +47,7 @@ public class StockInsuficienteException extends RuntimeException {
      */
     public StockInsuficienteException(String mensaje, Throwable causa) {
         super(mensaje, causa);
+        this.lineasSinStock = List.of();
     }
 
     /**
@@ -53,5 +61,38 @@ public class StockInsuficienteException extends RuntimeException {
     public StockInsuficienteException(Long productoId, String nombreProducto, int stockDisponible, int cantidadSolicitada) {
         super(String.format("Stock insuficiente para el producto '%s' (ID: %d). Disponible: %d, Solicitado: %d",
                 nombreProducto, productoId, stockDisponible, cantidadSolicitada));
+        this.lineasSinStock = List.of(new LineaSinStock(productoId, stockDisponible, cantidadSolicitada));
+    }
+
+    /**
+     * Constructor para ventas con varias líneas, indicando cuáles no pudieron descontarse
+     *
+     * @param lineasSinStock Líneas cuyo stock no alcanzó para la cantidad solicitada
+     */
+    public StockInsuficienteException(List<LineaSinStock> lineasSinStock) {
+        super(lineasSinStock.stream()
+                .map(linea -> String.format("producto ID %d (disponible: %d, solicitado: %d)",
+                        linea.productoId(), linea.stockDisponible(), linea.cantidadSolicitada()))
+                .collect(Collectors.joining("; ", "Stock insuficiente para: ", "")));
+        this.lineasSinStock = List.copyOf(lineasSinStock);
+    }
+
+    /**
+     * Obtiene las líneas que no tenían stock suficiente
+     *
+     * @return Lista de líneas fallidas (vacía si no se informó el detalle)
+     */
+    public List<LineaSinStock> getLineasSinStock() {
+        return lineasSinStock;
+    }
+
+    /**
+     * Detalle de una línea de venta cuyo stock no alcanzó
+     *
+     * @param productoId         ID del producto
+     * @param stockDisponible    Stock disponible al momento de la operación
+     * @param cantidadSolicitada Cantidad solicitada
+     */
+    public record LineaSinStock(Long productoId, int stockDisponible, int cantidadSolicitada) {
     }
 }
\ No newline at end of file
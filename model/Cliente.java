@@ -1,6 +1,7 @@
 package informviva.gest.model;
 
 import informviva.gest.validador.ValidadorRut;
+import informviva.gest.validador.ValidadorRutUtil;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -14,7 +15,7 @@ import java.time.LocalDate;
  * Entidad que representa un cliente en el sistema
  */
 @Entity
-@Table(name = "clientes")
+@Table(name = "clientes", indexes = @Index(name = "idx_clientes_nombre_id", columnList = "nombre, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -41,6 +42,13 @@ public class Cliente {
     @ValidadorRut(message = "El RUT debe tener un formato válido")  // Aplicando la validación del RUT
     private String rut;
 
+    /**
+     * RUT en forma canónica (ver {@link ValidadorRutUtil#normalizar}), calculado al guardar.
+     * Permite buscar y verificar duplicados por igualdad sobre un índice único.
+     */
+    @Column(name = "rut_normalizado", unique = true, length = 12)
+    private String rutNormalizado;
+
     private LocalDate fechaRegistro;
 
     private String categoria;
@@ -56,12 +64,21 @@ public class Cliente {
     }
 
     /**
-     * Establece la fecha de registro antes de persistir el cliente
+     * Establece la fecha de registro y el RUT normalizado antes de persistir el cliente
      */
     @PrePersist
     public void establecerFechaRegistro() {
         if (fechaRegistro == null) {
             this.fechaRegistro = LocalDate.now(); // Establece la fecha actual si no está definida
         }
+        normalizarRut();
+    }
+
+    /**
+     * Recalcula el RUT normalizado a partir del RUT ingresado
+     */
+    @PreUpdate
+    public void normalizarRut() {
+        this.rutNormalizado = ValidadorRutUtil.normalizar(rut);
     }
 }
@@ -29,7 +29,7 @@ import java.time.LocalDateTime;
  * Entidad que representa un producto en el sistema
  */
 @Entity
-@Table(name = "productos")
+@Table(name = "productos", indexes = @Index(name = "idx_productos_nombre_id", columnList = "nombre, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -50,7 +50,7 @@ public class Producto {
 
     @NotNull(message = "El precio no puede ser nulo")
     @Positive(message = "El precio debe ser mayor que cero")
-    private Double precio;
+    private Long precio; // Pesos, sin decimales
 
     @PositiveOrZero(message = "El stock no puede ser negativo")
     private Integer stock;
@@ -0,0 +1,48 @@
+package informviva.gest.model;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Acumulado de ventas de un producto a partir de las líneas de venta (venta_detalles).
+ * Se mantiene en la misma transacción que crea, anula o elimina cada venta, de modo que el
+ * detalle del producto lee una fila por clave primaria en lugar de sumar todas las ventas.
+ * Solo incluye ventas no anuladas; los ingresos están en pesos, sin decimales.
+ */
+@Entity
+@Table(name = "producto_estadisticas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductoEstadistica {
+
+    @Id
+    @Column(name = "producto_id")
+    private Long productoId;
+
+    @Column(name = "unidades_vendidas", nullable = false)
+    private Long unidadesVendidas;
+
+    @Column(nullable = false)
+    private Long ingresos;
+
+    @Column(name = "ultima_venta")
+    private LocalDateTime ultimaVenta;
+
+    /**
+     * Estadística de un producto que aún no tiene ventas
+     */
+    public static ProductoEstadistica sinVentas(Long productoId) {
+        return new ProductoEstadistica(productoId, 0L, 0L, null);
+    }
+}
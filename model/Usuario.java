@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDate;
 import java.util.HashSet;
@@ -38,7 +39,9 @@ public class Usuario {
     // Se registran la fecha de creación y el último acceso del usuario.
     private LocalDate fechaCreacion;
     private LocalDate ultimoAcceso;
+    // Al listar varios usuarios, los roles se cargan con una consulta IN por lote en lugar de una por usuario
     @ElementCollection(fetch = FetchType.EAGER) // <-- Cambiado a EAGER
+    @BatchSize(size = 50)
     @CollectionTable(name = "usuario_roles", joinColumns = @JoinColumn(name = "usuario_id"))
     @Column(name = "rol")
     private Set<String> roles = new HashSet<>();
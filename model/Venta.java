@@ -5,61 +5,99 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Entidad que representa una venta en el sistema
+ * Entidad que representa una venta en el sistema.
+ * Las asociaciones se cargan de forma diferida; las consultas que necesitan cliente, vendedor
+ * o líneas piden uno de los grafos {@link #GRAFO_LISTADO} o {@link #GRAFO_DETALLE}.
  */
 @Entity
-@Table(name = "ventas")
+@Table(name = "ventas", indexes = @Index(name = "idx_ventas_fecha_id", columnList = "fecha, id"))
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = Venta.GRAFO_LISTADO, attributeNodes = {
+                @NamedAttributeNode("cliente"),
+                @NamedAttributeNode("vendedor")}),
+        @NamedEntityGraph(name = Venta.GRAFO_DETALLE, attributeNodes = {
+                @NamedAttributeNode("cliente"),
+                @NamedAttributeNode("vendedor"),
+                @NamedAttributeNode(value = "detalles", subgraph = "detalles.producto")},
+                subgraphs = @NamedSubgraph(name = "detalles.producto", attributeNodes = @NamedAttributeNode("producto")))
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Venta {
 
+    /**
+     * Grafo para listados de ventas: cliente y vendedor
+     */
+    public static final String GRAFO_LISTADO = "Venta.listado";
+
+    /**
+     * Grafo para ver una venta completa: cliente, vendedor y líneas con su producto
+     */
+    public static final String GRAFO_DETALLE = "Venta.detalle";
+
+    /**
+     * Se usa una secuencia con asignación en bloques (pooled) en lugar de IDENTITY
+     * para que Hibernate pueda agrupar los INSERT en lotes JDBC.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "venta_seq")
+    @SequenceGenerator(name = "venta_seq", sequenceName = "ventas_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "La fecha no puede ser nula")
     private LocalDateTime fecha;
 
     @NotNull(message = "El cliente no puede ser nulo")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cliente_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Cliente cliente;
 
     @NotNull(message = "El vendedor no puede ser nulo")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "vendedor_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Usuario vendedor;
 
     // @Column(...) // Añade anotaciones de columna si necesitas especificar nombre, precisión, etc.
-    private Double monto; //
+    private Long monto; //
 
     // @Column(...) // Añade anotaciones de columna si necesitas especificar nombre, precisión, etc.
     private Integer cantidad; //
 
     // Relación con Producto si existe
-    @ManyToOne // O la anotación de relación correcta
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "producto_id") // O el nombre de columna de la FK
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Producto producto;
 
 
     @NotNull(message = "El subtotal no puede ser nulo")
     @Positive(message = "El subtotal debe ser mayor que cero")
-    private Double subtotal;
+    private Long subtotal;
 
     @NotNull(message = "El impuesto no puede ser nulo")
     @Positive(message = "El impuesto debe ser mayor que cero")
-    private Double impuesto;
+    private Long impuesto;
 
     @NotNull(message = "El total no puede ser nulo")
     @Positive(message = "El total debe ser mayor que cero")
-    private Double total;
+    private Long total;
 
     private String metodoPago;
 
@@ -67,6 +105,22 @@ public class Venta {
 
     private String estado;
 
+    @OneToMany(mappedBy = "venta", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<VentaDetalle> detalles = new ArrayList<>();
+
+    /**
+     * Agrega un detalle a la venta manteniendo ambos lados de la relación
+     *
+     * @param detalle Detalle a agregar
+     */
+    public void agregarDetalle(VentaDetalle detalle) {
+        detalle.setVenta(this);
+        detalles.add(detalle);
+    }
+
     /**
      * Obtiene la fecha como LocalDate (sin la hora)
      *
@@ -96,7 +150,7 @@ public class Venta {
      * @return El total con impuestos
      */
     @Transient
-    public Double getTotalConImpuestos() {
+    public Long getTotalConImpuestos() {
         return subtotal + impuesto;
     }
 }
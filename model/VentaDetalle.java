@@ -14,16 +14,20 @@ package informviva.gest.model;
  */
 
 
+import informviva.gest.util.Dinero;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
- * Entidad que representa un detalle de venta (línea de venta)
+ * Entidad que representa un detalle de venta (línea de venta).
+ * Los montos están en pesos, sin decimales (ver {@link Dinero}).
  */
 @Entity
 @Table(name = "venta_detalles")
@@ -32,50 +36,70 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class VentaDetalle {
 
+    /**
+     * Valor de {@link #categoria} cuando el producto no tenía categoría al venderse. NULL queda
+     * reservado para los detalles anteriores a la columna, que aún no se migraron.
+     */
+    public static final String SIN_CATEGORIA = "";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "venta_detalle_seq")
+    @SequenceGenerator(name = "venta_detalle_seq", sequenceName = "venta_detalles_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "venta_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Venta venta;
 
-    @ManyToOne
+    // Se carga con el grafo Venta.GRAFO_DETALLE cuando se muestra la venta completa
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "producto_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Producto producto;
 
+    /**
+     * Nombre de la categoría del producto al momento de la venta. El resumen diario se acumula y
+     * descuenta con este valor, por lo que renombrar la categoría no desalinea las filas ya sumadas.
+     * Es {@link #SIN_CATEGORIA} si el producto no tenía categoría.
+     */
+    @Column(length = 100)
+    private String categoria;
+
     @NotNull(message = "La cantidad no puede ser nula")
     @Min(value = 1, message = "La cantidad debe ser al menos 1")
     private Integer cantidad;
 
     @NotNull(message = "El precio unitario no puede ser nulo")
     @Positive(message = "El precio unitario debe ser mayor que cero")
-    private Double precioUnitario;
+    private Long precioUnitario;
 
     @NotNull(message = "El subtotal no puede ser nulo")
     @Positive(message = "El subtotal debe ser mayor que cero")
-    private Double subtotal;
+    private Long subtotal;
 
-    private Double descuento;
+    private Long descuento;
 
     @NotNull(message = "El total no puede ser nulo")
     @Positive(message = "El total debe ser mayor que cero")
-    private Double total;
+    private Long total;
 
     /**
      * Calcula el subtotal (precio unitario * cantidad)
      * @return Subtotal calculado
      */
-    public Double calcularSubtotal() {
-        return precioUnitario * cantidad;
+    public Long calcularSubtotal() {
+        return Dinero.multiplicar(precioUnitario, cantidad);
     }
 
     /**
      * Calcula el total (subtotal - descuento)
      * @return Total calculado
      */
-    public Double calcularTotal() {
-        double totalCalculado = subtotal;
+    public Long calcularTotal() {
+        long totalCalculado = subtotal;
         if (descuento != null && descuento > 0) {
             totalCalculado -= descuento;
         }
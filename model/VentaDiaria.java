@@ -0,0 +1,66 @@
+package informviva.gest.model;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Resumen diario de ventas por categoría, vendedor y método de pago.
+ * Se mantiene en la misma transacción que crea o anula cada venta, de modo que los reportes
+ * de períodos largos suman días en lugar de recorrer todas las ventas.
+ * <p>
+ * Las medidas de la venta (total con impuestos, transacciones y artículos) se acumulan en la fila
+ * con categoría vacía; las filas con categoría guardan los artículos y el monto de las líneas
+ * de productos de esa categoría. Los montos están en pesos, sin decimales.
+ */
+@Entity
+@Table(name = "ventas_diarias",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ventas_diarias_dimensiones",
+                columnNames = {"fecha", "categoria", "vendedor_id", "metodo_pago"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaDiaria {
+
+    /**
+     * Valor de categoría de las filas que resumen la venta completa
+     */
+    public static final String SIN_CATEGORIA = "";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(nullable = false, length = 100)
+    private String categoria;
+
+    @Column(name = "vendedor_id", nullable = false)
+    private Long vendedorId;
+
+    @Column(name = "metodo_pago", nullable = false, length = 50)
+    private String metodoPago;
+
+    @Column(nullable = false)
+    private Long total;
+
+    @Column(nullable = false)
+    private Long transacciones;
+
+    @Column(nullable = false)
+    private Long articulos;
+
+    @Column(name = "monto_detalle", nullable = false)
+    private Long montoDetalle;
+}
@@ -0,0 +1,166 @@
+package informviva.gest.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Enrutamiento de {@link OrigenDatosEnrutado} contra dos bases H2 en memoria, armado igual que en
+ * {@link ConfiguracionOrigenDatos}: cada base tiene una tabla con su propio nombre, de modo que la
+ * consulta indica a cuál se conectó.
+ *
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+class OrigenDatosEnrutadoTest {
+
+    private static final Duration RETRASO_MAXIMO = Duration.ofMillis(300);
+    private static final String PRIMARIA = "primaria";
+    private static final String REPLICA = "replica";
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate lectura;
+    private TransactionTemplate escritura;
+
+    @BeforeEach
+    void armarOrigenes() {
+        OrigenDatosEnrutado enrutado = new OrigenDatosEnrutado(base(PRIMARIA), base(REPLICA), RETRASO_MAXIMO);
+        enrutado.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(enrutado);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        escritura = new TransactionTemplate(transactionManager);
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        lectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @AfterEach
+    void limpiarHilo() {
+        RequestContextHolder.resetRequestAttributes();
+        OrigenDatosEnrutado.detener();
+    }
+
+    @Test
+    void soloLecturaVaALaReplicaYEscrituraALaPrimaria() {
+        assertEquals(REPLICA, leer());
+        assertEquals(PRIMARIA, escribir());
+    }
+
+    @Test
+    void laSesionLeeDeLaPrimariaTrasEscribirHastaQueVenceElRetraso() throws InterruptedException {
+        MockHttpServletRequest solicitud = new MockHttpServletRequest();
+        solicitud.setSession(new MockHttpSession(null, "sesion-1"));
+        solicitudEnCurso(solicitud);
+
+        assertEquals(REPLICA, leer());
+        escribir();
+        assertEquals(PRIMARIA, leer());
+
+        // Otra sesión no se ve afectada
+        MockHttpServletRequest otra = new MockHttpServletRequest();
+        otra.setSession(new MockHttpSession(null, "sesion-2"));
+        solicitudEnCurso(otra);
+        assertEquals(REPLICA, leer());
+
+        solicitudEnCurso(solicitud);
+        Thread.sleep(RETRASO_MAXIMO.toMillis() + 100);
+        assertEquals(REPLICA, leer());
+    }
+
+    @Test
+    void clienteSinSesionSeIdentificaPorUsuarioODireccion() {
+        MockHttpServletRequest conUsuario = new MockHttpServletRequest();
+        conUsuario.setRemoteUser("api");
+        solicitudEnCurso(conUsuario);
+        escribir();
+        assertEquals(PRIMARIA, leer());
+
+        MockHttpServletRequest anonimo = new MockHttpServletRequest();
+        anonimo.setRemoteAddr("10.0.0.7");
+        solicitudEnCurso(anonimo);
+        assertEquals(REPLICA, leer());
+        escribir();
+        assertEquals(PRIMARIA, leer());
+
+        MockHttpServletRequest otraDireccion = new MockHttpServletRequest();
+        otraDireccion.setRemoteAddr("10.0.0.8");
+        solicitudEnCurso(otraDireccion);
+        assertEquals(REPLICA, leer());
+    }
+
+    @Test
+    void otroHiloHeredaLaClaveDeLaSolicitud() {
+        MockHttpServletRequest solicitud = new MockHttpServletRequest();
+        solicitud.setSession(new MockHttpSession(null, "sesion-3"));
+        solicitudEnCurso(solicitud);
+        escribir();
+        String clave = OrigenDatosEnrutado.claveConsistencia();
+
+        String sinClave = CompletableFuture.supplyAsync(this::leer).join();
+        String conClave = CompletableFuture.supplyAsync(() -> {
+            OrigenDatosEnrutado.continuar(clave);
+            try {
+                return leer();
+            } finally {
+                OrigenDatosEnrutado.detener();
+            }
+        }).join();
+
+        assertEquals(REPLICA, sinClave);
+        assertEquals(PRIMARIA, conClave);
+    }
+
+    @Test
+    void leerDePrimariaFuerzaLaPrimariaSoloDuranteLaLectura() {
+        assertEquals(PRIMARIA, OrigenDatosEnrutado.leerDePrimaria(this::leer));
+        assertEquals(REPLICA, leer());
+    }
+
+    @Test
+    void sinSolicitudNoHayClave() {
+        assertNull(OrigenDatosEnrutado.claveConsistencia());
+    }
+
+    private String leer() {
+        return lectura.execute(estado -> jdbcTemplate.queryForObject("SELECT nombre FROM origen", String.class));
+    }
+
+    private String escribir() {
+        return escritura.execute(estado -> {
+            jdbcTemplate.update("UPDATE origen SET escrituras = escrituras + 1");
+            return jdbcTemplate.queryForObject("SELECT nombre FROM origen", String.class);
+        });
+    }
+
+    private static void solicitudEnCurso(MockHttpServletRequest solicitud) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(solicitud));
+    }
+
+    private static DataSource base(String nombre) {
+        DriverManagerDataSource base = new DriverManagerDataSource("jdbc:h2:mem:" + nombre + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(base);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS origen (nombre VARCHAR(20), escrituras INT)");
+        jdbc.update("DELETE FROM origen");
+        jdbc.update("INSERT INTO origen VALUES (?, 0)", nombre);
+        return base;
+    }
+}
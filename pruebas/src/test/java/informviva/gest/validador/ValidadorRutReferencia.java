@@ -0,0 +1,66 @@
+package informviva.gest.validador;
+
+/**
+ * Implementaciones anteriores de la validación de RUT, copiadas sin cambios, contra las que
+ * se comparan las actuales.
+ *
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+final class ValidadorRutReferencia {
+
+    private ValidadorRutReferencia() {
+    }
+
+    /**
+     * ValidadorRutUtil.validar anterior (regex y Character.getNumericValue)
+     */
+    static boolean validar(String rut) {
+        rut = rut.replace(".", "").replace("-", "").toUpperCase();
+        if (!rut.matches("\\d{7,8}[0-9K]")) return false;
+
+        try {
+            int suma = 0;
+            int factor = 2;
+            for (int i = rut.length() - 2; i >= 0; i--) {
+                suma += Character.getNumericValue(rut.charAt(i)) * factor;
+                factor = factor == 7 ? 2 : factor + 1;
+            }
+            int dvEsperado = 11 - (suma % 11);
+            char dvCalculado = (dvEsperado == 11) ? '0' : (dvEsperado == 10) ? 'K' : Character.forDigit(dvEsperado, 10);
+            return rut.charAt(rut.length() - 1) == dvCalculado;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * ValidadorRutClase.isValid anterior (reemplazos de cadenas e Integer.parseInt)
+     */
+    static boolean isValid(String rut) {
+        if (rut == null || rut.trim().isEmpty()) {
+            return false;
+        }
+
+        rut = rut.replace(".", "").replace("-", "").toUpperCase();
+        if (rut.length() < 2) return false;
+
+        try {
+            String cuerpo = rut.substring(0, rut.length() - 1);
+            String dv = rut.substring(rut.length() - 1);
+
+            int rutNum = Integer.parseInt(cuerpo);
+            int m = 0;
+            int r = 1;
+            for (; rutNum != 0; rutNum /= 10) {
+                r = (r + rutNum % 10 * (9 - m++ % 6)) % 11;
+            }
+
+            String dvEsperado = (r != 0) ? String.valueOf((char) (r + 47)) : "K";
+
+            return dv.equals(dvEsperado);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
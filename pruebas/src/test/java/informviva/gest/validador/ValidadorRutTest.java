@@ -0,0 +1,163 @@
+package informviva.gest.validador;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fija el comportamiento de {@link ValidadorRutUtil#validar(String)} y {@link ValidadorRutClase#isValid}
+ * frente a las implementaciones anteriores ({@link ValidadorRutReferencia}). Las únicas diferencias
+ * aceptadas son las que se prueban explícitamente más abajo.
+ *
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+class ValidadorRutTest {
+
+    private static final int CASOS_ALEATORIOS = 200_000;
+    private static final String ALFABETO = "0123456789kK.-+ x";
+
+    private final ValidadorRutClase validadorRutClase = new ValidadorRutClase();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"12.345.678-5", "12345678-5", "123456785", "7.654.321-6", "11.111.111-1",
+            "15.858.767-k", "15858767K", "1.000.000-9"})
+    void aceptaRutValidos(String rut) {
+        assertTrue(ValidadorRutUtil.validar(rut));
+        assertTrue(validadorRutClase.isValid(rut, null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"12.345.678-9", "12.34A.678-5", "12 345 678-5", "K2345678-5", "", "-", "5", "..--"})
+    void rechazaRutInvalidos(String rut) {
+        assertFalse(ValidadorRutUtil.validar(rut));
+        assertFalse(validadorRutClase.isValid(rut, null));
+    }
+
+    @Test
+    void validarCoincideConLaImplementacionAnterior() {
+        Random azar = new Random(20_250_115L);
+        for (int i = 0; i < CASOS_ALEATORIOS; i++) {
+            String rut = i % 2 == 0 ? rutBienFormado(azar) : cadenaAleatoria(azar);
+            assertEquals(ValidadorRutReferencia.validar(rut), ValidadorRutUtil.validar(rut), rut);
+        }
+    }
+
+    @Test
+    void isValidCoincideConLaImplementacionAnteriorSinSigno() {
+        Random azar = new Random(20_250_116L);
+        for (int i = 0; i < CASOS_ALEATORIOS; i++) {
+            String rut = i % 2 == 0 ? rutBienFormado(azar) : cadenaAleatoria(azar);
+            if (rut.indexOf('+') >= 0) {
+                continue;
+            }
+            assertEquals(ValidadorRutReferencia.isValid(rut), validadorRutClase.isValid(rut, null), rut);
+        }
+    }
+
+    @Test
+    void validarExigeCuerpoDeSieteUOchoDigitos() {
+        assertTrue(ValidadorRutUtil.validar("1.000.000-9"));
+        assertFalse(ValidadorRutUtil.validar("999.999-" + digitoVerificador(999_999)));
+        assertFalse(ValidadorRutUtil.validar("100.000.000-" + digitoVerificador(100_000_000)));
+        // Los ceros a la izquierda cuentan para el largo, como en la expresión regular anterior
+        assertTrue(ValidadorRutUtil.validar("0999999-" + digitoVerificador(999_999)));
+    }
+
+    @Test
+    void isValidAceptaCuerposQueCabenEnUnInt() {
+        String maximo = "2147483647-" + digitoVerificador(Integer.MAX_VALUE);
+        assertTrue(ValidadorRutReferencia.isValid(maximo));
+        assertTrue(validadorRutClase.isValid(maximo, null));
+
+        String desborde = "2147483648-" + digitoVerificador(2_147_483_648L);
+        assertFalse(ValidadorRutReferencia.isValid(desborde));
+        assertFalse(validadorRutClase.isValid(desborde, null));
+
+        // Los ceros a la izquierda no cuentan para el límite
+        String conCeros = "0000000000012345678-5";
+        assertTrue(ValidadorRutReferencia.isValid(conCeros));
+        assertTrue(validadorRutClase.isValid(conCeros, null));
+    }
+
+    /**
+     * Diferencia aceptada: Integer.parseInt admitía un signo + delante del cuerpo
+     */
+    @Test
+    void isValidYaNoAceptaSignoDelanteDelCuerpo() {
+        assertTrue(ValidadorRutReferencia.isValid("+12345678-5"));
+        assertFalse(validadorRutClase.isValid("+12345678-5", null));
+    }
+
+    /**
+     * Diferencia aceptada: Integer.parseInt admitía dígitos de otros sistemas de escritura
+     */
+    @Test
+    void isValidSoloAceptaDigitosAscii() {
+        String arabigoIndico = "١٢٣٤٥٦٧٨-5";
+        assertTrue(ValidadorRutReferencia.isValid(arabigoIndico));
+        assertFalse(validadorRutClase.isValid(arabigoIndico, null));
+    }
+
+    /**
+     * Diferencia aceptada: validar(null) lanzaba NullPointerException
+     */
+    @Test
+    void validarNuloDevuelveFalse() {
+        assertThrows(NullPointerException.class, () -> ValidadorRutReferencia.validar(null));
+        assertFalse(ValidadorRutUtil.validar(null));
+        assertFalse(validadorRutClase.isValid(null, null));
+    }
+
+    private static String rutBienFormado(Random azar) {
+        long cuerpo = (long) (azar.nextDouble() * Math.pow(10, 1 + azar.nextInt(11)));
+        String dv = digitoVerificador(cuerpo);
+        if (azar.nextInt(10) == 0) {
+            // Dígito verificador incorrecto
+            dv = dv.equals("0") ? "1" : "0";
+        }
+        if (dv.equals("K") && azar.nextBoolean()) {
+            dv = "k";
+        }
+        String digitos = "0".repeat(azar.nextInt(10) == 0 ? 1 + azar.nextInt(3) : 0) + cuerpo;
+        StringBuilder rut = new StringBuilder();
+        boolean conPuntos = azar.nextBoolean();
+        for (int i = 0; i < digitos.length(); i++) {
+            if (conPuntos && i > 0 && (digitos.length() - i) % 3 == 0) {
+                rut.append('.');
+            }
+            rut.append(digitos.charAt(i));
+        }
+        if (azar.nextBoolean()) {
+            rut.append('-');
+        }
+        return rut.append(dv).toString();
+    }
+
+    private static String cadenaAleatoria(Random azar) {
+        int largo = azar.nextInt(15);
+        StringBuilder cadena = new StringBuilder(largo);
+        for (int i = 0; i < largo; i++) {
+            cadena.append(ALFABETO.charAt(azar.nextInt(ALFABETO.length())));
+        }
+        return cadena.toString();
+    }
+
+    private static String digitoVerificador(long cuerpo) {
+        int suma = 0;
+        int factor = 2;
+        for (long resto = cuerpo; resto > 0; resto /= 10) {
+            suma += (int) (resto % 10) * factor;
+            factor = factor == 7 ? 2 : factor + 1;
+        }
+        int dv = 11 - suma % 11;
+        return dv == 11 ? "0" : dv == 10 ? "K" : String.valueOf(dv);
+    }
+}
@@ -1,5 +1,7 @@
 package informviva.gest.repository;
 
+import informviva.gest.dto.ClienteFila;
+import informviva.gest.dto.ComparativoConteoDTO;
 import informviva.gest.model.Cliente;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +24,9 @@ import java.util.Optional;
 @Repository
 public interface ClienteRepositorio extends JpaRepository<Cliente, Long> {
 
+    String FILA_CLIENTE = "SELECT new informviva.gest.dto.ClienteFila(c.id, c.rut, c.nombre, c.apellido, c.email, " +
+            "c.telefono) FROM Cliente c ";
+
     // Métodos básicos
     boolean existsByEmail(String email);
 
@@ -28,11 +34,26 @@ public interface ClienteRepositorio extends JpaRepository<Cliente, Long> {
 
     Optional<Cliente> findByRut(String rut);
 
+    // Búsquedas por RUT normalizado (índice único)
+    boolean existsByRutNormalizado(String rutNormalizado);
+
+    boolean existsByRutNormalizadoAndIdNot(String rutNormalizado, Long id);
+
+    Optional<Cliente> findByRutNormalizado(String rutNormalizado);
+
+    List<Cliente> findByRutNormalizadoIsNullAndRutIsNotNull();
+
     // Búsquedas por nombre
     List<Cliente> findByNombreContainingIgnoreCase(String nombre);
 
     List<Cliente> findByApellidoContainingIgnoreCase(String apellido);
 
+    @Query("SELECT c FROM Cliente c WHERE " +
+            "LOWER(CONCAT(c.nombre, ' ', c.apellido)) LIKE LOWER(CONCAT('%', :nombre, '%'))")
+    List<Cliente> buscarPorNombreCompleto(@Param("nombre") String nombre);
+
+    List<Cliente> findByEmailContainingIgnoreCase(String email);
+
     @Query("SELECT c FROM Cliente c WHERE " +
             "LOWER(c.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
             "LOWER(c.apellido) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
@@ -59,6 +80,18 @@ public interface ClienteRepositorio extends JpaRepository<Cliente, Long> {
     @Query("SELECT COUNT(c) FROM Cliente c WHERE c.fechaRegistro >= :fecha")
     long contarClientesRegistradosDespuesDe(@Param("fecha") LocalDate fecha);
 
+    // Clientes registrados en dos períodos, en una sola consulta
+    @Query("SELECT new informviva.gest.dto.ComparativoConteoDTO(" +
+            "SUM(CASE WHEN c.fechaRegistro BETWEEN :inicioActual AND :finActual THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN c.fechaRegistro BETWEEN :inicioAnterior AND :finAnterior THEN 1L ELSE 0L END)) " +
+            "FROM Cliente c " +
+            "WHERE c.fechaRegistro BETWEEN :inicioActual AND :finActual " +
+            "OR c.fechaRegistro BETWEEN :inicioAnterior AND :finAnterior")
+    ComparativoConteoDTO compararClientesRegistrados(@Param("inicioActual") LocalDate inicioActual,
+                                                     @Param("finActual") LocalDate finActual,
+                                                     @Param("inicioAnterior") LocalDate inicioAnterior,
+                                                     @Param("finAnterior") LocalDate finAnterior);
+
     // Consultas para reportes avanzados
     @Query("SELECT DISTINCT c.categoria FROM Cliente c WHERE c.categoria IS NOT NULL ORDER BY c.categoria")
     List<String> findAllCategorias();
@@ -72,6 +105,11 @@ public interface ClienteRepositorio extends JpaRepository<Cliente, Long> {
             "ORDER BY c.nombre, c.apellido")
     List<Cliente> findClientesConVentasEnPeriodo(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
 
+    // Clientes con compras cuya última venta es anterior a la fecha límite
+    @Query("SELECT c FROM Cliente c WHERE c.id IN (" +
+            "SELECT v.cliente.id FROM Venta v GROUP BY v.cliente.id HAVING MAX(v.fecha) < :limite)")
+    List<Cliente> buscarClientesSinComprasDesde(@Param("limite") LocalDateTime limite);
+
     // Consulta para estadísticas
     @Query("SELECT AVG(COUNT(c)) FROM Cliente c GROUP BY c.categoria")
     Double obtenerPromedioClientesPorCategoria();
@@ -85,4 +123,47 @@ public interface ClienteRepositorio extends JpaRepository<Cliente, Long> {
     Page<Cliente> findByNombreContainingOrEmailContainingIgnoreCase(
             String nombre, String email, Pageable pageable);
 
+    /**
+     * Primera página del listado por nombre recorrido por cursor
+     *
+     * @param limite Cantidad máxima de clientes
+     * @return Clientes ordenados por nombre e ID
+     */
+    @Query("SELECT c FROM Cliente c ORDER BY c.nombre, c.id")
+    List<Cliente> listarPorNombre(Pageable limite);
+
+    /**
+     * Continúa el listado por nombre después del cliente (nombre, id) indicado,
+     * usando el índice (nombre, id) en lugar de OFFSET
+     *
+     * @param nombre Nombre del último cliente entregado
+     * @param id     ID del último cliente entregado
+     * @param limite Cantidad máxima de clientes
+     * @return Clientes siguientes ordenados por nombre e ID
+     */
+    @Query("SELECT c FROM Cliente c WHERE c.nombre > :nombre OR (c.nombre = :nombre AND c.id > :id) " +
+            "ORDER BY c.nombre, c.id")
+    List<Cliente> listarPorNombreDespuesDe(@Param("nombre") String nombre, @Param("id") Long id, Pageable limite);
+
+    /**
+     * Obtiene los primeros clientes ordenados por nombre e ID como filas, sin cargar las entidades
+     *
+     * @param limite Cantidad de clientes a obtener
+     * @return Filas de clientes ordenadas por nombre e ID
+     */
+    @Query(FILA_CLIENTE + "ORDER BY c.nombre, c.id")
+    List<ClienteFila> listarFilasPorNombre(Pageable limite);
+
+    /**
+     * Continúa el listado de filas por nombre después del cliente (nombre, id) indicado
+     *
+     * @param nombre Nombre del último cliente de la página anterior
+     * @param id     ID del último cliente de la página anterior
+     * @param limite Cantidad de clientes a obtener
+     * @return Filas de clientes siguientes en el orden (nombre, id)
+     */
+    @Query(FILA_CLIENTE + "WHERE c.nombre > :nombre OR (c.nombre = :nombre AND c.id > :id) ORDER BY c.nombre, c.id")
+    List<ClienteFila> listarFilasPorNombreDespuesDe(@Param("nombre") String nombre, @Param("id") Long id,
+                                                    Pageable limite);
+
 }
\ No newline at end of file
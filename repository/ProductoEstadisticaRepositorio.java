@@ -0,0 +1,86 @@
+package informviva.gest.repository;
+
+import informviva.gest.model.ProductoEstadistica;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * Repositorio del acumulado de ventas por producto (tabla producto_estadisticas).
+ * Igual que {@link VentaDiariaRepositorio}, suma o resta la contribución de un conjunto de ventas
+ * con INSERT ... ON DUPLICATE KEY UPDATE (MySQL), sin leer antes las filas del acumulado.
+ *
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+@Repository
+public interface ProductoEstadisticaRepositorio extends JpaRepository<ProductoEstadistica, Long> {
+
+    String INSERTAR = "INSERT INTO producto_estadisticas (producto_id, unidades_vendidas, ingresos, ultima_venta) ";
+
+    /**
+     * Suma (signo 1) o resta (signo -1) las unidades y montos de las líneas de las ventas.
+     * Al sumar, la última venta pasa a ser la más reciente entre la guardada y las nuevas;
+     * al restar no cambia y debe corregirse con {@link #recalcularUltimaVenta}.
+     *
+     * @param ventaIds IDs de las ventas
+     * @param signo    1 al registrar, -1 al anular
+     * @return Filas insertadas o actualizadas
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERTAR +
+            "SELECT vd.producto_id, :signo * SUM(vd.cantidad), :signo * SUM(vd.total), " +
+            "CASE WHEN :signo > 0 THEN MAX(v.fecha) END " +
+            "FROM venta_detalles vd " +
+            "JOIN ventas v ON v.id = vd.venta_id " +
+            "WHERE v.id IN (:ventaIds) " +
+            "GROUP BY vd.producto_id " +
+            "ON DUPLICATE KEY UPDATE " +
+            "unidades_vendidas = unidades_vendidas + VALUES(unidades_vendidas), " +
+            "ingresos = ingresos + VALUES(ingresos), " +
+            "ultima_venta = GREATEST(COALESCE(ultima_venta, VALUES(ultima_venta)), " +
+            "COALESCE(VALUES(ultima_venta), ultima_venta))", nativeQuery = true)
+    int acumular(@Param("ventaIds") Collection<Long> ventaIds, @Param("signo") int signo);
+
+    /**
+     * Recalcula la última venta de los productos de las ventas indicadas, sin considerar esas
+     * ventas ni las anuladas. Se usa al anular o eliminar ventas.
+     *
+     * @param ventaIds IDs de las ventas que se descuentan
+     * @return Filas actualizadas
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE producto_estadisticas pe SET pe.ultima_venta = (" +
+            "SELECT MAX(v.fecha) FROM venta_detalles vd JOIN ventas v ON v.id = vd.venta_id " +
+            "WHERE vd.producto_id = pe.producto_id AND v.id NOT IN (:ventaIds) " +
+            "AND (v.estado IS NULL OR v.estado <> 'ANULADA')) " +
+            "WHERE pe.producto_id IN (SELECT d.producto_id FROM venta_detalles d WHERE d.venta_id IN (:ventaIds))",
+            nativeQuery = true)
+    int recalcularUltimaVenta(@Param("ventaIds") Collection<Long> ventaIds);
+
+    /**
+     * Recalcula el acumulado a partir de todas las ventas no anuladas.
+     * Debe ejecutarse sobre la tabla vacía.
+     *
+     * @return Filas insertadas
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERTAR +
+            "SELECT vd.producto_id, SUM(vd.cantidad), SUM(vd.total), MAX(v.fecha) " +
+            "FROM venta_detalles vd " +
+            "JOIN ventas v ON v.id = vd.venta_id " +
+            "WHERE v.estado IS NULL OR v.estado <> 'ANULADA' " +
+            "GROUP BY vd.producto_id", nativeQuery = true)
+    int reconstruir();
+
+    /**
+     * Elimina todo el acumulado
+     */
+    @Modifying
+    @Query(value = "DELETE FROM producto_estadisticas", nativeQuery = true)
+    void eliminarTodo();
+}
@@ -1,14 +1,27 @@
 package informviva.gest.repository;
 
+import informviva.gest.config.ConfiguracionHibernate;
+import informviva.gest.dto.ProductoExportacionDTO;
+import informviva.gest.dto.ProductoIndiceDTO;
+import informviva.gest.dto.ProductoStockFila;
+import informviva.gest.dto.ProductoSugerenciaDTO;
 import informviva.gest.model.Producto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para acceder a las entidades Producto en la base de datos.
@@ -20,6 +33,11 @@ import java.util.List;
 @Repository
 public interface ProductoRepositorio extends JpaRepository<Producto, Long> {
 
+    /**
+     * Nombre mostrado para los productos sin categoría
+     */
+    String SIN_CATEGORIA = "Sin categoría";
+
     /**
      * Verifica si existe un producto con el código especificado
      * @param codigo Código del producto
@@ -88,7 +106,7 @@ public interface ProductoRepositorio extends JpaRepository<Producto, Long> {
      * @param precioMax Precio máximo
      * @return Lista de productos en el rango de precios
      */
-    List<Producto> findByPrecioBetween(Double precioMin, Double precioMax);
+    List<Producto> findByPrecioBetween(Long precioMin, Long precioMax);
 
     /**
      * Cuenta productos activos
@@ -198,5 +216,128 @@ public interface ProductoRepositorio extends JpaRepository<Producto, Long> {
 
     Page<Producto> findByStockGreaterThan(Integer stock, Pageable pageable);
 
+    /**
+     * Descuenta stock de forma atómica solo si hay cantidad suficiente.
+     * La condición sobre el stock se evalúa en la misma sentencia que lo modifica,
+     * por lo que dos ventas concurrentes no pueden dejar el stock en negativo.
+     * Limpia el contexto de persistencia al terminar: un Producto ya cargado quedaría con el stock
+     * anterior y, al guardarse, desharía el descuento.
+     *
+     * @param id       ID del producto
+     * @param cantidad Cantidad a descontar
+     * @param fecha    Fecha de actualización a registrar
+     * @return Número de filas afectadas (0 si no existe o no hay stock suficiente)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Producto p SET p.stock = p.stock - :cantidad, p.fechaActualizacion = :fecha " +
+            "WHERE p.id = :id AND p.stock >= :cantidad")
+    int descontarStock(@Param("id") Long id, @Param("cantidad") int cantidad, @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Incrementa stock de forma atómica.
+     * Limpia el contexto de persistencia al terminar, igual que {@link #descontarStock}.
+     *
+     * @param id       ID del producto
+     * @param cantidad Cantidad a sumar
+     * @param fecha    Fecha de actualización a registrar
+     * @return Número de filas afectadas (0 si el producto no existe)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Producto p SET p.stock = COALESCE(p.stock, 0) + :cantidad, p.fechaActualizacion = :fecha " +
+            "WHERE p.id = :id")
+    int incrementarStock(@Param("id") Long id, @Param("cantidad") int cantidad, @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Obtiene solo el stock actual de un producto, sin cargar la entidad
+     *
+     * @param id ID del producto
+     * @return Stock actual, vacío si el producto no existe
+     */
+    @Query("SELECT COALESCE(p.stock, 0) FROM Producto p WHERE p.id = :id")
+    Optional<Integer> obtenerStock(@Param("id") Long id);
+
+    /**
+     * Recorre todos los productos como filas de exportación, sin cargar las entidades.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     *
+     * @return Flujo de productos ordenados por ID
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ConfiguracionHibernate.TAMANO_FETCH_STREAMING))
+    @Query("SELECT new informviva.gest.dto.ProductoExportacionDTO(p.id, p.codigo, p.nombre, c.nombre, " +
+            "p.marca, p.precio, p.stock, p.activo) " +
+            "FROM Producto p LEFT JOIN p.categoria c ORDER BY p.id")
+    Stream<ProductoExportacionDTO> recorrerParaExportacion();
+
+    /**
+     * Obtiene los productos con stock disponible como filas para el formulario de ventas
+     *
+     * @return Productos con stock mayor a cero, ordenados por nombre
+     */
+    @Query("SELECT new informviva.gest.dto.ProductoStockFila(p.id, p.codigo, p.nombre, " +
+            "COALESCE(c.nombre, '" + SIN_CATEGORIA + "'), p.stock, p.precio) " +
+            "FROM Producto p LEFT JOIN p.categoria c WHERE p.stock > 0 ORDER BY p.nombre, p.id")
+    List<ProductoStockFila> listarFilasConStock();
+
+    /**
+     * Obtiene los productos con stock menor al umbral como filas, del menor stock al mayor
+     *
+     * @param umbral Stock a partir del cual un producto deja de considerarse bajo
+     * @return Productos con bajo stock
+     */
+    @Query("SELECT new informviva.gest.dto.ProductoStockFila(p.id, p.codigo, p.nombre, " +
+            "COALESCE(c.nombre, '" + SIN_CATEGORIA + "'), p.stock, p.precio) " +
+            "FROM Producto p LEFT JOIN p.categoria c WHERE p.stock < :umbral ORDER BY p.stock, p.id")
+    List<ProductoStockFila> listarFilasConStockMenorA(@Param("umbral") int umbral);
+
+    /**
+     * Obtiene los campos de todos los productos que usa el índice de búsqueda en memoria
+     *
+     * @return Código, nombre, marca y estado de cada producto
+     */
+    @Query("SELECT new informviva.gest.dto.ProductoIndiceDTO(p.id, p.codigo, p.nombre, p.marca, p.activo) " +
+            "FROM Producto p")
+    List<ProductoIndiceDTO> listarParaIndiceBusqueda();
+
+    /**
+     * Obtiene precio y stock actuales de los productos sugeridos por el índice de búsqueda
+     *
+     * @param ids IDs de los productos
+     * @return Sugerencias sin orden definido
+     */
+    @Query("SELECT new informviva.gest.dto.ProductoSugerenciaDTO(p.id, p.codigo, p.nombre, p.marca, p.precio, p.stock) " +
+            "FROM Producto p WHERE p.id IN :ids")
+    List<ProductoSugerenciaDTO> buscarSugerencias(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Obtiene una página de productos entre los IDs indicados
+     *
+     * @param ids      IDs de los productos
+     * @param pageable Configuración de paginación y orden
+     * @return Página de productos
+     */
+    Page<Producto> findByIdIn(Collection<Long> ids, Pageable pageable);
+
+    /**
+     * Primera página del listado por nombre recorrido por cursor
+     *
+     * @param limite Cantidad máxima de productos
+     * @return Productos ordenados por nombre e ID
+     */
+    @Query("SELECT p FROM Producto p LEFT JOIN FETCH p.categoria ORDER BY p.nombre, p.id")
+    List<Producto> listarPorNombre(Pageable limite);
+
+    /**
+     * Continúa el listado por nombre después del producto (nombre, id) indicado,
+     * usando el índice (nombre, id) en lugar de OFFSET
+     *
+     * @param nombre Nombre del último producto entregado
+     * @param id     ID del último producto entregado
+     * @param limite Cantidad máxima de productos
+     * @return Productos siguientes ordenados por nombre e ID
+     */
+    @Query("SELECT p FROM Producto p LEFT JOIN FETCH p.categoria " +
+            "WHERE p.nombre > :nombre OR (p.nombre = :nombre AND p.id > :id) " +
+            "ORDER BY p.nombre, p.id")
+    List<Producto> listarPorNombreDespuesDe(@Param("nombre") String nombre, @Param("id") Long id, Pageable limite);
 }
 
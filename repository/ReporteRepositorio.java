@@ -7,28 +7,40 @@ import informviva.gest.dto.VentaPorVendedorDTO;
 import informviva.gest.model.Venta;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Repositorio de consultas para reportes de ventas.
+ * Las consultas "Resumen" leen la tabla ventas_diarias (un registro por día y dimensión) y excluyen
+ * un día, normalmente el actual, que se obtiene con las consultas sobre ventas.
+ * Las consultas sobre ventas excluyen las ventas anuladas.
+ *
+ * @author Roberto Rivas
+ * @version 2.0
+ */
 @Repository
 public interface ReporteRepositorio extends JpaRepository<Venta, Long> {
 
     // Consulta para obtener el Total de Ventas (suma del campo 'total' de Venta)
-    // Retorna BigDecimal para precisión monetaria. COALESCE(..., 0) maneja el caso sin ventas.
-    @Query("SELECT COALESCE(SUM(v.total), 0) FROM Venta v WHERE v.fecha BETWEEN :startDate AND :endDate")
-    BigDecimal sumarTotalVentasEntreFechas(LocalDateTime startDate, LocalDateTime endDate);
+    // Retorna Long en pesos: la suma de enteros es exacta. COALESCE(..., 0L) maneja el caso sin ventas.
+    @Query("SELECT COALESCE(SUM(v.total), 0L) FROM Venta v WHERE v.fecha BETWEEN :startDate AND :endDate " +
+            "AND (v.estado IS NULL OR v.estado <> 'ANULADA')")
+    Long sumarTotalVentasEntreFechas(LocalDateTime startDate, LocalDateTime endDate);
 
     // Consulta para contar el Total de Transacciones (número de registros de Venta)
-    @Query("SELECT COUNT(v) FROM Venta v WHERE v.fecha BETWEEN :startDate AND :endDate")
+    @Query("SELECT COUNT(v) FROM Venta v WHERE v.fecha BETWEEN :startDate AND :endDate " +
+            "AND (v.estado IS NULL OR v.estado <> 'ANULADA')")
     Long contarVentasEntreFechas(LocalDateTime startDate, LocalDateTime endDate);
 
     // Consulta para obtener el Total de Artículos Vendidos (suma de cantidades en VentaDetalle)
     // Requiere JOIN con VentaDetalle. Retorna Long para la cantidad total. COALESCE(..., 0) maneja el caso sin ventas.
-    @Query("SELECT COALESCE(SUM(vd.cantidad), 0L) FROM VentaDetalle vd JOIN vd.venta v WHERE v.fecha BETWEEN :startDate AND :endDate")
+    @Query("SELECT COALESCE(SUM(vd.cantidad), 0L) FROM VentaDetalle vd JOIN vd.venta v WHERE v.fecha BETWEEN :startDate AND :endDate " +
+            "AND (v.estado IS NULL OR v.estado <> 'ANULADA')")
     Long sumarCantidadArticulosVendidosEntreFechas(LocalDateTime startDate, LocalDateTime endDate);
 
     // Consulta para contar Clientes Nuevos (basado en fechaRegistro en la entidad Cliente)
@@ -41,7 +53,7 @@ public interface ReporteRepositorio extends JpaRepository<Venta, Long> {
     // Usa JPQL SELECT new DTO(...). CAST se usa para asegurar tipo String.
     @Query("SELECT new informviva.gest.dto.ProductoVendidoDTO(CAST(p.nombre AS string), SUM(vd.cantidad), SUM(vd.total), 0.0) " +
             "FROM VentaDetalle vd JOIN vd.producto p JOIN vd.venta v " +
-            "WHERE v.fecha BETWEEN :startDate AND :endDate " +
+            "WHERE v.fecha BETWEEN :startDate AND :endDate AND (v.estado IS NULL OR v.estado <> 'ANULADA') " +
             "GROUP BY p.nombre " +
             "ORDER BY SUM(vd.cantidad) DESC")
     List<ProductoVendidoDTO> obtenerProductosMasVendidosEntreFechas(LocalDateTime startDate, LocalDateTime endDate);
@@ -51,29 +63,76 @@ public interface ReporteRepositorio extends JpaRepository<Venta, Long> {
     // Usa Native Query = true porque utiliza la función DATE_FORMAT (específica de MySQL).
     // **Verifica la compatibilidad de DATE_FORMAT con tu base de datos.**
     @Query(value = "SELECT DATE_FORMAT(v.fecha, '%Y-%m-%d') AS periodo, SUM(v.total) AS total " +
-            "FROM ventas v WHERE v.fecha BETWEEN :startDate AND :endDate " +
+            "FROM ventas v WHERE v.fecha BETWEEN :startDate AND :endDate AND (v.estado IS NULL OR v.estado <> 'ANULADA') " +
             "GROUP BY DATE_FORMAT(v.fecha, '%Y-%m-%d') " +
             "ORDER BY DATE_FORMAT(v.fecha, '%Y-%m-%d') ASC", nativeQuery = true)
     List<VentaPorPeriodoDTO> obtenerVentasPorPeriodoEntreFechas(LocalDateTime startDate, LocalDateTime endDate);
 
-    // Consulta para obtener Ventas por Categoría (agrupado por nombre de categoría)
+    // Consulta para obtener Ventas por Categoría (agrupado por la categoría registrada en el detalle al vender)
     // Retorna una lista de DTOs VentaPorCategoriaDTO.
-    // Usa JPQL SELECT new DTO(...). CAST se usa para asegurar tipo String. COALESCE con 0.0 asegura tipo Double.
-    @Query("SELECT new informviva.gest.dto.VentaPorCategoriaDTO(CAST(cat.nombre AS string), COALESCE(SUM(vd.total), 0.0)) " +
-            "FROM VentaDetalle vd JOIN vd.producto p JOIN p.categoria cat JOIN vd.venta v " +
-            "WHERE v.fecha BETWEEN :startDate AND :endDate " +
-            "GROUP BY cat.nombre " +
-            "ORDER BY cat.nombre ASC")
+    // Usa JPQL SELECT new DTO(...). COALESCE con 0L asegura tipo Long.
+    // Usa la misma clave que las filas por categoría de ventas_diarias, para poder combinarlas.
+    @Query("SELECT new informviva.gest.dto.VentaPorCategoriaDTO(vd.categoria, COALESCE(SUM(vd.total), 0L)) " +
+            "FROM VentaDetalle vd JOIN vd.venta v " +
+            "WHERE v.fecha BETWEEN :startDate AND :endDate AND (v.estado IS NULL OR v.estado <> 'ANULADA') " +
+            "AND vd.categoria <> '' " +
+            "GROUP BY vd.categoria " +
+            "ORDER BY vd.categoria ASC")
     List<VentaPorCategoriaDTO> obtenerVentasPorCategoriaEntreFechas(LocalDateTime startDate, LocalDateTime endDate);
 
     // Consulta para obtener Ventas por Vendedor (agrupado por username del vendedor)
     // Retorna una lista de DTOs VentaPorVendedorDTO.
-    // Usa JPQL SELECT new DTO(...). CAST se usa para asegurar tipo String. COALESCE con 0.0 asegura tipo Double.
-    @Query("SELECT new informviva.gest.dto.VentaPorVendedorDTO(CAST(u.username AS string), COALESCE(SUM(v.total), 0.0)) " +
+    // Usa JPQL SELECT new DTO(...). CAST se usa para asegurar tipo String. COALESCE con 0L asegura tipo Long.
+    @Query("SELECT new informviva.gest.dto.VentaPorVendedorDTO(CAST(u.username AS string), COALESCE(SUM(v.total), 0L)) " +
             "FROM Venta v JOIN v.vendedor u " +
-            "WHERE v.fecha BETWEEN :startDate AND :endDate " +
+            "WHERE v.fecha BETWEEN :startDate AND :endDate AND (v.estado IS NULL OR v.estado <> 'ANULADA') " +
             "GROUP BY u.username " +
             "ORDER BY u.username ASC")
     List<VentaPorVendedorDTO> obtenerVentasPorVendedorEntreFechas(LocalDateTime startDate, LocalDateTime endDate);
 
+    // --- Consultas sobre el resumen diario (ventas_diarias) ---
+    // Las filas con categoría vacía contienen las medidas de la venta completa; las demás, las líneas por categoría.
+
+    @Query("SELECT COALESCE(SUM(d.total), 0L) FROM VentaDiaria d " +
+            "WHERE d.categoria = '' AND d.fecha BETWEEN :inicio AND :fin AND d.fecha <> :diaExcluido")
+    Long sumarTotalVentasResumen(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin,
+                                 @Param("diaExcluido") LocalDate diaExcluido);
+
+    @Query("SELECT COALESCE(SUM(d.transacciones), 0L) FROM VentaDiaria d " +
+            "WHERE d.categoria = '' AND d.fecha BETWEEN :inicio AND :fin AND d.fecha <> :diaExcluido")
+    Long contarVentasResumen(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin,
+                             @Param("diaExcluido") LocalDate diaExcluido);
+
+    @Query("SELECT COALESCE(SUM(d.articulos), 0L) FROM VentaDiaria d " +
+            "WHERE d.categoria = '' AND d.fecha BETWEEN :inicio AND :fin AND d.fecha <> :diaExcluido")
+    Long sumarArticulosResumen(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin,
+                               @Param("diaExcluido") LocalDate diaExcluido);
+
+    // HAVING descarta los días cuyas ventas fueron todas anuladas (las filas quedan en cero)
+    @Query("SELECT new informviva.gest.dto.VentaPorPeriodoDTO(CAST(d.fecha AS string), CAST(SUM(d.total) AS BigDecimal)) " +
+            "FROM VentaDiaria d " +
+            "WHERE d.categoria = '' AND d.fecha BETWEEN :inicio AND :fin AND d.fecha <> :diaExcluido " +
+            "GROUP BY d.fecha " +
+            "HAVING SUM(d.transacciones) > 0 " +
+            "ORDER BY d.fecha ASC")
+    List<VentaPorPeriodoDTO> obtenerVentasPorDiaResumen(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin,
+                                                        @Param("diaExcluido") LocalDate diaExcluido);
+
+    @Query("SELECT new informviva.gest.dto.VentaPorCategoriaDTO(d.categoria, SUM(d.montoDetalle)) " +
+            "FROM VentaDiaria d " +
+            "WHERE d.categoria <> '' AND d.fecha BETWEEN :inicio AND :fin AND d.fecha <> :diaExcluido " +
+            "GROUP BY d.categoria " +
+            "HAVING SUM(d.articulos) > 0 " +
+            "ORDER BY d.categoria ASC")
+    List<VentaPorCategoriaDTO> obtenerVentasPorCategoriaResumen(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin,
+                                                                @Param("diaExcluido") LocalDate diaExcluido);
+
+    @Query("SELECT new informviva.gest.dto.VentaPorVendedorDTO(CAST(u.username AS string), SUM(d.total)) " +
+            "FROM VentaDiaria d JOIN Usuario u ON u.id = d.vendedorId " +
+            "WHERE d.categoria = '' AND d.fecha BETWEEN :inicio AND :fin AND d.fecha <> :diaExcluido " +
+            "GROUP BY u.username " +
+            "HAVING SUM(d.transacciones) > 0 " +
+            "ORDER BY u.username ASC")
+    List<VentaPorVendedorDTO> obtenerVentasPorVendedorResumen(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin,
+                                                              @Param("diaExcluido") LocalDate diaExcluido);
 }
\ No newline at end of file
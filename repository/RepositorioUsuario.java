@@ -2,9 +2,16 @@ package informviva.gest.repository;
 
 
 import informviva.gest.model.Usuario;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +19,35 @@ public interface RepositorioUsuario extends JpaRepository<Usuario, Long> {
     Optional<Usuario> findByUsername(String username);
 
     Optional<Usuario> findByEmail(String email);
+
+    /**
+     * Busca usuarios cuyo nombre, apellido o nombre de usuario contienen el texto, paginando en la base de datos.
+     * Los roles de la página se cargan después en una sola consulta por lote (ver {@link Usuario#getRoles()}).
+     *
+     * @param busqueda Texto a buscar
+     * @param pageable Configuración de paginación y orden
+     * @return Página de usuarios
+     */
+    @Query(value = "SELECT u FROM Usuario u WHERE " +
+            "LOWER(u.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
+            "LOWER(u.apellido) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
+            "LOWER(u.username) LIKE LOWER(CONCAT('%', :busqueda, '%'))",
+            countQuery = "SELECT COUNT(u) FROM Usuario u WHERE " +
+                    "LOWER(u.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
+                    "LOWER(u.apellido) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR " +
+                    "LOWER(u.username) LIKE LOWER(CONCAT('%', :busqueda, '%'))")
+    Page<Usuario> buscarPorTexto(@Param("busqueda") String busqueda, Pageable pageable);
+
+    /**
+     * Registra el último acceso de varios usuarios en una sola sentencia.
+     * No retrocede la fecha si ya había una posterior.
+     *
+     * @param ids   IDs de los usuarios
+     * @param fecha Fecha del acceso
+     * @return Usuarios actualizados
+     */
+    @Modifying
+    @Query("UPDATE Usuario u SET u.ultimoAcceso = :fecha " +
+            "WHERE u.id IN :ids AND (u.ultimoAcceso IS NULL OR u.ultimoAcceso < :fecha)")
+    int actualizarUltimoAcceso(@Param("ids") Collection<Long> ids, @Param("fecha") LocalDate fecha);
 }
\ No newline at end of file
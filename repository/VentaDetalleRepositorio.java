@@ -8,6 +8,8 @@ package informviva.gest.repository;
 
 import informviva.gest.model.VentaDetalle;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -52,4 +54,27 @@ public interface VentaDetalleRepositorio extends JpaRepository<VentaDetalle, Lon
      * @return Cantidad total vendida
      */
     Long countByProductoId(Long productoId);
+
+    /**
+     * Detalle con el menor ID. Como los IDs son crecientes y los detalles nuevos nunca guardan
+     * categoría NULL, su categoría indica si falta migrar los detalles anteriores a la columna
+     *
+     * @return Primer detalle, o null si no hay ventas
+     */
+    VentaDetalle findFirstByOrderByIdAsc();
+
+    /**
+     * Migración única de los detalles registrados antes de incorporar la columna
+     * venta_detalles.categoria: les asigna la categoría actual del producto, o la categoría
+     * vacía si no tiene. Solo toca filas con categoría NULL, que los detalles nuevos nunca tienen.
+     *
+     * @return Detalles actualizados
+     */
+    @Modifying
+    @Query(value = "UPDATE venta_detalles vd " +
+            "JOIN productos p ON p.id = vd.producto_id " +
+            "LEFT JOIN categorias c ON c.id = p.categoria_id " +
+            "SET vd.categoria = COALESCE(c.nombre, '') " +
+            "WHERE vd.categoria IS NULL", nativeQuery = true)
+    int completarCategoriaFaltante();
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package informviva.gest.repository;
+
+import informviva.gest.model.VentaDiaria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * Repositorio del resumen diario de ventas (tabla ventas_diarias).
+ * Las operaciones de acumulación usan INSERT ... ON DUPLICATE KEY UPDATE (MySQL) para sumar
+ * o restar la contribución de un conjunto de ventas sin leer antes las filas del resumen.
+ * Las filas por categoría usan la categoría registrada en venta_detalles al vender, no la actual
+ * del producto, para que una venta se descuente de la misma fila en que se sumó. Los detalles sin
+ * categoría (categoría vacía) solo cuentan en las filas a nivel de venta.
+ *
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+@Repository
+public interface VentaDiariaRepositorio extends JpaRepository<VentaDiaria, Long> {
+
+    String INSERTAR = "INSERT INTO ventas_diarias " +
+            "(fecha, categoria, vendedor_id, metodo_pago, total, transacciones, articulos, monto_detalle) ";
+
+    String ACUMULAR_AL_DUPLICAR = " ON DUPLICATE KEY UPDATE " +
+            "total = total + VALUES(total), " +
+            "transacciones = transacciones + VALUES(transacciones), " +
+            "articulos = articulos + VALUES(articulos), " +
+            "monto_detalle = monto_detalle + VALUES(monto_detalle)";
+
+    /**
+     * Suma (signo 1) o resta (signo -1) las medidas a nivel de venta en las filas sin categoría
+     *
+     * @param ventaIds IDs de las ventas
+     * @param signo    1 al registrar, -1 al anular
+     * @return Filas insertadas o actualizadas
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERTAR +
+            "SELECT DATE(v.fecha), '', COALESCE(v.vendedor_id, 0), COALESCE(v.metodo_pago, ''), " +
+            ":signo * SUM(v.total), :signo * COUNT(*), :signo * COALESCE(SUM(d.unidades), 0), 0 " +
+            "FROM ventas v " +
+            "LEFT JOIN (SELECT vd.venta_id, SUM(vd.cantidad) AS unidades FROM venta_detalles vd " +
+            "WHERE vd.venta_id IN (:ventaIds) GROUP BY vd.venta_id) d ON d.venta_id = v.id " +
+            "WHERE v.id IN (:ventaIds) " +
+            "GROUP BY DATE(v.fecha), COALESCE(v.vendedor_id, 0), COALESCE(v.metodo_pago, '')" +
+            ACUMULAR_AL_DUPLICAR, nativeQuery = true)
+    int acumularVentas(@Param("ventaIds") Collection<Long> ventaIds, @Param("signo") int signo);
+
+    /**
+     * Suma (signo 1) o resta (signo -1) los artículos y montos de línea en las filas por categoría
+     *
+     * @param ventaIds IDs de las ventas
+     * @param signo    1 al registrar, -1 al anular
+     * @return Filas insertadas o actualizadas
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERTAR +
+            "SELECT DATE(v.fecha), vd.categoria, COALESCE(v.vendedor_id, 0), COALESCE(v.metodo_pago, ''), " +
+            "0, 0, :signo * SUM(vd.cantidad), :signo * SUM(vd.total) " +
+            "FROM venta_detalles vd " +
+            "JOIN ventas v ON v.id = vd.venta_id " +
+            "WHERE v.id IN (:ventaIds) AND vd.categoria <> '' " +
+            "GROUP BY DATE(v.fecha), vd.categoria, COALESCE(v.vendedor_id, 0), COALESCE(v.metodo_pago, '')" +
+            ACUMULAR_AL_DUPLICAR, nativeQuery = true)
+    int acumularDetalles(@Param("ventaIds") Collection<Long> ventaIds, @Param("signo") int signo);
+
+    /**
+     * Recalcula las filas sin categoría a partir de todas las ventas no anuladas.
+     * Debe ejecutarse sobre la tabla vacía.
+     *
+     * @return Filas insertadas
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERTAR +
+            "SELECT DATE(v.fecha), '', COALESCE(v.vendedor_id, 0), COALESCE(v.metodo_pago, ''), " +
+            "SUM(v.total), COUNT(*), COALESCE(SUM(d.unidades), 0), 0 " +
+            "FROM ventas v " +
+            "LEFT JOIN (SELECT vd.venta_id, SUM(vd.cantidad) AS unidades FROM venta_detalles vd " +
+            "GROUP BY vd.venta_id) d ON d.venta_id = v.id " +
+            "WHERE v.estado IS NULL OR v.estado <> 'ANULADA' " +
+            "GROUP BY DATE(v.fecha), COALESCE(v.vendedor_id, 0), COALESCE(v.metodo_pago, '')",
+            nativeQuery = true)
+    int reconstruirVentas();
+
+    /**
+     * Recalcula las filas por categoría a partir de todas las ventas no anuladas.
+     * Debe ejecutarse sobre la tabla vacía.
+     *
+     * @return Filas insertadas
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERTAR +
+            "SELECT DATE(v.fecha), vd.categoria, COALESCE(v.vendedor_id, 0), COALESCE(v.metodo_pago, ''), " +
+            "0, 0, SUM(vd.cantidad), SUM(vd.total) " +
+            "FROM venta_detalles vd " +
+            "JOIN ventas v ON v.id = vd.venta_id " +
+            "WHERE vd.categoria <> '' AND (v.estado IS NULL OR v.estado <> 'ANULADA') " +
+            "GROUP BY DATE(v.fecha), vd.categoria, COALESCE(v.vendedor_id, 0), COALESCE(v.metodo_pago, '')",
+            nativeQuery = true)
+    int reconstruirDetalles();
+
+    /**
+     * Elimina todo el resumen
+     */
+    @Modifying
+    @Query(value = "DELETE FROM ventas_diarias", nativeQuery = true)
+    void eliminarTodo();
+}
@@ -1,17 +1,30 @@
 package informviva.gest.repository;
 
+import informviva.gest.dto.ClienteReporteDTO;
+import informviva.gest.dto.ComparativoConteoDTO;
+import informviva.gest.config.ConfiguracionHibernate;
+import informviva.gest.dto.ComparativoVentasDTO;
+import informviva.gest.dto.VentaExportacionDTO;
+import informviva.gest.dto.VentaResumenFila;
 import informviva.gest.model.Cliente;
 import informviva.gest.model.Usuario;
 import informviva.gest.model.Venta;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para acceder a las entidades Venta en la base de datos.
@@ -23,6 +36,13 @@ import java.util.List;
 @Repository
 public interface VentaRepositorio extends JpaRepository<Venta, Long> {
 
+    String RESUMEN_POR_CLIENTE = "SELECT new informviva.gest.dto.ClienteReporteDTO(" +
+            "c.id, c.rut, c.nombre, c.apellido, c.email, c.fechaRegistro, COUNT(v), " +
+            "SUM(CASE WHEN v.estado IS NULL OR v.estado <> 'ANULADA' THEN v.total ELSE 0L END), MAX(v.fecha)) " +
+            "FROM Venta v JOIN v.cliente c ";
+
+    String AGRUPAR_POR_CLIENTE = " GROUP BY c.id, c.rut, c.nombre, c.apellido, c.email, c.fechaRegistro";
+
     /**
      * Verifica si existen ventas para un cliente específico
      *
@@ -46,6 +66,7 @@ public interface VentaRepositorio extends JpaRepository<Venta, Long> {
      * @param cliente Entidad Cliente
      * @return Lista de ventas del cliente
      */
+    @EntityGraph(Venta.GRAFO_LISTADO)
     List<Venta> findByCliente(Cliente cliente);
 
     /**
@@ -54,6 +75,7 @@ public interface VentaRepositorio extends JpaRepository<Venta, Long> {
      * @param vendedor Entidad Usuario que representa al vendedor
      * @return Lista de ventas del vendedor
      */
+    @EntityGraph(Venta.GRAFO_LISTADO)
     List<Venta> findByVendedor(Usuario vendedor);
 
     /**
@@ -64,9 +86,30 @@ public interface VentaRepositorio extends JpaRepository<Venta, Long> {
      * @param end   Fecha y hora de fin
      * @return Lista de ventas en el rango de fechas
      */
+    @EntityGraph(Venta.GRAFO_LISTADO)
     @Query("SELECT v FROM Venta v WHERE v.fecha BETWEEN :start AND :end")
     List<Venta> findByFechaBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
+    /**
+     * Obtiene todas las ventas con sus líneas en una sola consulta, para convertirlas a DTO
+     * sin una consulta de líneas por venta
+     *
+     * @return Lista de ventas con sus líneas
+     */
+    @Override
+    @EntityGraph(attributePaths = "detalles")
+    List<Venta> findAll();
+
+    /**
+     * Busca una venta con cliente, vendedor y líneas con su producto, en una sola consulta
+     *
+     * @param id ID de la venta
+     * @return Venta completa, si existe
+     */
+    @EntityGraph(Venta.GRAFO_DETALLE)
+    @Query("SELECT v FROM Venta v WHERE v.id = :id")
+    Optional<Venta> buscarDetallePorId(@Param("id") Long id);
+
     /**
      * Cuenta el número de ventas en un rango de fechas excluyendo un estado específico
      *
@@ -85,8 +128,17 @@ public interface VentaRepositorio extends JpaRepository<Venta, Long> {
      * @param end   Fecha y hora de fin
      * @return Total de ingresos
      */
-    @Query("SELECT COALESCE(SUM(v.total), 0) FROM Venta v WHERE v.fecha BETWEEN :start AND :end AND v.estado != 'ANULADA'")
-    Double calcularTotalIngresos(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    @Query("SELECT COALESCE(SUM(v.total), 0L) FROM Venta v WHERE v.fecha BETWEEN :start AND :end " +
+            "AND (v.estado IS NULL OR v.estado <> 'ANULADA')")
+    Long calcularTotalIngresos(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    /**
+     * Calcula el total de ingresos de todas las ventas no anuladas
+     *
+     * @return Total de ingresos
+     */
+    @Query("SELECT COALESCE(SUM(v.total), 0L) FROM Venta v WHERE v.estado IS NULL OR v.estado <> 'ANULADA'")
+    Long calcularTotalIngresosHistorico();
 
     /**
      * Cuenta el número de transacciones en un rango de fechas
@@ -123,17 +175,186 @@ public interface VentaRepositorio extends JpaRepository<Venta, Long> {
     Long countByClienteId(Long clienteId);
 
     @Query("SELECT SUM(v.total) FROM Venta v WHERE v.cliente.id = :clienteId")
-    Double calcularTotalPorCliente(Long clienteId);
-
-    @Query("SELECT SUM(v.cantidad) FROM Venta v WHERE v.producto.id = :productoId")
-    Long contarUnidadesVendidasPorProducto(Long productoId);
-
-    @Query("SELECT SUM(v.total) FROM Venta v WHERE v.producto.id = :productoId")
-    Double calcularIngresosPorProducto(Long productoId);
+    Long calcularTotalPorCliente(Long clienteId);
 
+    @EntityGraph(Venta.GRAFO_LISTADO)
     @Query("SELECT v FROM Venta v WHERE v.producto.id = :productoId ORDER BY v.fecha DESC")
     List<Venta> buscarVentasRecientesPorProducto(Long productoId, Pageable limite);
 
+    @EntityGraph(Venta.GRAFO_LISTADO)
     @Query("SELECT v FROM Venta v WHERE v.cliente.id = :clienteId ORDER BY v.fecha DESC")
     List<Venta> findTopByClienteIdOrderByFechaDesc(@Param("clienteId") Long clienteId, Pageable pageable);
+
+    /**
+     * Marca una venta como anulada solo si aún no lo está.
+     * Permite que anular sea idempotente aun con solicitudes concurrentes.
+     *
+     * @param id ID de la venta
+     * @return 1 si la venta cambió a anulada, 0 si no existe o ya estaba anulada
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Venta v SET v.estado = 'ANULADA' WHERE v.id = :id AND (v.estado IS NULL OR v.estado <> 'ANULADA')")
+    int marcarAnulada(@Param("id") Long id);
+
+    /**
+     * Calcula total y transacciones de dos períodos en una sola pasada (agregación condicional)
+     *
+     * @param inicioActual   Inicio del período actual
+     * @param finActual      Fin del período actual
+     * @param inicioAnterior Inicio del período anterior
+     * @param finAnterior    Fin del período anterior
+     * @return Totales y transacciones de ambos períodos, excluyendo ventas anuladas
+     */
+    @Query("SELECT new informviva.gest.dto.ComparativoVentasDTO(" +
+            "SUM(CASE WHEN v.fecha BETWEEN :inicioActual AND :finActual THEN v.total ELSE 0L END), " +
+            "SUM(CASE WHEN v.fecha BETWEEN :inicioActual AND :finActual THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN v.fecha BETWEEN :inicioAnterior AND :finAnterior THEN v.total ELSE 0L END), " +
+            "SUM(CASE WHEN v.fecha BETWEEN :inicioAnterior AND :finAnterior THEN 1L ELSE 0L END)) " +
+            "FROM Venta v " +
+            "WHERE (v.fecha BETWEEN :inicioActual AND :finActual OR v.fecha BETWEEN :inicioAnterior AND :finAnterior) " +
+            "AND (v.estado IS NULL OR v.estado <> 'ANULADA')")
+    ComparativoVentasDTO compararPeriodos(@Param("inicioActual") LocalDateTime inicioActual,
+                                          @Param("finActual") LocalDateTime finActual,
+                                          @Param("inicioAnterior") LocalDateTime inicioAnterior,
+                                          @Param("finAnterior") LocalDateTime finAnterior);
+
+    /**
+     * Calcula los artículos vendidos de dos períodos en una sola pasada
+     *
+     * @param inicioActual   Inicio del período actual
+     * @param finActual      Fin del período actual
+     * @param inicioAnterior Inicio del período anterior
+     * @param finAnterior    Fin del período anterior
+     * @return Artículos vendidos en ambos períodos, excluyendo ventas anuladas
+     */
+    @Query("SELECT new informviva.gest.dto.ComparativoConteoDTO(" +
+            "SUM(CASE WHEN v.fecha BETWEEN :inicioActual AND :finActual THEN vd.cantidad ELSE 0 END), " +
+            "SUM(CASE WHEN v.fecha BETWEEN :inicioAnterior AND :finAnterior THEN vd.cantidad ELSE 0 END)) " +
+            "FROM VentaDetalle vd JOIN vd.venta v " +
+            "WHERE (v.fecha BETWEEN :inicioActual AND :finActual OR v.fecha BETWEEN :inicioAnterior AND :finAnterior) " +
+            "AND (v.estado IS NULL OR v.estado <> 'ANULADA')")
+    ComparativoConteoDTO compararArticulosVendidos(@Param("inicioActual") LocalDateTime inicioActual,
+                                                   @Param("finActual") LocalDateTime finActual,
+                                                   @Param("inicioAnterior") LocalDateTime inicioAnterior,
+                                                   @Param("finAnterior") LocalDateTime finAnterior);
+
+    /**
+     * Obtiene las ventas más recientes de un rango con cliente y vendedor en la misma consulta
+     *
+     * @param inicio Fecha y hora de inicio
+     * @param fin    Fecha y hora de fin
+     * @param limite Cantidad máxima de ventas
+     * @return Ventas ordenadas de la más reciente a la más antigua
+     */
+    @Query("SELECT v FROM Venta v JOIN FETCH v.cliente JOIN FETCH v.vendedor " +
+            "WHERE v.fecha BETWEEN :inicio AND :fin ORDER BY v.fecha DESC, v.id DESC")
+    List<Venta> buscarRecientesEntreFechas(@Param("inicio") LocalDateTime inicio, @Param("fin") LocalDateTime fin,
+                                           Pageable limite);
+
+    /**
+     * Continúa el listado de {@link #buscarRecientesEntreFechas} después de la venta (fecha, id) indicada.
+     * La condición sobre la clave usa el índice (fecha, id), por lo que el costo no depende
+     * de cuántas páginas se hayan recorrido antes.
+     *
+     * @param inicio Fecha y hora de inicio
+     * @param fin    Fecha y hora de fin
+     * @param fecha  Fecha de la última venta entregada
+     * @param id     ID de la última venta entregada
+     * @param limite Cantidad máxima de ventas
+     * @return Ventas siguientes, de la más reciente a la más antigua
+     */
+    @Query("SELECT v FROM Venta v JOIN FETCH v.cliente JOIN FETCH v.vendedor " +
+            "WHERE v.fecha BETWEEN :inicio AND :fin " +
+            "AND (v.fecha < :fecha OR (v.fecha = :fecha AND v.id < :id)) " +
+            "ORDER BY v.fecha DESC, v.id DESC")
+    List<Venta> buscarRecientesEntreFechasDespuesDe(@Param("inicio") LocalDateTime inicio,
+                                                    @Param("fin") LocalDateTime fin,
+                                                    @Param("fecha") LocalDateTime fecha,
+                                                    @Param("id") Long id,
+                                                    Pageable limite);
+
+    /**
+     * Obtiene las ventas más recientes del rango como filas de tabla, sin cargar las entidades
+     *
+     * @param inicio Fecha y hora de inicio
+     * @param fin    Fecha y hora de fin
+     * @param limite Cantidad máxima de ventas
+     * @return Ventas de la más reciente a la más antigua
+     */
+    @Query("SELECT new informviva.gest.dto.VentaResumenFila(v.id, v.fecha, CONCAT(c.nombre, ' ', c.apellido), " +
+            "CONCAT(u.nombre, ' ', u.apellido), v.total, v.estado) " +
+            "FROM Venta v JOIN v.cliente c JOIN v.vendedor u " +
+            "WHERE v.fecha BETWEEN :inicio AND :fin ORDER BY v.fecha DESC, v.id DESC")
+    List<VentaResumenFila> listarFilasRecientesEntreFechas(@Param("inicio") LocalDateTime inicio,
+                                                           @Param("fin") LocalDateTime fin,
+                                                           Pageable limite);
+
+    /**
+     * Resume las compras de cada cliente con ventas en el rango, en una sola consulta agrupada.
+     * Cuenta todas las ventas; el total excluye las anuladas.
+     *
+     * @param inicio Fecha y hora de inicio (inclusive)
+     * @param fin    Fecha y hora de fin (exclusive)
+     * @return Una fila por cliente con compras en el rango
+     */
+    @Query(RESUMEN_POR_CLIENTE + "WHERE v.fecha >= :inicio AND v.fecha < :fin" + AGRUPAR_POR_CLIENTE)
+    List<ClienteReporteDTO> resumirComprasPorCliente(@Param("inicio") LocalDateTime inicio,
+                                                     @Param("fin") LocalDateTime fin);
+
+    /**
+     * Resume las compras de cada cliente con ventas, sin límite de fechas
+     *
+     * @return Una fila por cliente con compras
+     */
+    @Query(RESUMEN_POR_CLIENTE + AGRUPAR_POR_CLIENTE)
+    List<ClienteReporteDTO> resumirComprasPorCliente();
+
+    /**
+     * Obtiene los clientes con mayor total de compras
+     *
+     * @param limite Cantidad máxima de clientes
+     * @return Clientes ordenados por total de compras descendente
+     */
+    @Query(RESUMEN_POR_CLIENTE + AGRUPAR_POR_CLIENTE +
+            " ORDER BY SUM(CASE WHEN v.estado IS NULL OR v.estado <> 'ANULADA' THEN v.total ELSE 0L END) DESC")
+    List<ClienteReporteDTO> buscarTopClientesPorCompras(Pageable limite);
+
+    /**
+     * Cuenta los clientes distintos con ventas desde una fecha
+     *
+     * @param desde Fecha y hora de inicio (inclusive)
+     * @return Número de clientes con compras
+     */
+    @Query("SELECT COUNT(DISTINCT v.cliente.id) FROM Venta v WHERE v.fecha >= :desde")
+    Long contarClientesConComprasDesde(@Param("desde") LocalDateTime desde);
+
+    /**
+     * Recorre el resumen de compras por cliente del rango, ordenado por total descendente.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     *
+     * @param inicio Fecha y hora de inicio (inclusive)
+     * @param fin    Fecha y hora de fin (exclusive)
+     * @return Flujo con una fila por cliente con compras en el rango
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ConfiguracionHibernate.TAMANO_FETCH_STREAMING))
+    @Query(RESUMEN_POR_CLIENTE + "WHERE v.fecha >= :inicio AND v.fecha < :fin" + AGRUPAR_POR_CLIENTE +
+            " ORDER BY SUM(CASE WHEN v.estado IS NULL OR v.estado <> 'ANULADA' THEN v.total ELSE 0L END) DESC")
+    Stream<ClienteReporteDTO> recorrerResumenComprasPorCliente(@Param("inicio") LocalDateTime inicio,
+                                                               @Param("fin") LocalDateTime fin);
+
+    /**
+     * Recorre las ventas del rango como filas de exportación, sin cargar las entidades.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     *
+     * @param inicio Fecha y hora de inicio (inclusive)
+     * @param fin    Fecha y hora de fin (exclusive)
+     * @return Flujo de ventas ordenadas por fecha
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ConfiguracionHibernate.TAMANO_FETCH_STREAMING))
+    @Query("SELECT new informviva.gest.dto.VentaExportacionDTO(v.id, v.fecha, c.rut, c.nombre, c.apellido, " +
+            "u.username, v.metodoPago, v.estado, v.subtotal, v.impuesto, v.total) " +
+            "FROM Venta v JOIN v.cliente c JOIN v.vendedor u " +
+            "WHERE v.fecha >= :inicio AND v.fecha < :fin ORDER BY v.fecha, v.id")
+    Stream<VentaExportacionDTO> recorrerParaExportacion(@Param("inicio") LocalDateTime inicio,
+                                                        @Param("fin") LocalDateTime fin);
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ package informviva.gest.seguridad;
 
 import informviva.gest.model.Usuario;
 import informviva.gest.repository.RepositorioUsuario;
+import informviva.gest.service.RegistroUltimoAcceso;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -17,7 +18,6 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
 import java.util.Collection;
 import java.util.stream.Collectors;
 
@@ -30,22 +30,23 @@ public class ServicioUsuarioDetalle implements UserDetailsService {
     @Autowired
     private RepositorioUsuario repositorioUsuario;
 
+    @Autowired
+    private RegistroUltimoAcceso registroUltimoAcceso;
+
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         Usuario usuario = repositorioUsuario.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + username));
 
-        // Actualizar la fecha de último acceso
-        actualizarUltimoAcceso(usuario.getId());
+        // La fecha de último acceso se escribe en lote fuera del inicio de sesión
+        registroUltimoAcceso.registrar(usuario.getId(), usuario.getUltimoAcceso());
 
-        return new org.springframework.security.core.userdetails.User(
+        return new UsuarioPrincipal(
+                usuario.getId(),
                 usuario.getUsername(),
                 usuario.getPassword(),
                 usuario.isActivo(),
-                true,              // accountNonExpired
-                true,              // credentialsNonExpired
-                true,              // accountNonLocked
                 getAuthorities(usuario)
         );
     }
@@ -65,15 +66,11 @@ public class ServicioUsuarioDetalle implements UserDetailsService {
     }
 
     /**
-     * Actualiza la fecha de último acceso del usuario
+     * Registra el acceso del usuario; la fecha se guarda en el próximo vaciado de {@link RegistroUltimoAcceso}
      *
      * @param userId ID del usuario
      */
-    @Transactional
     public void actualizarUltimoAcceso(Long userId) {
-        repositorioUsuario.findById(userId).ifPresent(usuario -> {
-            usuario.setUltimoAcceso(LocalDate.now());
-            repositorioUsuario.save(usuario);
-        });
+        registroUltimoAcceso.registrar(userId, null);
     }
 }
@@ -0,0 +1,36 @@
+package informviva.gest.seguridad;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.Serial;
+import java.util.Collection;
+
+/**
+ * Usuario autenticado que conserva además su ID, para que los servicios que lo necesitan
+ * (por ejemplo, la auditoría de vistas) no tengan que buscarlo por nombre de usuario.
+ * La igualdad sigue siendo por nombre de usuario, como en {@link User}.
+ */
+public class UsuarioPrincipal extends User {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    public UsuarioPrincipal(Long id, String username, String password, boolean activo,
+                            Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, activo, true, true, true, authorities);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,149 @@
+package informviva.gest.service;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro asíncrono de las vistas de roles (tabla rol_vistas).
+ * <p>
+ * Las solicitudes solo encolan el registro en una cola sin bloqueos y siguen su curso; una
+ * tarea programada vacía la cola e inserta las filas en lotes JDBC. La cola está acotada:
+ * si se llena porque la base de datos no da abasto, los registros nuevos se descartan y se
+ * cuentan, de modo que la auditoría nunca agrega latencia ni consume memoria sin límite.
+ * Si un lote falla al insertarse se descarta y se cuenta como fallido.
+ */
+@Component
+public class AuditoriaVistasRol {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditoriaVistasRol.class);
+
+    private static final String INSERTAR =
+            "INSERT INTO rol_vistas (rol_nombre, usuario_id, username, fecha_vista) VALUES (?, ?, ?, ?)";
+    private static final int TAMANO_LOTE = 100;
+
+    /**
+     * Vista de un rol pendiente de escribir
+     */
+    public record Registro(String rolNombre, Long usuarioId, String username, LocalDateTime fechaVista) {
+    }
+
+    /**
+     * Contadores del registro de vistas desde el inicio de la aplicación
+     */
+    public record Estadisticas(long encolados, long descartados, long escritos, long fallidos, int pendientes,
+                               int capacidad) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int capacidad;
+
+    // ConcurrentLinkedQueue no tiene límite propio; el tamaño se controla con un contador atómico
+    private final Queue<Registro> cola = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger tamano = new AtomicInteger();
+
+    private final LongAdder encolados = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+    private final LongAdder escritos = new LongAdder();
+    private final LongAdder fallidos = new LongAdder();
+    private long descartadosInformados;
+
+    public AuditoriaVistasRol(JdbcTemplate jdbcTemplate,
+                              @Value("${informviva.auditoria.vistas.capacidad:10000}") int capacidad) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.capacidad = capacidad;
+    }
+
+    /**
+     * Encola una vista sin esperar a la base de datos
+     *
+     * @param registro Vista a registrar
+     * @return true si se encoló, false si se descartó porque la cola está llena
+     */
+    public boolean registrar(Registro registro) {
+        if (tamano.incrementAndGet() > capacidad) {
+            tamano.decrementAndGet();
+            descartados.increment();
+            return false;
+        }
+        cola.offer(registro);
+        encolados.increment();
+        return true;
+    }
+
+    /**
+     * Escribe en lotes los registros encolados hasta el momento
+     */
+    @Scheduled(fixedDelayString = "${informviva.auditoria.vistas.intervalo-ms:1000}")
+    public void vaciar() {
+        informarDescartados();
+
+        List<Registro> lote = new ArrayList<>(TAMANO_LOTE);
+        Registro registro;
+        while ((registro = cola.poll()) != null) {
+            tamano.decrementAndGet();
+            lote.add(registro);
+            if (lote.size() == TAMANO_LOTE) {
+                escribir(lote);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            escribir(lote);
+        }
+    }
+
+    private void escribir(List<Registro> lote) {
+        try {
+            jdbcTemplate.batchUpdate(INSERTAR, lote, lote.size(), (ps, r) -> {
+                ps.setString(1, r.rolNombre());
+                ps.setObject(2, r.usuarioId());
+                ps.setString(3, r.username());
+                ps.setTimestamp(4, Timestamp.valueOf(r.fechaVista()));
+            });
+            escritos.add(lote.size());
+        } catch (RuntimeException e) {
+            fallidos.add(lote.size());
+            logger.error("No se pudieron registrar {} vistas de roles: {}", lote.size(), e.getMessage());
+        }
+    }
+
+    // Solo la tarea programada llama a este método, por lo que el campo no necesita sincronización
+    private void informarDescartados() {
+        long total = descartados.sum();
+        if (total > descartadosInformados) {
+            logger.warn("Cola de auditoría de vistas llena: {} registros descartados (total {})",
+                    total - descartadosInformados, total);
+            descartadosInformados = total;
+        }
+    }
+
+    public Estadisticas estadisticas() {
+        return new Estadisticas(encolados.sum(), descartados.sum(), escritos.sum(), fallidos.sum(),
+                tamano.get(), capacidad);
+    }
+
+    @PreDestroy
+    public void alDetener() {
+        vaciar();
+    }
+}
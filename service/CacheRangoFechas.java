@@ -0,0 +1,178 @@
+package informviva.gest.service;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caché de resultados calculados sobre un rango de fechas.
+ * Las entradas no expiran por tiempo: se invalidan cuando se modifica una venta cuya fecha
+ * cae dentro del rango, de modo que los rangos de días ya cerrados permanecen mientras
+ * nadie los modifique. El tamaño está acotado y se descarta la entrada usada hace más tiempo (LRU).
+ * <p>
+ * Las solicitudes concurrentes de un mismo rango ausente esperan un único cálculo.
+ * Un contador de generación evita guardar un valor calculado antes de una invalidación
+ * concurrente: si hubo invalidaciones mientras se calculaba, el resultado se devuelve
+ * pero no se almacena.
+ *
+ * @param <V> Tipo del valor almacenado
+ */
+public class CacheRangoFechas<V> {
+
+    /**
+     * Rango cerrado de fechas; un extremo nulo significa sin límite
+     */
+    public record Rango(LocalDateTime inicio, LocalDateTime fin) {
+
+        public static final Rango COMPLETO = new Rango(null, null);
+
+        boolean intersecta(LocalDateTime desde, LocalDateTime hasta) {
+            return (inicio == null || !hasta.isBefore(inicio)) && (fin == null || !desde.isAfter(fin));
+        }
+    }
+
+    /**
+     * Contadores de uso de la caché
+     */
+    public record Estadisticas(long aciertos, long fallos, int tamano, int capacidad) {
+
+        public double tasaAciertos() {
+            long total = aciertos + fallos;
+            return total == 0 ? 0.0 : (double) aciertos / total;
+        }
+    }
+
+    private final int capacidad;
+    private final Function<Supplier<V>, V> ejecutorCalculo;
+    private final Map<Rango, V> entradas;
+    private final Map<Rango, CompletableFuture<V>> enCalculo = new ConcurrentHashMap<>();
+    private final AtomicLong generacion = new AtomicLong();
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    /**
+     * @param capacidad Número máximo de rangos almacenados
+     */
+    public CacheRangoFechas(int capacidad) {
+        this(capacidad, Supplier::get);
+    }
+
+    /**
+     * @param capacidad       Número máximo de rangos almacenados
+     * @param ejecutorCalculo Ejecuta los calculadores de los valores que se van a almacenar; permite,
+     *                        por ejemplo, fijar el origen de datos del que se leen
+     */
+    public CacheRangoFechas(int capacidad, Function<Supplier<V>, V> ejecutorCalculo) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser mayor que cero");
+        }
+        this.capacidad = capacidad;
+        this.ejecutorCalculo = ejecutorCalculo;
+        // Orden de acceso: la primera entrada es la usada hace más tiempo
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Rango, V> eldest) {
+                return size() > CacheRangoFechas.this.capacidad;
+            }
+        };
+    }
+
+    /**
+     * Obtiene el valor del rango, calculándolo si no está en caché
+     *
+     * @param rango      Rango de fechas
+     * @param calculador Función que calcula el valor
+     * @return Valor del rango
+     */
+    public V obtener(Rango rango, Supplier<V> calculador) {
+        V valor;
+        synchronized (entradas) {
+            valor = entradas.get(rango);
+        }
+        if (valor != null) {
+            aciertos.increment();
+            return valor;
+        }
+
+        CompletableFuture<V> calculo = new CompletableFuture<>();
+        CompletableFuture<V> existente = enCalculo.putIfAbsent(rango, calculo);
+        if (existente != null) {
+            // Otro hilo ya está calculando este rango
+            aciertos.increment();
+            return esperar(existente);
+        }
+
+        fallos.increment();
+        long generacionInicial = generacion.get();
+        try {
+            valor = ejecutorCalculo.apply(calculador);
+            if (valor != null && generacion.get() == generacionInicial) {
+                synchronized (entradas) {
+                    entradas.put(rango, valor);
+                }
+            }
+            calculo.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            calculo.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCalculo.remove(rango, calculo);
+        }
+    }
+
+    private V esperar(CompletableFuture<V> calculo) {
+        try {
+            return calculo.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Invalida los rangos que incluyen alguna fecha entre desde y hasta
+     *
+     * @param desde Fecha mínima modificada
+     * @param hasta Fecha máxima modificada
+     */
+    public void invalidar(LocalDateTime desde, LocalDateTime hasta) {
+        generacion.incrementAndGet();
+        synchronized (entradas) {
+            entradas.keySet().removeIf(rango -> rango.intersecta(desde, hasta));
+        }
+    }
+
+    /**
+     * Elimina todas las entradas
+     */
+    public void invalidarTodo() {
+        generacion.incrementAndGet();
+        synchronized (entradas) {
+            entradas.clear();
+        }
+    }
+
+    public Estadisticas estadisticas() {
+        int tamano;
+        synchronized (entradas) {
+            tamano = entradas.size();
+        }
+        return new Estadisticas(aciertos.sum(), fallos.sum(), tamano, capacidad);
+    }
+}
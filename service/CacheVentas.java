@@ -0,0 +1,92 @@
+package informviva.gest.service;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import informviva.gest.config.OrigenDatosEnrutado;
+import informviva.gest.dto.VentaResumenDTO;
+import informviva.gest.evento.ClienteModificadoEvento;
+import informviva.gest.evento.VentaModificadaEvento;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalTime;
+import java.util.function.Supplier;
+
+/**
+ * Cachés de resultados calculados sobre ventas.
+ * Se invalidan después del commit de la transacción que modificó las ventas,
+ * o de inmediato si el evento se publica fuera de una transacción.
+ * <p>
+ * Las entradas no vencen, por lo que con réplica de lectura configurada los valores se calculan
+ * siempre contra la primaria, en una transacción de solo lectura propia: una réplica atrasada
+ * podría devolver datos anteriores a la invalidación y dejarlos en caché indefinidamente.
+ */
+@Component
+public class CacheVentas {
+
+    private static final int CAPACIDAD_TOTALES = 256;
+    private static final int CAPACIDAD_RESUMENES = 64;
+
+    private final TransactionTemplate plantillaPrimaria;
+    private final CacheRangoFechas<Long> totalVentas;
+    private final CacheRangoFechas<VentaResumenDTO> resumenVentas;
+
+    public CacheVentas(PlatformTransactionManager transactionManager,
+                       ObjectProvider<OrigenDatosEnrutado> origenDatosEnrutado) {
+        if (origenDatosEnrutado.getIfAvailable() != null) {
+            // Transacción nueva: la del llamador puede tener ya una conexión de la réplica
+            plantillaPrimaria = new TransactionTemplate(transactionManager);
+            plantillaPrimaria.setReadOnly(true);
+            plantillaPrimaria.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            totalVentas = new CacheRangoFechas<>(CAPACIDAD_TOTALES, this::calcularEnPrimaria);
+            resumenVentas = new CacheRangoFechas<>(CAPACIDAD_RESUMENES, this::calcularEnPrimaria);
+        } else {
+            plantillaPrimaria = null;
+            totalVentas = new CacheRangoFechas<>(CAPACIDAD_TOTALES);
+            resumenVentas = new CacheRangoFechas<>(CAPACIDAD_RESUMENES);
+        }
+    }
+
+    private <V> V calcularEnPrimaria(Supplier<V> calculador) {
+        return OrigenDatosEnrutado.leerDePrimaria(() -> plantillaPrimaria.execute(estado -> calculador.get()));
+    }
+
+    public CacheRangoFechas<Long> totalVentas() {
+        return totalVentas;
+    }
+
+    public CacheRangoFechas<VentaResumenDTO> resumenVentas() {
+        return resumenVentas;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarVentas(VentaModificadaEvento evento) {
+        if (evento.desde() == null || evento.hasta() == null) {
+            totalVentas.invalidarTodo();
+            resumenVentas.invalidarTodo();
+        } else {
+            totalVentas.invalidar(evento.desde(), evento.hasta());
+            resumenVentas.invalidar(evento.desde(), evento.hasta());
+        }
+    }
+
+    /**
+     * El resumen de ventas incluye el conteo de clientes nuevos del período
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarClientes(ClienteModificadoEvento evento) {
+        if (evento.fechaRegistro() == null) {
+            resumenVentas.invalidarTodo();
+        } else {
+            resumenVentas.invalidar(evento.fechaRegistro().atStartOfDay(), evento.fechaRegistro().atTime(LocalTime.MAX));
+        }
+    }
+}
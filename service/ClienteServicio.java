@@ -1,6 +1,8 @@
 package informviva.gest.service;
 
+import informviva.gest.dto.ClienteFila;
 import informviva.gest.dto.ClienteReporteDTO;
+import informviva.gest.dto.PaginaCursorDTO;
 import informviva.gest.model.Cliente;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -19,6 +21,8 @@ public interface ClienteServicio {
     // Métodos básicos CRUD
     List<Cliente> obtenerTodos();
 
+    long contarTodos();
+
     Cliente buscarPorId(Long id);
 
     Cliente guardar(Cliente cliente);
@@ -43,6 +47,8 @@ public interface ClienteServicio {
 
     Long contarClientesActivos();
 
+    List<Cliente> obtenerClientesSinComprasDesde(LocalDate fechaLimite);
+
     List<Cliente> buscarPorNombre(String nombre);
 
     List<Cliente> buscarPorEmail(String email);
@@ -51,8 +57,36 @@ public interface ClienteServicio {
 
     boolean existeClienteConRut(String rut);
 
+    /**
+     * Indica si el RUT ya pertenece a un cliente distinto del indicado.
+     * Se usa al editar: al guardar, el RUT se normaliza y la columna rut_normalizado tiene índice único.
+     *
+     * @param rut RUT en cualquier formato
+     * @param id  ID del cliente que se edita; null para un cliente nuevo
+     * @return true si otro cliente tiene el mismo RUT normalizado
+     */
+    boolean existeOtroClienteConRut(String rut, Long id);
+
     Page<Cliente> obtenerTodosPaginados(Pageable pageable);
 
+    /**
+     * Obtiene una página de clientes ordenados por nombre, recorriendo el listado por cursor
+     *
+     * @param cursor Cursor de la página anterior; null para la primera página
+     * @param tamano Cantidad de clientes por página
+     * @return Página de clientes con el cursor de la siguiente
+     */
+    PaginaCursorDTO<Cliente> listarPorCursor(String cursor, int tamano);
+
+    /**
+     * Igual que {@link #listarPorCursor} pero devuelve solo las columnas del listado, sin cargar las entidades
+     *
+     * @param cursor Cursor de la página anterior; null para la primera página
+     * @param tamano Cantidad de clientes por página
+     * @return Página de filas de clientes con el cursor de la siguiente
+     */
+    PaginaCursorDTO<ClienteFila> listarFilasPorCursor(String cursor, int tamano);
+
     Page<Cliente> buscarPorNombreOEmail(String busqueda, Pageable pageable);
 
 }
\ No newline at end of file
@@ -0,0 +1,225 @@
+package informviva.gest.service;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import informviva.gest.dto.ComparativoConteoDTO;
+import informviva.gest.dto.ComparativoVentasDTO;
+import informviva.gest.dto.DashboardDatosDTO;
+import informviva.gest.dto.MetricaDTO;
+import informviva.gest.dto.ProductoStockFila;
+import informviva.gest.dto.VentaPorCategoriaDTO;
+import informviva.gest.dto.VentaPorPeriodoDTO;
+import informviva.gest.dto.VentaResumenFila;
+import informviva.gest.repository.ClienteRepositorio;
+import informviva.gest.repository.VentaRepositorio;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Servicio que arma los datos del dashboard.
+ * Las métricas del período actual y del anterior se obtienen con consultas de agregación
+ * condicional (una por tabla) en lugar de una consulta por métrica y período.
+ * <p>
+ * Las consultas son independientes entre sí y se lanzan en paralelo con
+ * {@link EjecutorConsultasParalelas}, cada una en su propia transacción; si alguna falla o
+ * excede el tiempo máximo, esa sección se muestra vacía, el resto del dashboard se entrega y la
+ * respuesta se marca como parcial.
+ * <p>
+ * Las tablas se llenan con proyecciones que leen solo las columnas mostradas, sin cargar
+ * entidades en el contexto de persistencia.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DashboardServicio {
+
+    private static final int LIMITE_VENTAS_RECIENTES = 10;
+    private static final int UMBRAL_BAJO_STOCK = 5;
+
+    private final VentaRepositorio ventaRepositorio;
+    private final ClienteRepositorio clienteRepositorio;
+    private final VentaServicio ventaServicio;
+    private final ProductoServicio productoServicio;
+    private final ReporteServicio reporteServicio;
+    private final EjecutorConsultasParalelas ejecutorConsultas;
+
+    public DashboardServicio(VentaRepositorio ventaRepositorio,
+                             ClienteRepositorio clienteRepositorio,
+                             VentaServicio ventaServicio,
+                             ProductoServicio productoServicio,
+                             ReporteServicio reporteServicio,
+                             EjecutorConsultasParalelas ejecutorConsultas) {
+        this.ventaRepositorio = ventaRepositorio;
+        this.clienteRepositorio = clienteRepositorio;
+        this.ventaServicio = ventaServicio;
+        this.productoServicio = productoServicio;
+        this.reporteServicio = reporteServicio;
+        this.ejecutorConsultas = ejecutorConsultas;
+    }
+
+    /**
+     * Rango de fechas del período consultado y del período anterior con el que se compara
+     */
+    public record Periodos(LocalDate inicio, LocalDate fin, LocalDate inicioAnterior, LocalDate finAnterior) {
+
+        public LocalDateTime inicioDT() {
+            return inicio.atStartOfDay();
+        }
+
+        public LocalDateTime finDT() {
+            return fin.atTime(LocalTime.MAX);
+        }
+
+        public LocalDateTime inicioAnteriorDT() {
+            return inicioAnterior.atStartOfDay();
+        }
+
+        public LocalDateTime finAnteriorDT() {
+            return finAnterior.atTime(LocalTime.MAX);
+        }
+    }
+
+    /**
+     * Calcula los rangos del período solicitado (hoy, semana, mes, trimestre o año) hasta hoy
+     *
+     * @param periodo Nombre del período; cualquier otro valor se trata como semana
+     * @return Rangos actual y anterior
+     */
+    public Periodos calcularPeriodos(String periodo) {
+        LocalDate hoy = LocalDate.now();
+        LocalDate inicio;
+        LocalDate inicioAnterior;
+        LocalDate finAnterior;
+
+        switch (periodo) {
+            case "hoy":
+                inicio = hoy;
+                inicioAnterior = hoy.minusDays(1);
+                finAnterior = inicioAnterior;
+                break;
+            case "mes":
+                inicio = hoy.withDayOfMonth(1);
+                inicioAnterior = inicio.minusMonths(1);
+                finAnterior = inicioAnterior.plusMonths(1).minusDays(1);
+                break;
+            case "trimestre":
+                int quarterMonth = (hoy.getMonthValue() - 1) / 3 * 3 + 1;
+                inicio = hoy.withMonth(quarterMonth).withDayOfMonth(1);
+                inicioAnterior = inicio.minusMonths(3);
+                finAnterior = inicioAnterior.plusMonths(3).minusDays(1);
+                break;
+            case "año":
+                inicio = hoy.withDayOfYear(1);
+                inicioAnterior = inicio.minusYears(1);
+                finAnterior = inicioAnterior.plusYears(1).minusDays(1);
+                break;
+            case "semana":
+            default:
+                inicio = hoy.minusDays(hoy.getDayOfWeek().getValue() - 1);
+                inicioAnterior = inicio.minusWeeks(1);
+                finAnterior = inicioAnterior.plusDays(6);
+                break;
+        }
+
+        return new Periodos(inicio, hoy, inicioAnterior, finAnterior);
+    }
+
+    /**
+     * Obtiene todos los datos del dashboard para un período
+     *
+     * @param periodo Nombre del período (hoy, semana, mes, trimestre, año)
+     * @return Métricas, gráficos y tablas del dashboard
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DashboardDatosDTO obtenerDatos(String periodo) {
+        Periodos periodos = calcularPeriodos(periodo);
+        EjecutorConsultasParalelas.Lote lote = ejecutorConsultas.nuevoLote();
+
+        // Lanzar todas las consultas antes de esperar cualquiera de ellas
+        CompletableFuture<DashboardDatosDTO.Metricas> metricas = calcularMetricasEnParalelo(periodos, lote);
+        CompletableFuture<List<VentaPorPeriodoDTO>> ventasPorPeriodo = lote.ejecutar("ventas por período",
+                () -> reporteServicio.obtenerVentasPorPeriodoEntreFechas(periodos.inicio(), periodos.fin()), List.of());
+        CompletableFuture<List<VentaPorCategoriaDTO>> ventasPorCategoria = lote.ejecutar("ventas por categoría",
+                () -> reporteServicio.obtenerVentasPorCategoriaEntreFechas(periodos.inicio(), periodos.fin()), List.of());
+        CompletableFuture<List<VentaResumenFila>> ventasRecientes = lote.ejecutar(
+                "ventas recientes", () -> obtenerVentasRecientes(periodos), List.of());
+        CompletableFuture<List<ProductoStockFila>> productosBajoStock = lote.ejecutar(
+                "productos con bajo stock", this::obtenerProductosConBajoStock, List.of());
+
+        DashboardDatosDTO.Metricas metricasCalculadas = metricas.join();
+        DashboardDatosDTO.Graficos graficos = new DashboardDatosDTO.Graficos(ventasPorPeriodo.join(), ventasPorCategoria.join());
+        DashboardDatosDTO.Tablas tablas = new DashboardDatosDTO.Tablas(ventasRecientes.join(), productosBajoStock.join());
+        return new DashboardDatosDTO(periodo, metricasCalculadas, graficos, tablas,
+                lote.parcial(), lote.consultasNoDisponibles());
+    }
+
+    /**
+     * Calcula las cinco métricas del período y su variación respecto al período anterior
+     *
+     * @param periodos Rangos actual y anterior
+     * @param lote     Lote de la solicitud, que registra las consultas que usaron su valor de respaldo
+     * @return Métricas con porcentaje de cambio
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DashboardDatosDTO.Metricas calcularMetricas(Periodos periodos, EjecutorConsultasParalelas.Lote lote) {
+        return calcularMetricasEnParalelo(periodos, lote).join();
+    }
+
+    /**
+     * Lanza en paralelo las tres consultas de métricas (ventas, artículos y clientes)
+     */
+    private CompletableFuture<DashboardDatosDTO.Metricas> calcularMetricasEnParalelo(Periodos periodos,
+                                                                                     EjecutorConsultasParalelas.Lote lote) {
+        CompletableFuture<ComparativoVentasDTO> ventas = lote.ejecutar("comparativo de ventas",
+                () -> ventaRepositorio.compararPeriodos(
+                        periodos.inicioDT(), periodos.finDT(), periodos.inicioAnteriorDT(), periodos.finAnteriorDT()),
+                new ComparativoVentasDTO(null, null, null, null));
+        CompletableFuture<ComparativoConteoDTO> articulos = lote.ejecutar("comparativo de artículos",
+                () -> ventaRepositorio.compararArticulosVendidos(
+                        periodos.inicioDT(), periodos.finDT(), periodos.inicioAnteriorDT(), periodos.finAnteriorDT()),
+                new ComparativoConteoDTO(null, null));
+        CompletableFuture<ComparativoConteoDTO> clientes = lote.ejecutar("comparativo de clientes",
+                () -> clienteRepositorio.compararClientesRegistrados(
+                        periodos.inicio(), periodos.fin(), periodos.inicioAnterior(), periodos.finAnterior()),
+                new ComparativoConteoDTO(null, null));
+
+        return CompletableFuture.allOf(ventas, articulos, clientes)
+                .thenApply(sinValor -> armarMetricas(ventas.join(), articulos.join(), clientes.join()));
+    }
+
+    private DashboardDatosDTO.Metricas armarMetricas(ComparativoVentasDTO ventas, ComparativoConteoDTO articulos,
+                                                     ComparativoConteoDTO clientes) {
+        return new DashboardDatosDTO.Metricas(
+                new MetricaDTO(ventas.totalActual(), porcentajeCambio(ventas.totalActual(), ventas.totalAnterior())),
+                new MetricaDTO(ventas.transaccionesActual(),
+                        porcentajeCambio(ventas.transaccionesActual(), ventas.transaccionesAnterior())),
+                new MetricaDTO(ventas.ticketActual(),
+                        ventaServicio.calcularPorcentajeCambio(ventas.ticketActual(), ventas.ticketAnterior())),
+                new MetricaDTO(clientes.actual(), porcentajeCambio(clientes.actual(), clientes.anterior())),
+                new MetricaDTO(articulos.actual(), porcentajeCambio(articulos.actual(), articulos.anterior())));
+    }
+
+    public List<VentaResumenFila> obtenerVentasRecientes(Periodos periodos) {
+        return ventaRepositorio.listarFilasRecientesEntreFechas(
+                periodos.inicioDT(), periodos.finDT(), PageRequest.of(0, LIMITE_VENTAS_RECIENTES));
+    }
+
+    public List<ProductoStockFila> obtenerProductosConBajoStock() {
+        return productoServicio.listarFilasConBajoStock(UMBRAL_BAJO_STOCK);
+    }
+
+    private Double porcentajeCambio(Long actual, Long anterior) {
+        return ventaServicio.calcularPorcentajeCambio(actual.doubleValue(), anterior.doubleValue());
+    }
+}
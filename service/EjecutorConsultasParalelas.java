@@ -0,0 +1,164 @@
+package informviva.gest.service;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import informviva.gest.config.ContadorSentenciasSql;
+import informviva.gest.config.OrigenDatosEnrutado;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Lanza consultas independientes en paralelo, cada una en su propia transacción de solo
+ * lectura sobre un hilo virtual.
+ * <p>
+ * Las consultas de una misma solicitud se agrupan en un {@link Lote} (ver {@link #nuevoLote()}),
+ * que limita cuántas corren a la vez para esa solicitud; entre solicitudes el límite es el pool de
+ * conexiones, de modo que varios dashboards simultáneos no compiten por un cupo global fijo.
+ * <p>
+ * Cada consulta tiene un tiempo máximo: si no termina a tiempo o falla, el futuro se completa
+ * con el valor de respaldo indicado, de modo que una consulta lenta no bloquea la página
+ * completa, y el lote la registra como no disponible para que el llamador informe que los datos
+ * son parciales. Las consultas heredan la clave de consistencia de la solicitud, de modo que tras
+ * una escritura reciente también leen de la primaria (ver {@link OrigenDatosEnrutado}).
+ */
+@Component
+public class EjecutorConsultasParalelas {
+
+    private static final Logger logger = LoggerFactory.getLogger(EjecutorConsultasParalelas.class);
+
+    private final ExecutorService ejecutor;
+    private final TransactionTemplate plantillaLectura;
+    private final int maximoPorSolicitud;
+    private final long timeoutMs;
+
+    public EjecutorConsultasParalelas(@Qualifier("ejecutorConsultas") ExecutorService ejecutor,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${informviva.consultas.paralelas.timeout-ms:3000}") long timeoutMs,
+                                      @Value("${informviva.consultas.paralelas.maximo-por-solicitud:4}") int maximoPorSolicitud) {
+        this.ejecutor = ejecutor;
+        this.timeoutMs = timeoutMs;
+        this.maximoPorSolicitud = maximoPorSolicitud;
+
+        this.plantillaLectura = new TransactionTemplate(transactionManager);
+        this.plantillaLectura.setReadOnly(true);
+        this.plantillaLectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // La transacción se cancela poco después del tiempo máximo para liberar la conexión
+        this.plantillaLectura.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMs) + 1));
+    }
+
+    /**
+     * Crea un lote para las consultas de una solicitud
+     *
+     * @return Lote con sus propios permisos y registro de consultas no disponibles
+     */
+    public Lote nuevoLote() {
+        return new Lote();
+    }
+
+    /**
+     * Consultas paralelas de una solicitud. No se comparte entre solicitudes.
+     */
+    public final class Lote {
+
+        private final Semaphore permisos = new Semaphore(maximoPorSolicitud);
+        private final Set<String> noDisponibles = ConcurrentHashMap.newKeySet();
+
+        private Lote() {
+        }
+
+        /**
+         * Ejecuta una consulta en paralelo
+         *
+         * @param nombre   Nombre de la consulta, para el log y para {@link #consultasNoDisponibles()}
+         * @param consulta Consulta a ejecutar
+         * @param respaldo Valor usado si la consulta falla o excede el tiempo máximo
+         * @return Futuro que siempre se completa, con el resultado o con el respaldo
+         */
+        public <T> CompletableFuture<T> ejecutar(String nombre, Supplier<T> consulta, T respaldo) {
+            // Las sentencias de la consulta se suman al conteo de la solicitud que la lanzó
+            ContadorSentenciasSql.Conteo conteo = ContadorSentenciasSql.conteoActual();
+            String claveConsistencia = OrigenDatosEnrutado.claveConsistencia();
+            CompletableFuture<T> resultado = new CompletableFuture<>();
+            ejecutor.execute(() -> ejecutarConPermiso(resultado, consulta, conteo, claveConsistencia));
+            return resultado
+                    .completeOnTimeout(null, timeoutMs, TimeUnit.MILLISECONDS)
+                    .handle((valor, error) -> {
+                        if (error != null) {
+                            logger.error("Error en la consulta paralela '{}': {}", nombre, error.getMessage());
+                            noDisponibles.add(nombre);
+                            return respaldo;
+                        }
+                        if (valor == null) {
+                            logger.warn("La consulta paralela '{}' no terminó en {} ms; se usa el valor de respaldo",
+                                    nombre, timeoutMs);
+                            noDisponibles.add(nombre);
+                            return respaldo;
+                        }
+                        return valor;
+                    });
+        }
+
+        /**
+         * Indica si alguna consulta del lote terminó con su valor de respaldo.
+         * Solo es definitivo después de esperar todos los futuros del lote.
+         */
+        public boolean parcial() {
+            return !noDisponibles.isEmpty();
+        }
+
+        /**
+         * Nombres de las consultas que terminaron con su valor de respaldo, en orden alfabético
+         */
+        public List<String> consultasNoDisponibles() {
+            return noDisponibles.stream().sorted().toList();
+        }
+
+        private <T> void ejecutarConPermiso(CompletableFuture<T> resultado, Supplier<T> consulta,
+                                            ContadorSentenciasSql.Conteo conteo, String claveConsistencia) {
+            try {
+                permisos.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                resultado.completeExceptionally(e);
+                return;
+            }
+            try {
+                // Si ya venció el tiempo máximo no se ocupa una conexión para un resultado que nadie espera
+                if (resultado.isDone()) {
+                    return;
+                }
+                ContadorSentenciasSql.continuar(conteo);
+                OrigenDatosEnrutado.continuar(claveConsistencia);
+                try {
+                    resultado.complete(plantillaLectura.execute(estado -> consulta.get()));
+                } finally {
+                    OrigenDatosEnrutado.detener();
+                    ContadorSentenciasSql.detener();
+                }
+            } catch (RuntimeException e) {
+                resultado.completeExceptionally(e);
+            } finally {
+                permisos.release();
+            }
+        }
+    }
+}
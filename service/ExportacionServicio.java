@@ -0,0 +1,128 @@
+package informviva.gest.service;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import informviva.gest.dto.ClienteReporteDTO;
+import informviva.gest.dto.ProductoExportacionDTO;
+import informviva.gest.dto.VentaExportacionDTO;
+import informviva.gest.repository.ProductoRepositorio;
+import informviva.gest.repository.VentaRepositorio;
+import informviva.gest.util.EscritorCsv;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Servicio de exportación a CSV.
+ * Cada exportación recorre un Stream del repositorio y escribe las filas directamente en el
+ * flujo de salida, de modo que la memoria usada no depende del número de filas y el cliente
+ * recibe el encabezado de inmediato.
+ * <p>
+ * Los métodos abren su propia transacción de solo lectura, por lo que pueden invocarse desde
+ * un StreamingResponseBody, que se ejecuta fuera del hilo de la petición.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExportacionServicio {
+
+    private static final String[] ENCABEZADOS_CLIENTES = {"RUT", "Nombre Completo", "Email", "Fecha Registro",
+            "Compras Realizadas", "Total Compras", "Promedio por Compra", "Última Compra"};
+
+    private static final String[] ENCABEZADOS_VENTAS = {"ID", "Fecha", "RUT Cliente", "Cliente", "Vendedor",
+            "Método de Pago", "Estado", "Subtotal", "Impuesto", "Total"};
+
+    private static final String[] ENCABEZADOS_PRODUCTOS = {"ID", "Código", "Nombre", "Categoría", "Marca",
+            "Precio", "Stock", "Activo"};
+
+    private final VentaRepositorio ventaRepositorio;
+    private final ProductoRepositorio productoRepositorio;
+
+    public ExportacionServicio(VentaRepositorio ventaRepositorio, ProductoRepositorio productoRepositorio) {
+        this.ventaRepositorio = ventaRepositorio;
+        this.productoRepositorio = productoRepositorio;
+    }
+
+    /**
+     * Exporta el resumen de compras por cliente del período
+     *
+     * @param fechaInicio Fecha de inicio del período
+     * @param fechaFin    Fecha de fin del período (inclusive)
+     * @param salida      Flujo donde se escribe el archivo
+     * @param comprimir   true para comprimir con GZIP
+     * @return Número de filas de datos escritas
+     * @throws IOException Si falla la escritura
+     */
+    public long exportarClientes(LocalDate fechaInicio, LocalDate fechaFin, OutputStream salida, boolean comprimir)
+            throws IOException {
+        try (Stream<ClienteReporteDTO> filas = ventaRepositorio.recorrerResumenComprasPorCliente(
+                fechaInicio.atStartOfDay(), fechaFin.plusDays(1).atStartOfDay())) {
+            return escribir(filas, ENCABEZADOS_CLIENTES, cliente -> new Object[]{
+                    cliente.getRut(), cliente.getNombreCompleto(), cliente.getEmail(), cliente.getFechaRegistro(),
+                    cliente.getComprasRealizadas(), cliente.getTotalCompras(), cliente.getPromedioPorCompra(),
+                    cliente.getUltimaCompra()}, salida, comprimir);
+        }
+    }
+
+    /**
+     * Exporta las ventas del período
+     *
+     * @param fechaInicio Fecha de inicio del período
+     * @param fechaFin    Fecha de fin del período (inclusive)
+     * @param salida      Flujo donde se escribe el archivo
+     * @param comprimir   true para comprimir con GZIP
+     * @return Número de filas de datos escritas
+     * @throws IOException Si falla la escritura
+     */
+    public long exportarVentas(LocalDate fechaInicio, LocalDate fechaFin, OutputStream salida, boolean comprimir)
+            throws IOException {
+        try (Stream<VentaExportacionDTO> filas = ventaRepositorio.recorrerParaExportacion(
+                fechaInicio.atStartOfDay(), fechaFin.plusDays(1).atStartOfDay())) {
+            return escribir(filas, ENCABEZADOS_VENTAS, venta -> new Object[]{
+                    venta.id(), venta.fecha(), venta.clienteRut(),
+                    venta.clienteNombre() + " " + venta.clienteApellido(), venta.vendedor(),
+                    venta.metodoPago(), venta.estado(), venta.subtotal(), venta.impuesto(), venta.total()},
+                    salida, comprimir);
+        }
+    }
+
+    /**
+     * Exporta el catálogo completo de productos
+     *
+     * @param salida    Flujo donde se escribe el archivo
+     * @param comprimir true para comprimir con GZIP
+     * @return Número de filas de datos escritas
+     * @throws IOException Si falla la escritura
+     */
+    public long exportarProductos(OutputStream salida, boolean comprimir) throws IOException {
+        try (Stream<ProductoExportacionDTO> filas = productoRepositorio.recorrerParaExportacion()) {
+            return escribir(filas, ENCABEZADOS_PRODUCTOS, producto -> new Object[]{
+                    producto.id(), producto.codigo(), producto.nombre(), producto.categoria(), producto.marca(),
+                    producto.precio(), producto.stock(), producto.activo()}, salida, comprimir);
+        }
+    }
+
+    private <T> long escribir(Stream<T> filas, String[] encabezados, Function<T, Object[]> columnas,
+                              OutputStream salida, boolean comprimir) throws IOException {
+        try (EscritorCsv csv = new EscritorCsv(salida, comprimir)) {
+            csv.escribirFila((Object[]) encabezados);
+            // Enviar el encabezado antes de que llegue la primera fila
+            csv.flush();
+
+            Iterator<T> iterador = filas.iterator();
+            while (iterador.hasNext()) {
+                csv.escribirFila(columnas.apply(iterador.next()));
+            }
+            return csv.getFilas() - 1;
+        }
+    }
+}
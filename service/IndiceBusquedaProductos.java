@@ -0,0 +1,319 @@
+package informviva.gest.service;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import informviva.gest.dto.ProductoIndiceDTO;
+import informviva.gest.evento.ProductoModificadoEvento;
+import informviva.gest.repository.ProductoRepositorio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria para la búsqueda de productos por código, nombre y marca.
+ * <p>
+ * Los términos de tres o más caracteres se resuelven intersectando los trigramas del término
+ * y verificando la coincidencia exacta sobre los candidatos; los de uno o dos caracteres se
+ * resuelven como prefijo de alguna palabra. El texto se compara en minúsculas y sin tildes.
+ * <p>
+ * Se construye al iniciar la aplicación y se actualiza con {@link ProductoModificadoEvento}
+ * después del commit de cada cambio. Mientras no está listo, los llamadores deben usar la
+ * búsqueda en base de datos.
+ */
+@Component
+public class IndiceBusquedaProductos {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndiceBusquedaProductos.class);
+
+    private static final int LARGO_TRIGRAMA = 3;
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADOR_PALABRAS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Separa los campos para que un término no coincida a través de dos de ellos
+    private static final char SEPARADOR_CAMPOS = '\n';
+    // Propiedades de Producto por las que el índice puede ordenar sin ir a la base de datos
+    private static final Map<String, Comparator<Documento>> PROPIEDADES_ORDENABLES = Map.of(
+            "id", Comparator.comparing(Documento::id),
+            "codigo", Comparator.comparing(Documento::codigo),
+            "nombre", Comparator.comparing(Documento::nombre));
+
+    /**
+     * Producto indexado con sus textos ya normalizados
+     */
+    private record Documento(Long id, String codigo, String nombre, String texto, boolean activo) {
+    }
+
+    private final ProductoRepositorio productoRepositorio;
+    private final ReadWriteLock bloqueo = new ReentrantReadWriteLock();
+
+    private final Map<Long, Documento> documentos = new HashMap<>();
+    private final Map<String, Set<Long>> trigramas = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> palabras = new TreeMap<>();
+    private volatile boolean listo;
+
+    public IndiceBusquedaProductos(ProductoRepositorio productoRepositorio) {
+        this.productoRepositorio = productoRepositorio;
+    }
+
+    /**
+     * Carga todos los productos en el índice
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void construir() {
+        long inicio = System.nanoTime();
+        // El bloqueo se mantiene durante la carga para que los eventos recibidos mientras tanto
+        // se apliquen después sobre el índice ya construido
+        bloqueo.writeLock().lock();
+        try {
+            documentos.clear();
+            trigramas.clear();
+            palabras.clear();
+            List<ProductoIndiceDTO> productos = productoRepositorio.listarParaIndiceBusqueda();
+            for (ProductoIndiceDTO producto : productos) {
+                agregar(producto.id(), producto.codigo(), producto.nombre(), producto.marca(),
+                        Boolean.TRUE.equals(producto.activo()));
+            }
+            listo = true;
+            logger.info("Índice de búsqueda de productos construido: {} productos, {} trigramas en {} ms",
+                    documentos.size(), trigramas.size(), (System.nanoTime() - inicio) / 1_000_000);
+        } catch (Exception e) {
+            logger.error("No se pudo construir el índice de búsqueda de productos: {}", e.getMessage());
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarProducto(ProductoModificadoEvento evento) {
+        bloqueo.writeLock().lock();
+        try {
+            quitar(evento.productoId());
+            agregar(evento.productoId(), evento.codigo(), evento.nombre(), evento.marca(), evento.activo());
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    public boolean estaListo() {
+        return listo;
+    }
+
+    /**
+     * Busca productos cuyo código, nombre o marca contienen el término
+     *
+     * @param termino     Texto a buscar
+     * @param soloActivos true para excluir los productos inactivos
+     * @param limite      Cantidad máxima de resultados; 0 para no limitar
+     * @return IDs ordenados por relevancia: código exacto, prefijo de código, prefijo de nombre,
+     * prefijo de una palabra del nombre y luego cualquier coincidencia; a igual relevancia, por nombre
+     */
+    public List<Long> buscar(String termino, boolean soloActivos, int limite) {
+        String normalizado = normalizar(termino);
+        Comparator<Documento> relevancia = Comparator
+                .comparingInt((Documento d) -> puntaje(d, normalizado))
+                .thenComparing(Documento::nombre)
+                .thenComparing(Documento::id);
+        return coincidencias(normalizado, soloActivos).stream()
+                .sorted(relevancia)
+                .limit(limite > 0 ? limite : Long.MAX_VALUE)
+                .map(Documento::id)
+                .toList();
+    }
+
+    /**
+     * Busca productos cuyo código, nombre o marca contienen el término, en el orden indicado.
+     * Código y nombre se comparan normalizados (minúsculas y sin tildes), igual que con una
+     * intercalación de MySQL que ignora mayúsculas y tildes.
+     *
+     * @param termino     Texto a buscar
+     * @param soloActivos true para excluir los productos inactivos
+     * @param orden       Orden por propiedades aceptadas por {@link #puedeOrdenar(Sort)}
+     * @return IDs en el orden pedido; a igualdad, por ID
+     * @throws IllegalArgumentException si el orden incluye una propiedad que el índice no tiene
+     */
+    public List<Long> buscar(String termino, boolean soloActivos, Sort orden) {
+        if (!puedeOrdenar(orden)) {
+            throw new IllegalArgumentException("El índice no puede ordenar por " + orden);
+        }
+        // Comparador neutro: el primer criterio del orden decide
+        Comparator<Documento> comparador = (a, b) -> 0;
+        for (Sort.Order criterio : orden) {
+            Comparator<Documento> porPropiedad = PROPIEDADES_ORDENABLES.get(criterio.getProperty());
+            comparador = comparador.thenComparing(criterio.isAscending() ? porPropiedad : porPropiedad.reversed());
+        }
+        return coincidencias(normalizar(termino), soloActivos).stream()
+                .sorted(comparador.thenComparing(Documento::id))
+                .map(Documento::id)
+                .toList();
+    }
+
+    /**
+     * Indica si {@link #buscar(String, boolean, Sort)} acepta el orden (ID, código o nombre)
+     */
+    public static boolean puedeOrdenar(Sort orden) {
+        return orden.stream().allMatch(criterio -> PROPIEDADES_ORDENABLES.containsKey(criterio.getProperty()));
+    }
+
+    private List<Documento> coincidencias(String normalizado, boolean soloActivos) {
+        if (normalizado.isEmpty()) {
+            return List.of();
+        }
+        List<Documento> coincidencias = new ArrayList<>();
+        bloqueo.readLock().lock();
+        try {
+            for (Long id : candidatos(normalizado)) {
+                Documento documento = documentos.get(id);
+                if (documento != null && (!soloActivos || documento.activo())
+                        && documento.texto().contains(normalizado)) {
+                    coincidencias.add(documento);
+                }
+            }
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+        return coincidencias;
+    }
+
+    /**
+     * IDs que pueden contener el término; la coincidencia se verifica después sobre el texto
+     */
+    private Set<Long> candidatos(String termino) {
+        if (termino.length() < LARGO_TRIGRAMA) {
+            Set<Long> resultado = new HashSet<>();
+            palabras.subMap(termino, true, termino + Character.MAX_VALUE, false)
+                    .values()
+                    .forEach(resultado::addAll);
+            return resultado;
+        }
+
+        // Intersectar partiendo por el trigrama menos frecuente
+        List<Set<Long>> listas = new ArrayList<>();
+        for (String trigrama : trigramasDe(termino)) {
+            Set<Long> ids = trigramas.get(trigrama);
+            if (ids == null) {
+                return Set.of();
+            }
+            listas.add(ids);
+        }
+        listas.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> resultado = new HashSet<>(listas.get(0));
+        for (int i = 1; i < listas.size() && !resultado.isEmpty(); i++) {
+            resultado.retainAll(listas.get(i));
+        }
+        return resultado;
+    }
+
+    private int puntaje(Documento documento, String termino) {
+        if (documento.codigo().equals(termino)) {
+            return 0;
+        }
+        if (documento.codigo().startsWith(termino)) {
+            return 1;
+        }
+        if (documento.nombre().startsWith(termino)) {
+            return 2;
+        }
+        if (documento.nombre().contains(" " + termino)) {
+            return 3;
+        }
+        return 4;
+    }
+
+    private void agregar(Long id, String codigo, String nombre, String marca, boolean activo) {
+        String codigoNormalizado = normalizar(codigo);
+        String nombreNormalizado = normalizar(nombre);
+        String texto = codigoNormalizado + SEPARADOR_CAMPOS + nombreNormalizado + SEPARADOR_CAMPOS + normalizar(marca);
+
+        Documento documento = new Documento(id, codigoNormalizado, nombreNormalizado, texto, activo);
+        documentos.put(id, documento);
+        for (String trigrama : trigramasDe(texto)) {
+            trigramas.computeIfAbsent(trigrama, t -> new HashSet<>()).add(id);
+        }
+        for (String palabra : palabrasDe(texto)) {
+            palabras.computeIfAbsent(palabra, p -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void quitar(Long id) {
+        Documento documento = documentos.remove(id);
+        if (documento == null) {
+            return;
+        }
+        for (String trigrama : trigramasDe(documento.texto())) {
+            quitarDe(trigramas, trigrama, id);
+        }
+        for (String palabra : palabrasDe(documento.texto())) {
+            quitarDe(palabras, palabra, id);
+        }
+    }
+
+    private static void quitarDe(Map<String, Set<Long>> indice, String clave, Long id) {
+        Set<Long> ids = indice.get(clave);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                indice.remove(clave);
+            }
+        }
+    }
+
+    private static Set<String> trigramasDe(String texto) {
+        if (texto.length() < LARGO_TRIGRAMA) {
+            return Collections.emptySet();
+        }
+        Set<String> resultado = new HashSet<>();
+        for (int i = 0; i + LARGO_TRIGRAMA <= texto.length(); i++) {
+            String trigrama = texto.substring(i, i + LARGO_TRIGRAMA);
+            if (trigrama.indexOf(SEPARADOR_CAMPOS) < 0) {
+                resultado.add(trigrama);
+            }
+        }
+        return resultado;
+    }
+
+    private static Set<String> palabrasDe(String texto) {
+        Set<String> resultado = new HashSet<>();
+        for (String palabra : SEPARADOR_PALABRAS.split(texto)) {
+            if (!palabra.isEmpty()) {
+                resultado.add(palabra);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Pasa el texto a minúsculas sin tildes ni espacios en los extremos
+     */
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto.trim(), Normalizer.Form.NFD))
+                .replaceAll("");
+        return sinTildes.toLowerCase(Locale.ROOT);
+    }
+}
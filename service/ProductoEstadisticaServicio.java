@@ -0,0 +1,91 @@
+package informviva.gest.service;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import informviva.gest.model.ProductoEstadistica;
+import informviva.gest.repository.ProductoEstadisticaRepositorio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Servicio que mantiene el acumulado de ventas por producto (producto_estadisticas).
+ * Igual que {@link VentaDiariaServicio}, se invoca dentro de la transacción que crea, anula o
+ * elimina ventas, por lo que el acumulado y las ventas se confirman o revierten juntos.
+ */
+@Service
+@Transactional
+public class ProductoEstadisticaServicio {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductoEstadisticaServicio.class);
+
+    private static final int SUMAR = 1;
+    private static final int RESTAR = -1;
+
+    private final ProductoEstadisticaRepositorio productoEstadisticaRepositorio;
+
+    public ProductoEstadisticaServicio(ProductoEstadisticaRepositorio productoEstadisticaRepositorio) {
+        this.productoEstadisticaRepositorio = productoEstadisticaRepositorio;
+    }
+
+    /**
+     * Obtiene las unidades vendidas, ingresos y última venta de un producto
+     *
+     * @param productoId ID del producto
+     * @return Estadística del producto; con valores en cero si no tiene ventas
+     */
+    @Transactional(readOnly = true)
+    public ProductoEstadistica obtener(Long productoId) {
+        return productoEstadisticaRepositorio.findById(productoId)
+                .orElseGet(() -> ProductoEstadistica.sinVentas(productoId));
+    }
+
+    /**
+     * Suma al acumulado las líneas de las ventas recién guardadas
+     *
+     * @param ventaIds IDs de las ventas
+     */
+    public void registrarVentas(Collection<Long> ventaIds) {
+        if (ventaIds == null || ventaIds.isEmpty()) {
+            return;
+        }
+        productoEstadisticaRepositorio.acumular(ventaIds, SUMAR);
+    }
+
+    /**
+     * Resta del acumulado las líneas de ventas que se anulan o eliminan
+     *
+     * @param ventaIds IDs de las ventas
+     */
+    public void descontarVentas(Collection<Long> ventaIds) {
+        if (ventaIds == null || ventaIds.isEmpty()) {
+            return;
+        }
+        productoEstadisticaRepositorio.acumular(ventaIds, RESTAR);
+        productoEstadisticaRepositorio.recalcularUltimaVenta(ventaIds);
+    }
+
+    /**
+     * Reconstruye el acumulado completo a partir de las ventas no anuladas
+     *
+     * @return Número de filas generadas
+     */
+    public int reconstruir() {
+        productoEstadisticaRepositorio.eliminarTodo();
+        int filas = productoEstadisticaRepositorio.reconstruir();
+        logger.info("Estadísticas de ventas por producto reconstruidas: {} filas", filas);
+        return filas;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean estaVacio() {
+        return productoEstadisticaRepositorio.count() == 0;
+    }
+}
@@ -1,5 +1,9 @@
 package informviva.gest.service;
 
+import informviva.gest.dto.PaginaCursorDTO;
+import informviva.gest.dto.ProductoStockFila;
+import informviva.gest.dto.ProductoSugerenciaDTO;
+import informviva.gest.dto.VentaDetalleDTO;
 import informviva.gest.model.Producto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -29,6 +33,15 @@ public interface ProductoServicio {
      */
     Page<Producto> listarPaginados(Pageable pageable);
 
+    /**
+     * Obtiene una página de productos ordenados por nombre, recorriendo el listado por cursor
+     *
+     * @param cursor Cursor de la página anterior; null para la primera página
+     * @param tamano Cantidad de productos por página
+     * @return Página de productos con el cursor de la siguiente
+     */
+    PaginaCursorDTO<Producto> listarPorCursor(String cursor, int tamano);
+
     /**
      * Busca un producto por su ID
      *
@@ -85,6 +98,21 @@ public interface ProductoServicio {
      */
     List<Producto> listarConBajoStock(int umbral);
 
+    /**
+     * Obtiene los productos con stock menor al umbral como filas, sin cargar las entidades
+     *
+     * @param umbral Cantidad máxima de stock para considerar como bajo
+     * @return Filas de productos con bajo stock, del menor stock al mayor
+     */
+    List<ProductoStockFila> listarFilasConBajoStock(int umbral);
+
+    /**
+     * Obtiene los productos con stock disponible como filas, sin cargar las entidades
+     *
+     * @return Filas de productos con stock mayor a cero, ordenadas por nombre
+     */
+    List<ProductoStockFila> listarFilasConStock();
+
     /**
      * Busca productos por nombre (contiene el texto)
      *
@@ -127,23 +155,36 @@ public interface ProductoServicio {
     Producto actualizarStock(Long id, Integer nuevoStock);
 
     /**
-     * Reduce el stock de un producto (para ventas)
+     * Reduce el stock de un producto (para ventas).
+     * El descuento se realiza con una única sentencia condicionada al stock disponible.
+     *
+     * No vuelve a leer el producto; quien necesite el stock resultante debe consultarlo.
      *
      * @param id       ID del producto
      * @param cantidad Cantidad a reducir
-     * @return Producto actualizado
-     * @throws IllegalArgumentException si no hay suficiente stock
+     * @throws informviva.gest.exception.StockInsuficienteException si no hay suficiente stock
+     */
+    void reducirStock(Long id, Integer cantidad);
+
+    /**
+     * Reduce el stock de todas las líneas de una venta.
+     * Las cantidades de un mismo producto se agrupan y los productos se procesan en orden de ID
+     * para que ventas concurrentes bloqueen las filas siempre en el mismo orden.
+     * Si alguna línea no tiene stock suficiente la operación completa se revierte.
+     *
+     * @param detalles Líneas de la venta
+     * @throws informviva.gest.exception.StockInsuficienteException con el detalle de las líneas sin stock
      */
-    Producto reducirStock(Long id, Integer cantidad);
+    void reducirStock(List<VentaDetalleDTO> detalles);
 
     /**
-     * Aumenta el stock de un producto (para compras/devoluciones)
+     * Aumenta el stock de un producto (para compras/devoluciones) con una única sentencia.
+     * No vuelve a leer el producto.
      *
      * @param id       ID del producto
      * @param cantidad Cantidad a aumentar
-     * @return Producto actualizado
      */
-    Producto aumentarStock(Long id, Integer cantidad);
+    void aumentarStock(Long id, Integer cantidad);
 
     /**
      * Cuenta el total de productos
@@ -169,6 +210,15 @@ public interface ProductoServicio {
 
     Page<Producto> buscarPorNombreOCodigoPaginado(String search, Pageable pageable);
 
+    /**
+     * Sugiere productos activos para el autocompletado, ordenados por relevancia
+     *
+     * @param termino Texto ingresado
+     * @param limite  Cantidad máxima de sugerencias
+     * @return Sugerencias con precio y stock actuales
+     */
+    List<ProductoSugerenciaDTO> autocompletar(String termino, int limite);
+
     Page<Producto> buscarPorCategoriaPaginado(String categoria, Pageable pageable);
 
     Page<Producto> listarConStockPaginado(Pageable pageable);
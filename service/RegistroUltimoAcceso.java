@@ -0,0 +1,102 @@
+package informviva.gest.service;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import informviva.gest.repository.RepositorioUsuario;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Acumula en memoria los accesos de los usuarios y los escribe en lote de forma periódica.
+ * <p>
+ * Como {@code ultimoAcceso} guarda solo el día, basta una escritura por usuario y día:
+ * los accesos repetidos se combinan en una sola entrada pendiente y el inicio de sesión
+ * no espera a la base de datos. Cada vaciado ejecuta un UPDATE por fecha (normalmente uno)
+ * sobre todos los usuarios pendientes de esa fecha.
+ * <p>
+ * Si la aplicación se detiene de forma abrupta se pueden perder los accesos del último
+ * intervalo; el dato es informativo y se vuelve a registrar en el siguiente acceso.
+ */
+@Component
+public class RegistroUltimoAcceso {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistroUltimoAcceso.class);
+
+    // Límite de IDs por sentencia para no generar listas IN demasiado largas
+    private static final int TAMANO_LOTE = 500;
+
+    private final Map<Long, LocalDate> pendientes = new ConcurrentHashMap<>();
+    private final RepositorioUsuario repositorioUsuario;
+    private final TransactionTemplate plantilla;
+
+    public RegistroUltimoAcceso(RepositorioUsuario repositorioUsuario, PlatformTransactionManager transactionManager) {
+        this.repositorioUsuario = repositorioUsuario;
+        this.plantilla = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Registra un acceso del usuario
+     *
+     * @param usuarioId          ID del usuario
+     * @param ultimoAccesoActual Último acceso ya guardado, para omitir el registro si es de hoy
+     */
+    public void registrar(Long usuarioId, LocalDate ultimoAccesoActual) {
+        LocalDate hoy = LocalDate.now();
+        if (usuarioId == null || hoy.equals(ultimoAccesoActual)) {
+            return;
+        }
+        pendientes.merge(usuarioId, hoy, (anterior, nuevo) -> nuevo.isAfter(anterior) ? nuevo : anterior);
+    }
+
+    /**
+     * Escribe los accesos pendientes en la base de datos
+     */
+    @Scheduled(fixedDelayString = "${informviva.ultimo-acceso.intervalo-ms:60000}")
+    public void vaciar() {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+
+        // Se retira cada entrada solo si no cambió; un acceso concurrente queda para el próximo vaciado
+        Map<LocalDate, List<Long>> porFecha = new TreeMap<>();
+        for (Map.Entry<Long, LocalDate> entrada : pendientes.entrySet()) {
+            if (pendientes.remove(entrada.getKey(), entrada.getValue())) {
+                porFecha.computeIfAbsent(entrada.getValue(), fecha -> new ArrayList<>()).add(entrada.getKey());
+            }
+        }
+
+        porFecha.forEach((fecha, ids) -> {
+            for (int inicio = 0; inicio < ids.size(); inicio += TAMANO_LOTE) {
+                List<Long> lote = ids.subList(inicio, Math.min(inicio + TAMANO_LOTE, ids.size()));
+                try {
+                    plantilla.executeWithoutResult(estado -> repositorioUsuario.actualizarUltimoAcceso(lote, fecha));
+                } catch (RuntimeException e) {
+                    logger.warn("No se pudo registrar el último acceso de {} usuarios: {}", lote.size(), e.getMessage());
+                    lote.forEach(id -> pendientes.merge(id, fecha,
+                            (anterior, nuevo) -> nuevo.isAfter(anterior) ? nuevo : anterior));
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void alDetener() {
+        vaciar();
+    }
+}
@@ -4,6 +4,8 @@ package informviva.gest.service;
 import informviva.gest.dto.ClienteReporteDTO;
 import informviva.gest.model.Cliente;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -76,4 +78,18 @@ public interface ReporteClienteServicio {
      * @return Datos del archivo en bytes
      */
     byte[] exportarReporteClientes(List<ClienteReporteDTO> clientes, String formato);
+
+    /**
+     * Escribe el reporte de clientes del período en formato Excel directamente en el flujo de salida.
+     * Las filas se leen de la base de datos como Stream en una transacción de solo lectura propia y
+     * solo se mantiene en memoria una ventana acotada, por lo que puede invocarse desde un
+     * StreamingResponseBody y la memoria usada no depende del número de filas.
+     *
+     * @param fechaInicio Fecha de inicio del período
+     * @param fechaFin    Fecha de fin del período (inclusive)
+     * @param salida      Flujo donde se escribe el archivo (no se cierra)
+     * @return Número de filas de datos escritas
+     * @throws IOException Si falla la escritura
+     */
+    long exportarReporteClientesExcel(LocalDate fechaInicio, LocalDate fechaFin, OutputStream salida) throws IOException;
 }
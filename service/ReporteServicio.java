@@ -8,36 +8,73 @@ package informviva.gest.service;
 import informviva.gest.dto.ProductoVendidoDTO;
 import informviva.gest.dto.VentaPorCategoriaDTO;
 import informviva.gest.dto.VentaPorPeriodoDTO;
+import informviva.gest.dto.VentaPorVendedorDTO;
 import informviva.gest.dto.VentaResumenDTO;
 import informviva.gest.repository.ReporteRepositorio;
+import informviva.gest.util.Dinero;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Servicio de reportes de ventas.
+ * Los días completos se leen del resumen diario (ventas_diarias) y solo el día actual,
+ * aún en curso, se calcula sobre la tabla de ventas.
+ */
 @Service
+@Transactional(readOnly = true)
 public class ReporteServicio {
 
     private final ReporteRepositorio reporteRepository;
+    private final CacheVentas cacheVentas;
 
-    public ReporteServicio(ReporteRepositorio reporteRepository) {
+    public ReporteServicio(ReporteRepositorio reporteRepository, CacheVentas cacheVentas) {
         this.reporteRepository = reporteRepository;
+        this.cacheVentas = cacheVentas;
     }
 
     public VentaResumenDTO generarResumenVentas(LocalDate startDate, LocalDate endDate) {
+        // Varios usuarios piden el mismo rango (por ejemplo, el mes en curso en /inicio):
+        // se calcula una vez y se reutiliza hasta que una venta o cliente del rango cambie
+        CacheRangoFechas.Rango rango = new CacheRangoFechas.Rango(startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+        VentaResumenDTO resumen = cacheVentas.resumenVentas().obtener(rango, () -> calcularResumenVentas(startDate, endDate));
+        // Copia superficial para que los llamadores no modifiquen la instancia compartida
+        return new VentaResumenDTO(resumen.getTotalVentas(), resumen.getTotalTransacciones(),
+                resumen.getTotalArticulosVendidos(), resumen.getTicketPromedio(), resumen.getClientesNuevos(),
+                resumen.getPorcentajeCambioVentas(), resumen.getPorcentajeCambioTransacciones(),
+                resumen.getPorcentajeCambioTicketPromedio(), resumen.getPorcentajeCambioClientesNuevos(),
+                resumen.getProductosMasVendidos(), resumen.getVentasPorPeriodo(),
+                resumen.getVentasPorCategoria(), resumen.getVentasPorVendedor());
+    }
+
+    private VentaResumenDTO calcularResumenVentas(LocalDate startDate, LocalDate endDate) {
         VentaResumenDTO resumen = new VentaResumenDTO();
 
         // Convertir LocalDate a LocalDateTime para consultas con campos de tipo LocalDateTime
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
 
-        resumen.setTotalVentas(reporteRepository.sumarTotalVentasEntreFechas(startDateTime, endDateTime));
-        resumen.setTotalTransacciones(reporteRepository.contarVentasEntreFechas(startDateTime, endDateTime));
-        resumen.setTotalArticulosVendidos(reporteRepository.sumarCantidadArticulosVendidosEntreFechas(startDateTime, endDateTime));
+        LocalDate hoy = LocalDate.now();
+        DiaEnCurso diaEnCurso = incluyeDia(startDate, endDate, hoy) ? obtenerDiaEnCurso(hoy) : DiaEnCurso.VACIO;
+
+        // Los montos se suman como enteros y se convierten a BigDecimal una sola vez para la vista
+        long totalVentas = Math.addExact(Dinero.valor(reporteRepository.sumarTotalVentasResumen(startDate, endDate, hoy)),
+                diaEnCurso.total());
+        resumen.setTotalVentas(Dinero.aBigDecimal(totalVentas));
+        resumen.setTotalTransacciones(reporteRepository.contarVentasResumen(startDate, endDate, hoy) + diaEnCurso.transacciones());
+        resumen.setTotalArticulosVendidos(reporteRepository.sumarArticulosResumen(startDate, endDate, hoy) + diaEnCurso.articulos());
 
         // Para clientes nuevos, usar LocalDate directamente si el campo es LocalDate
         resumen.setClientesNuevos(reporteRepository.contarClientesNuevosEntreFechas(startDate, endDate));
@@ -53,43 +90,29 @@ public class ReporteServicio {
         resumen.setPorcentajeCambioTicketPromedio(null);
         resumen.setPorcentajeCambioClientesNuevos(null);
 
+        // El resumen diario no tiene la dimensión producto: esta consulta sigue sobre las ventas
         List<ProductoVendidoDTO> productosVendidos = reporteRepository.obtenerProductosMasVendidosEntreFechas(startDateTime, endDateTime);
 
-        BigDecimal totalVentasGeneral = resumen.getTotalVentas() != null ? resumen.getTotalVentas() : BigDecimal.ZERO;
-        if (totalVentasGeneral.compareTo(BigDecimal.ZERO) > 0) {
-            productosVendidos.forEach(producto -> {
-                BigDecimal ingresosBigDecimal = BigDecimal.valueOf(producto.getIngresos());
-                double porcentaje = ingresosBigDecimal
-                        .divide(totalVentasGeneral, 4, RoundingMode.HALF_UP)
-                        .doubleValue() * 100.0;
-                producto.setPorcentajeTotal(porcentaje);
-            });
-        } else {
-            productosVendidos.forEach(producto -> producto.setPorcentajeTotal(0.0));
+        for (ProductoVendidoDTO producto : productosVendidos) {
+            producto.setPorcentajeTotal(Dinero.porcentaje(Dinero.valor(producto.getIngresos()), totalVentas));
         }
         resumen.setProductosMasVendidos(productosVendidos);
 
-        resumen.setVentasPorPeriodo(reporteRepository.obtenerVentasPorPeriodoEntreFechas(startDateTime, endDateTime));
-        resumen.setVentasPorCategoria(reporteRepository.obtenerVentasPorCategoriaEntreFechas(startDateTime, endDateTime));
-        resumen.setVentasPorVendedor(reporteRepository.obtenerVentasPorVendedorEntreFechas(startDateTime, endDateTime));
+        resumen.setVentasPorPeriodo(combinarVentasPorDia(startDate, endDate, hoy, diaEnCurso));
+        resumen.setVentasPorCategoria(combinarVentasPorCategoria(startDate, endDate, hoy));
+        resumen.setVentasPorVendedor(combinarVentasPorVendedor(startDate, endDate, hoy));
 
         return resumen;
     }
 
     public List<VentaPorPeriodoDTO> obtenerVentasPorPeriodoEntreFechas(LocalDate inicio, LocalDate fin) {
-        // Convertir LocalDate a LocalDateTime
-        LocalDateTime startDateTime = inicio.atStartOfDay();
-        LocalDateTime endDateTime = fin.atTime(LocalTime.MAX);
-
-        return reporteRepository.obtenerVentasPorPeriodoEntreFechas(startDateTime, endDateTime);
+        LocalDate hoy = LocalDate.now();
+        DiaEnCurso diaEnCurso = incluyeDia(inicio, fin, hoy) ? obtenerDiaEnCurso(hoy) : DiaEnCurso.VACIO;
+        return combinarVentasPorDia(inicio, fin, hoy, diaEnCurso);
     }
 
     public List<VentaPorCategoriaDTO> obtenerVentasPorCategoriaEntreFechas(LocalDate inicio, LocalDate fin) {
-        // Convertir LocalDate a LocalDateTime
-        LocalDateTime startDateTime = inicio.atStartOfDay();
-        LocalDateTime endDateTime = fin.atTime(LocalTime.MAX);
-
-        return reporteRepository.obtenerVentasPorCategoriaEntreFechas(startDateTime, endDateTime);
+        return combinarVentasPorCategoria(inicio, fin, LocalDate.now());
     }
 
     public Long contarClientesNuevosEntreFechas(LocalDate inicio, LocalDate fin) {
@@ -97,6 +120,76 @@ public class ReporteServicio {
         return reporteRepository.contarClientesNuevosEntreFechas(inicio, fin);
     }
 
+    /**
+     * Totales del día actual calculados sobre la tabla de ventas
+     */
+    private record DiaEnCurso(long total, long transacciones, long articulos) {
+        private static final DiaEnCurso VACIO = new DiaEnCurso(0L, 0L, 0L);
+    }
+
+    private DiaEnCurso obtenerDiaEnCurso(LocalDate hoy) {
+        LocalDateTime inicio = toStartOfDay(hoy);
+        LocalDateTime fin = toEndOfDay(hoy);
+        Long total = reporteRepository.sumarTotalVentasEntreFechas(inicio, fin);
+        Long transacciones = reporteRepository.contarVentasEntreFechas(inicio, fin);
+        Long articulos = reporteRepository.sumarCantidadArticulosVendidosEntreFechas(inicio, fin);
+        return new DiaEnCurso(Dinero.valor(total),
+                transacciones != null ? transacciones : 0L,
+                articulos != null ? articulos : 0L);
+    }
+
+    private List<VentaPorPeriodoDTO> combinarVentasPorDia(LocalDate inicio, LocalDate fin, LocalDate hoy, DiaEnCurso diaEnCurso) {
+        List<VentaPorPeriodoDTO> ventasPorDia = new ArrayList<>(reporteRepository.obtenerVentasPorDiaResumen(inicio, fin, hoy));
+        if (diaEnCurso.transacciones() > 0) {
+            // Los días anteriores y posteriores vienen ordenados; el día actual se inserta en su posición
+            VentaPorPeriodoDTO dia = new VentaPorPeriodoDTO(hoy.toString(), Dinero.aBigDecimal(diaEnCurso.total()));
+            int posicion = 0;
+            while (posicion < ventasPorDia.size() && ventasPorDia.get(posicion).getPeriodo().compareTo(dia.getPeriodo()) < 0) {
+                posicion++;
+            }
+            ventasPorDia.add(posicion, dia);
+        }
+        return ventasPorDia;
+    }
+
+    private List<VentaPorCategoriaDTO> combinarVentasPorCategoria(LocalDate inicio, LocalDate fin, LocalDate hoy) {
+        List<VentaPorCategoriaDTO> resumen = reporteRepository.obtenerVentasPorCategoriaResumen(inicio, fin, hoy);
+        if (!incluyeDia(inicio, fin, hoy)) {
+            return resumen;
+        }
+        List<VentaPorCategoriaDTO> delDia = reporteRepository.obtenerVentasPorCategoriaEntreFechas(toStartOfDay(hoy), toEndOfDay(hoy));
+        return combinar(resumen, delDia, VentaPorCategoriaDTO::getCategoria, VentaPorCategoriaDTO::getTotal, VentaPorCategoriaDTO::new);
+    }
+
+    private List<VentaPorVendedorDTO> combinarVentasPorVendedor(LocalDate inicio, LocalDate fin, LocalDate hoy) {
+        List<VentaPorVendedorDTO> resumen = reporteRepository.obtenerVentasPorVendedorResumen(inicio, fin, hoy);
+        if (!incluyeDia(inicio, fin, hoy)) {
+            return resumen;
+        }
+        List<VentaPorVendedorDTO> delDia = reporteRepository.obtenerVentasPorVendedorEntreFechas(toStartOfDay(hoy), toEndOfDay(hoy));
+        return combinar(resumen, delDia, VentaPorVendedorDTO::getVendedor, VentaPorVendedorDTO::getTotal, VentaPorVendedorDTO::new);
+    }
+
+    /**
+     * Suma por clave dos listas agrupadas, manteniendo el orden alfabético de las consultas
+     */
+    private static <T> List<T> combinar(List<T> primera, List<T> segunda, Function<T, String> clave,
+                                        Function<T, Long> total, BiFunction<String, Long, T> crear) {
+        if (segunda.isEmpty()) {
+            return primera;
+        }
+        Map<String, Long> totales = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        primera.forEach(dto -> totales.merge(clave.apply(dto), total.apply(dto), Math::addExact));
+        segunda.forEach(dto -> totales.merge(clave.apply(dto), total.apply(dto), Math::addExact));
+        return totales.entrySet().stream()
+                .map(entrada -> crear.apply(entrada.getKey(), entrada.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    private static boolean incluyeDia(LocalDate inicio, LocalDate fin, LocalDate dia) {
+        return !dia.isBefore(inicio) && !dia.isAfter(fin);
+    }
+
     /**
      * Método auxiliar para convertir LocalDate a LocalDateTime inicio del día
      */
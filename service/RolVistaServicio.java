@@ -7,14 +7,15 @@ package informviva.gest.service;
 
 
 import informviva.gest.model.RolVista;
-import informviva.gest.model.Usuario;
 import informviva.gest.repository.RolVistaRepositorio;
+import informviva.gest.seguridad.UsuarioPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import java.util.Date;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -24,7 +25,7 @@ public class RolVistaServicio {
     private RolVistaRepositorio rolVistaRepositorio;
 
     @Autowired
-    private UsuarioServicio usuarioServicio;
+    private AuditoriaVistasRol auditoriaVistasRol;
 
     public List<RolVista> obtenerUltimasVistas() {
         return rolVistaRepositorio.findTop10ByOrderByFechaVistaDesc();
@@ -34,21 +35,20 @@ public class RolVistaServicio {
         return rolVistaRepositorio.findByRolNombreOrderByFechaVistaDesc(rolNombre);
     }
 
+    /**
+     * Registra que el usuario autenticado consultó un rol.
+     * El registro se escribe en segundo plano (ver {@link AuditoriaVistasRol}); el ID del usuario
+     * se toma del principal autenticado, sin consultar la base de datos.
+     *
+     * @param rolNombre Nombre del rol consultado
+     */
     public void registrarVistaRol(String rolNombre) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.isAuthenticated()) {
-            String username = auth.getName();
-            Usuario usuario = usuarioServicio.buscarPorUsername(username);
-
-            if (usuario != null) {
-                RolVista vista = new RolVista();
-                vista.setRolNombre(rolNombre);
-                vista.setUsuarioId(usuario.getId());
-                vista.setUsername(username);
-                vista.setFechaVista(new Date());
-
-                rolVistaRepositorio.save(vista);
-            }
+        // El principal anónimo no es UserDetails, por lo que no se registra
+        if (auth != null && auth.isAuthenticated() && auth.getPrincipal() instanceof UserDetails detalles) {
+            Long usuarioId = detalles instanceof UsuarioPrincipal principal ? principal.getId() : null;
+            auditoriaVistasRol.registrar(
+                    new AuditoriaVistasRol.Registro(rolNombre, usuarioId, detalles.getUsername(), LocalDateTime.now()));
         }
     }
 }
@@ -6,6 +6,8 @@ package informviva.gest.service;
  */
 
 import informviva.gest.model.Usuario;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
@@ -60,6 +62,15 @@ public interface UsuarioServicio {
      */
     List<Usuario> listarTodos();
 
+    /**
+     * Obtiene una página de usuarios, filtrando por nombre, apellido o nombre de usuario
+     *
+     * @param busqueda Texto a buscar; null o vacío para no filtrar
+     * @param pageable Configuración de paginación y orden
+     * @return Página de usuarios
+     */
+    Page<Usuario> listarPaginados(String busqueda, Pageable pageable);
+
     /**
      * Obtiene los usuarios con rol de vendedor
      *
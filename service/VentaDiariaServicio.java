@@ -0,0 +1,79 @@
+package informviva.gest.service;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import informviva.gest.repository.VentaDiariaRepositorio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Servicio que mantiene el resumen diario de ventas (ventas_diarias).
+ * Se invoca dentro de la transacción que crea, anula o elimina ventas, por lo que
+ * el resumen y las ventas se confirman o revierten juntos.
+ */
+@Service
+@Transactional
+public class VentaDiariaServicio {
+
+    private static final Logger logger = LoggerFactory.getLogger(VentaDiariaServicio.class);
+
+    private static final int SUMAR = 1;
+    private static final int RESTAR = -1;
+
+    private final VentaDiariaRepositorio ventaDiariaRepositorio;
+
+    public VentaDiariaServicio(VentaDiariaRepositorio ventaDiariaRepositorio) {
+        this.ventaDiariaRepositorio = ventaDiariaRepositorio;
+    }
+
+    /**
+     * Suma al resumen las ventas recién guardadas
+     *
+     * @param ventaIds IDs de las ventas
+     */
+    public void registrarVentas(Collection<Long> ventaIds) {
+        acumular(ventaIds, SUMAR);
+    }
+
+    /**
+     * Resta del resumen ventas que se anulan o eliminan
+     *
+     * @param ventaIds IDs de las ventas
+     */
+    public void descontarVentas(Collection<Long> ventaIds) {
+        acumular(ventaIds, RESTAR);
+    }
+
+    /**
+     * Reconstruye el resumen completo a partir de las ventas no anuladas
+     *
+     * @return Número de filas generadas
+     */
+    public int reconstruir() {
+        ventaDiariaRepositorio.eliminarTodo();
+        int filas = ventaDiariaRepositorio.reconstruirVentas() + ventaDiariaRepositorio.reconstruirDetalles();
+        logger.info("Resumen diario de ventas reconstruido: {} filas", filas);
+        return filas;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean estaVacio() {
+        return ventaDiariaRepositorio.count() == 0;
+    }
+
+    private void acumular(Collection<Long> ventaIds, int signo) {
+        if (ventaIds == null || ventaIds.isEmpty()) {
+            return;
+        }
+        ventaDiariaRepositorio.acumularVentas(ventaIds, signo);
+        ventaDiariaRepositorio.acumularDetalles(ventaIds, signo);
+    }
+}
@@ -5,6 +5,8 @@ package informviva.gest.service;
  * @version 2.0
  */
 
+import informviva.gest.dto.PaginaCursorDTO;
+import informviva.gest.dto.ResultadoLoteVentasDTO;
 import informviva.gest.dto.VentaDTO;
 import informviva.gest.model.Cliente;
 import informviva.gest.model.Usuario;
@@ -51,6 +53,16 @@ public interface VentaServicio {
      */
     Venta guardar(VentaDTO ventaDTO);
 
+    /**
+     * Guarda un lote de ventas en una sola transacción.
+     * Las ventas inválidas (referencias inexistentes, datos incompletos o sin stock) se informan
+     * individualmente y no impiden guardar el resto; los INSERT se envían en lotes JDBC.
+     *
+     * @param ventas Ventas a guardar
+     * @return Resultado por venta y rendimiento del lote
+     */
+    ResultadoLoteVentasDTO guardarLote(List<VentaDTO> ventas);
+
     /**
      * Actualiza una venta existente
      *
@@ -68,7 +80,7 @@ public interface VentaServicio {
     void eliminar(Long id);
 
     /**
-     * Anula una venta sin eliminarla
+     * Anula una venta sin eliminarla. Si la venta ya estaba anulada no tiene efecto.
      *
      * @param id ID de la venta
      * @return Venta anulada
@@ -84,6 +96,26 @@ public interface VentaServicio {
      */
     List<Venta> buscarPorRangoFechas(LocalDateTime inicio, LocalDateTime fin);
 
+    /**
+     * Obtiene una página de ventas del rango, de la más reciente a la más antigua,
+     * recorriendo el listado por cursor en lugar de OFFSET
+     *
+     * @param inicio Fecha de inicio
+     * @param fin    Fecha de fin
+     * @param cursor Cursor de la página anterior; null para la primera página
+     * @param tamano Cantidad de ventas por página
+     * @return Página de ventas con el cursor de la siguiente
+     */
+    PaginaCursorDTO<Venta> buscarPaginaPorRangoFechas(LocalDateTime inicio, LocalDateTime fin, String cursor, int tamano);
+
+    /**
+     * Busca una venta con cliente, vendedor y líneas cargados, para mostrarla completa
+     *
+     * @param id ID de la venta
+     * @return Venta encontrada o null si no existe
+     */
+    Venta buscarDetallePorId(Long id);
+
     /**
      * Busca ventas por cliente
      *
@@ -129,16 +161,16 @@ public interface VentaServicio {
      *
      * @param inicio Fecha de inicio
      * @param fin    Fecha de fin
-     * @return Monto total de ventas
+     * @return Monto total de ventas, en pesos
      */
-    Double calcularTotalVentas(LocalDateTime inicio, LocalDateTime fin);
+    Long calcularTotalVentas(LocalDateTime inicio, LocalDateTime fin);
 
     /**
      * Obtiene el monto total de todas las ventas
      *
-     * @return Monto total de ventas
+     * @return Monto total de ventas, en pesos
      */
-    Double calcularTotalVentas();
+    Long calcularTotalVentas();
 
     /**
      * Obtiene el número total de transacciones en un rango de fechas
@@ -190,11 +222,7 @@ public interface VentaServicio {
 
     Long contarVentasPorCliente(Long clienteId);
 
-    Double calcularTotalVentasPorCliente(Long clienteId);
-
-    Long contarUnidadesVendidasPorProducto(Long productoId);
-
-    Double calcularIngresosPorProducto(Long productoId);
+    Long calcularTotalVentasPorCliente(Long clienteId);
 
     List<Venta> buscarVentasRecientesPorProducto(Long productoId, int limite);
 
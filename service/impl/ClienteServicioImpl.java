@@ -1,21 +1,25 @@
 package informviva.gest.service.impl;
 
+import informviva.gest.dto.ClienteFila;
 import informviva.gest.dto.ClienteReporteDTO;
+import informviva.gest.dto.PaginaCursorDTO;
+import informviva.gest.evento.ClienteModificadoEvento;
 import informviva.gest.model.Cliente;
 import informviva.gest.repository.ClienteRepositorio;
 import informviva.gest.repository.VentaRepositorio;
 import informviva.gest.service.ClienteServicio;
+import informviva.gest.util.CursorPaginacion;
+import informviva.gest.util.Dinero;
 import informviva.gest.validador.ValidadorRutUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Implementación del servicio para la gestión de clientes
@@ -32,12 +36,20 @@ public class ClienteServicioImpl implements ClienteServicio {
     @Autowired
     private VentaRepositorio ventaRepositorio;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Métodos básicos CRUD
     @Override
     public List<Cliente> obtenerTodos() {
         return clienteRepositorio.findAll();
     }
 
+    @Override
+    public long contarTodos() {
+        return clienteRepositorio.count();
+    }
+
     @Override
     public Cliente buscarPorId(Long id) {
         return clienteRepositorio.findById(id).orElse(null);
@@ -45,12 +57,17 @@ public class ClienteServicioImpl implements ClienteServicio {
 
     @Override
     public Cliente guardar(Cliente cliente) {
-        return clienteRepositorio.save(cliente);
+        Cliente guardado = clienteRepositorio.save(cliente);
+        eventPublisher.publishEvent(new ClienteModificadoEvento(guardado.getFechaRegistro()));
+        return guardado;
     }
 
     @Override
     public void eliminar(Long id) {
-        clienteRepositorio.deleteById(id);
+        clienteRepositorio.findById(id).ifPresent(cliente -> {
+            clienteRepositorio.delete(cliente);
+            eventPublisher.publishEvent(new ClienteModificadoEvento(cliente.getFechaRegistro()));
+        });
     }
 
     @Override
@@ -61,93 +78,32 @@ public class ClienteServicioImpl implements ClienteServicio {
     // Métodos para reportes
     @Override
     public List<ClienteReporteDTO> obtenerClientesConCompras(LocalDate fechaInicio, LocalDate fechaFin) {
-        List<Cliente> todosLosClientes = clienteRepositorio.findAll();
-
-        return todosLosClientes.stream()
-                .map(cliente -> {
-                    ClienteReporteDTO dto = new ClienteReporteDTO();
-                    dto.setId(cliente.getId());
-                    dto.setRut(cliente.getRut());
-                    dto.setNombreCompleto(cliente.getNombreCompleto());
-                    dto.setEmail(cliente.getEmail());
-                    dto.setFechaRegistro(cliente.getFechaRegistro());
-
-                    // Calcular estadísticas de compras
-                    var ventasCliente = ventaRepositorio.findByCliente(cliente);
-
-                    // Filtrar por fechas si se proporcionan
-                    if (fechaInicio != null && fechaFin != null) {
-                        ventasCliente = ventasCliente.stream()
-                                .filter(venta -> {
-                                    LocalDate fechaVenta = venta.getFechaAsLocalDate();
-                                    return fechaVenta != null &&
-                                            !fechaVenta.isBefore(fechaInicio) &&
-                                            !fechaVenta.isAfter(fechaFin);
-                                })
-                                .collect(Collectors.toList());
-                    }
-
-                    dto.setComprasRealizadas(ventasCliente.size());
-
-                    BigDecimal totalCompras = ventasCliente.stream()
-                            .filter(venta -> !"ANULADA".equals(venta.getEstado()))
-                            .map(venta -> BigDecimal.valueOf(venta.getTotal()))
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    dto.setTotalCompras(totalCompras);
-
-                    // Calcular promedio por compra
-                    if (dto.getComprasRealizadas() > 0) {
-                        dto.setPromedioPorCompra(totalCompras.divide(
-                                BigDecimal.valueOf(dto.getComprasRealizadas()),
-                                2, RoundingMode.HALF_UP));
-                    } else {
-                        dto.setPromedioPorCompra(BigDecimal.ZERO);
-                    }
-
-                    // Encontrar última compra
-                    dto.setUltimaCompra(ventasCliente.stream()
-                            .map(venta -> venta.getFechaAsLocalDate())
-                            .filter(fecha -> fecha != null)
-                            .max(LocalDate::compareTo)
-                            .orElse(null));
-
-                    return dto;
-                })
-                .filter(dto -> dto.getComprasRealizadas() > 0) // Solo clientes con compras
-                .collect(Collectors.toList());
+        // Una sola consulta agrupada por cliente; el filtro de fechas se aplica en la base de datos
+        if (fechaInicio != null && fechaFin != null) {
+            return ventaRepositorio.resumirComprasPorCliente(
+                    fechaInicio.atStartOfDay(), fechaFin.plusDays(1).atStartOfDay());
+        }
+        return ventaRepositorio.resumirComprasPorCliente();
     }
 
     @Override
     public List<Cliente> obtenerClientesNuevos(LocalDate fechaInicio, LocalDate fechaFin) {
-        return clienteRepositorio.findAll().stream()
-                .filter(cliente -> {
-                    LocalDate fechaRegistro = cliente.getFechaRegistro();
-                    return fechaRegistro != null &&
-                            !fechaRegistro.isBefore(fechaInicio) &&
-                            !fechaRegistro.isAfter(fechaFin);
-                })
-                .collect(Collectors.toList());
+        return clienteRepositorio.findByFechaRegistroBetween(fechaInicio, fechaFin);
     }
 
     @Override
     public Long contarClientesNuevos(LocalDate fechaInicio, LocalDate fechaFin) {
-        return (long) obtenerClientesNuevos(fechaInicio, fechaFin).size();
+        return clienteRepositorio.countByFechaRegistroBetween(fechaInicio, fechaFin);
     }
 
     @Override
     public List<Cliente> obtenerClientesPorCategoria(String categoria) {
-        return clienteRepositorio.findAll().stream()
-                .filter(cliente -> categoria.equals(cliente.getCategoria()))
-                .collect(Collectors.toList());
+        return clienteRepositorio.findByCategoria(categoria);
     }
 
     @Override
     public List<ClienteReporteDTO> obtenerTopClientesPorCompras(int limite) {
-        return obtenerClientesConCompras(null, null).stream()
-                .sorted((c1, c2) -> c2.getTotalCompras().compareTo(c1.getTotalCompras()))
-                .limit(limite)
-                .collect(Collectors.toList());
+        return ventaRepositorio.buscarTopClientesPorCompras(PageRequest.of(0, limite));
     }
 
     // Métodos de análisis
@@ -159,12 +115,8 @@ public class ClienteServicioImpl implements ClienteServicio {
             return 0.0;
         }
 
-        BigDecimal totalCompras = clientesConCompras.stream()
-                .map(ClienteReporteDTO::getTotalCompras)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return totalCompras.divide(BigDecimal.valueOf(clientesConCompras.size()),
-                2, RoundingMode.HALF_UP).doubleValue();
+        long totalCompras = Dinero.sumar(clientesConCompras, ClienteReporteDTO::getTotalCompras);
+        return Dinero.promedio(totalCompras, clientesConCompras.size());
     }
 
     @Override
@@ -172,26 +124,23 @@ public class ClienteServicioImpl implements ClienteServicio {
         // Considerar activos a los clientes que han comprado en los últimos 90 días
         LocalDate hace90Dias = LocalDate.now().minusDays(90);
 
-        return obtenerClientesConCompras(hace90Dias, LocalDate.now()).stream()
-                .filter(cliente -> cliente.getUltimaCompra() != null)
-                .count();
+        return ventaRepositorio.contarClientesConComprasDesde(hace90Dias.atStartOfDay());
+    }
+
+    @Override
+    public List<Cliente> obtenerClientesSinComprasDesde(LocalDate fechaLimite) {
+        return clienteRepositorio.buscarClientesSinComprasDesde(fechaLimite.atStartOfDay());
     }
 
     @Override
     public List<Cliente> buscarPorNombre(String nombre) {
-        return clienteRepositorio.findAll().stream()
-                .filter(cliente -> cliente.getNombre().toLowerCase().contains(nombre.toLowerCase()) ||
-                        cliente.getApellido().toLowerCase().contains(nombre.toLowerCase()) ||
-                        cliente.getNombreCompleto().toLowerCase().contains(nombre.toLowerCase()))
-                .collect(Collectors.toList());
+        // Nombre, apellido o nombre completo
+        return clienteRepositorio.buscarPorNombreCompleto(nombre.trim());
     }
 
     @Override
     public List<Cliente> buscarPorEmail(String email) {
-        return clienteRepositorio.findAll().stream()
-                .filter(cliente -> cliente.getEmail() != null &&
-                        cliente.getEmail().toLowerCase().contains(email.toLowerCase()))
-                .collect(Collectors.toList());
+        return clienteRepositorio.findByEmailContainingIgnoreCase(email.trim());
     }
 
     @Override
@@ -201,8 +150,17 @@ public class ClienteServicioImpl implements ClienteServicio {
 
     @Override
     public boolean existeClienteConRut(String rut) {
-        return clienteRepositorio.findAll().stream()
-                .anyMatch(cliente -> rut.equals(cliente.getRut()));
+        String rutNormalizado = ValidadorRutUtil.normalizar(rut);
+        return rutNormalizado != null && clienteRepositorio.existsByRutNormalizado(rutNormalizado);
+    }
+
+    @Override
+    public boolean existeOtroClienteConRut(String rut, Long id) {
+        if (id == null) {
+            return existeClienteConRut(rut);
+        }
+        String rutNormalizado = ValidadorRutUtil.normalizar(rut);
+        return rutNormalizado != null && clienteRepositorio.existsByRutNormalizadoAndIdNot(rutNormalizado, id);
     }
 
     @Override
@@ -210,6 +168,27 @@ public class ClienteServicioImpl implements ClienteServicio {
         return clienteRepositorio.findAll(pageable);
     }
 
+    @Override
+    public PaginaCursorDTO<Cliente> listarPorCursor(String cursor, int tamano) {
+        CursorPaginacion.ClaveNombre clave = CursorPaginacion.decodificarNombre(cursor);
+        // Se pide un cliente de más para saber si existe una página siguiente sin contar el total
+        Pageable limite = PageRequest.of(0, tamano + 1);
+        List<Cliente> filas = clave == null
+                ? clienteRepositorio.listarPorNombre(limite)
+                : clienteRepositorio.listarPorNombreDespuesDe(clave.nombre(), clave.id(), limite);
+        return PaginaCursorDTO.de(filas, tamano, cliente -> CursorPaginacion.codificar(cliente.getNombre(), cliente.getId()));
+    }
+
+    @Override
+    public PaginaCursorDTO<ClienteFila> listarFilasPorCursor(String cursor, int tamano) {
+        CursorPaginacion.ClaveNombre clave = CursorPaginacion.decodificarNombre(cursor);
+        Pageable limite = PageRequest.of(0, tamano + 1);
+        List<ClienteFila> filas = clave == null
+                ? clienteRepositorio.listarFilasPorNombre(limite)
+                : clienteRepositorio.listarFilasPorNombreDespuesDe(clave.nombre(), clave.id(), limite);
+        return PaginaCursorDTO.de(filas, tamano, fila -> CursorPaginacion.codificar(fila.nombre(), fila.id()));
+    }
+
     @Override
     public Page<Cliente> buscarPorNombreOEmail(String busqueda, Pageable pageable) {
         return clienteRepositorio.findByNombreContainingOrEmailContainingIgnoreCase(
@@ -6,19 +6,39 @@ package informviva.gest.service.impl;
 // */
 
 
+import informviva.gest.dto.PaginaCursorDTO;
+import informviva.gest.dto.ProductoStockFila;
+import informviva.gest.dto.ProductoSugerenciaDTO;
+import informviva.gest.dto.VentaDetalleDTO;
+import informviva.gest.evento.ProductoModificadoEvento;
 import informviva.gest.exception.RecursoNoEncontradoException;
+import informviva.gest.exception.StockInsuficienteException;
 import informviva.gest.model.Producto;
 import informviva.gest.repository.ProductoRepositorio;
+import informviva.gest.service.IndiceBusquedaProductos;
 import informviva.gest.service.ProductoServicio;
+import informviva.gest.util.CursorPaginacion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implementación del servicio para la gestión de productos
@@ -33,12 +53,20 @@ public class ProductoServicioImpl implements ProductoServicio {
     private static final Logger logger = LoggerFactory.getLogger(ProductoServicioImpl.class);
     private static final String PRODUCTO_NO_ENCONTRADO = "Producto no encontrado con ID: ";
     private static final String CODIGO_YA_EXISTE = "Ya existe un producto con el código: ";
-    private static final String STOCK_INSUFICIENTE = "Stock insuficiente. Stock actual: %d, cantidad solicitada: %d";
+    // Máximo de IDs del índice que se envían en una lista IN cuando la base de datos debe ordenar;
+    // sobre este número se usa la búsqueda LIKE
+    private static final int MAXIMO_IDS_ORDEN_EN_BASE_DATOS = 1000;
 
     private final ProductoRepositorio productoRepositorio;
+    private final IndiceBusquedaProductos indiceBusqueda;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ProductoServicioImpl(ProductoRepositorio productoRepositorio) {
+    public ProductoServicioImpl(ProductoRepositorio productoRepositorio,
+                                IndiceBusquedaProductos indiceBusqueda,
+                                ApplicationEventPublisher eventPublisher) {
         this.productoRepositorio = productoRepositorio;
+        this.indiceBusqueda = indiceBusqueda;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -63,6 +91,18 @@ public class ProductoServicioImpl implements ProductoServicio {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<Producto> listarPorCursor(String cursor, int tamano) {
+        CursorPaginacion.ClaveNombre clave = CursorPaginacion.decodificarNombre(cursor);
+        // Se pide un producto de más para saber si existe una página siguiente sin contar el total
+        Pageable limite = PageRequest.of(0, tamano + 1);
+        List<Producto> filas = clave == null
+                ? productoRepositorio.listarPorNombre(limite)
+                : productoRepositorio.listarPorNombreDespuesDe(clave.nombre(), clave.id(), limite);
+        return PaginaCursorDTO.de(filas, tamano, producto -> CursorPaginacion.codificar(producto.getNombre(), producto.getId()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Producto buscarPorId(Long id) {
@@ -116,7 +156,9 @@ public class ProductoServicioImpl implements ProductoServicio {
             producto.setCodigo(producto.getCodigo().trim().toUpperCase());
             producto.setFechaActualizacion(LocalDateTime.now());
 
-            return productoRepositorio.save(producto);
+            Producto guardado = productoRepositorio.save(producto);
+            eventPublisher.publishEvent(ProductoModificadoEvento.de(guardado));
+            return guardado;
         } catch (Exception e) {
             logger.error("Error al guardar producto: {}", e.getMessage());
             throw new RuntimeException("Error al guardar el producto", e);
@@ -159,6 +201,7 @@ public class ProductoServicioImpl implements ProductoServicio {
             producto.setActivo(false);
             producto.setFechaActualizacion(LocalDateTime.now());
             productoRepositorio.save(producto);
+            eventPublisher.publishEvent(ProductoModificadoEvento.de(producto));
 
             logger.info("Producto marcado como inactivo con ID: {}", id);
         } catch (Exception e) {
@@ -187,6 +230,28 @@ public class ProductoServicioImpl implements ProductoServicio {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductoStockFila> listarFilasConBajoStock(int umbral) {
+        try {
+            return productoRepositorio.listarFilasConStockMenorA(umbral);
+        } catch (Exception e) {
+            logger.error("Error al listar filas de productos con bajo stock: {}", e.getMessage());
+            throw new RuntimeException("Error al obtener productos con bajo stock", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductoStockFila> listarFilasConStock() {
+        try {
+            return productoRepositorio.listarFilasConStock();
+        } catch (Exception e) {
+            logger.error("Error al listar productos con stock: {}", e.getMessage());
+            throw new RuntimeException("Error al obtener productos con stock", e);
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Producto> buscarPorNombre(String nombre) {
@@ -235,6 +300,7 @@ public class ProductoServicioImpl implements ProductoServicio {
             producto.setActivo(activo);
             producto.setFechaActualizacion(LocalDateTime.now());
             productoRepositorio.save(producto);
+            eventPublisher.publishEvent(ProductoModificadoEvento.de(producto));
 
             logger.info("Estado del producto {} cambiado a: {}", id, activo ? "activo" : "inactivo");
             return true;
@@ -263,31 +329,78 @@ public class ProductoServicioImpl implements ProductoServicio {
     }
 
     @Override
-    public Producto reducirStock(Long id, Integer cantidad) {
+    public void reducirStock(Long id, Integer cantidad) {
+        if (id == null) {
+            throw new IllegalArgumentException("El ID no puede ser nulo");
+        }
         if (cantidad == null || cantidad <= 0) {
             throw new IllegalArgumentException("La cantidad debe ser mayor que cero");
         }
 
-        Producto producto = buscarPorId(id);
-        Integer stockActual = producto.getStock() != null ? producto.getStock() : 0;
+        if (productoRepositorio.descontarStock(id, cantidad, LocalDateTime.now()) == 0) {
+            Integer stockActual = productoRepositorio.obtenerStock(id)
+                    .orElseThrow(() -> new RecursoNoEncontradoException(PRODUCTO_NO_ENCONTRADO + id));
+            throw new StockInsuficienteException(
+                    List.of(new StockInsuficienteException.LineaSinStock(id, stockActual, cantidad)));
+        }
+
+        logger.debug("Stock del producto {} reducido en {}", id, cantidad);
+    }
+
+    @Override
+    public void reducirStock(List<VentaDetalleDTO> detalles) {
+        if (detalles == null || detalles.isEmpty()) {
+            throw new IllegalArgumentException("La venta debe tener al menos un detalle");
+        }
+
+        // Agrupar por producto y ordenar por ID para bloquear las filas siempre en el mismo orden
+        Map<Long, Integer> cantidadesPorProducto = new TreeMap<>();
+        for (VentaDetalleDTO detalle : detalles) {
+            if (detalle.getProductoId() == null) {
+                throw new IllegalArgumentException("El producto es obligatorio en cada detalle");
+            }
+            if (detalle.getCantidad() == null || detalle.getCantidad() <= 0) {
+                throw new IllegalArgumentException("La cantidad debe ser mayor que cero");
+            }
+            cantidadesPorProducto.merge(detalle.getProductoId(), detalle.getCantidad(), Integer::sum);
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        List<StockInsuficienteException.LineaSinStock> lineasSinStock = new ArrayList<>();
+
+        for (Map.Entry<Long, Integer> entrada : cantidadesPorProducto.entrySet()) {
+            Long productoId = entrada.getKey();
+            int cantidad = entrada.getValue();
+
+            if (productoRepositorio.descontarStock(productoId, cantidad, ahora) == 0) {
+                Integer stockActual = productoRepositorio.obtenerStock(productoId)
+                        .orElseThrow(() -> new RecursoNoEncontradoException(PRODUCTO_NO_ENCONTRADO + productoId));
+                lineasSinStock.add(new StockInsuficienteException.LineaSinStock(productoId, stockActual, cantidad));
+            }
+        }
 
-        if (stockActual < cantidad) {
-            throw new IllegalArgumentException(String.format(STOCK_INSUFICIENTE, stockActual, cantidad));
+        if (!lineasSinStock.isEmpty()) {
+            // La excepción revierte la transacción, incluidos los descuentos ya aplicados
+            throw new StockInsuficienteException(lineasSinStock);
         }
 
-        return actualizarStock(id, stockActual - cantidad);
+        logger.debug("Stock reducido para {} productos", cantidadesPorProducto.size());
     }
 
     @Override
-    public Producto aumentarStock(Long id, Integer cantidad) {
+    public void aumentarStock(Long id, Integer cantidad) {
+        if (id == null) {
+            throw new IllegalArgumentException("El ID no puede ser nulo");
+        }
         if (cantidad == null || cantidad <= 0) {
             throw new IllegalArgumentException("La cantidad debe ser mayor que cero");
         }
 
-        Producto producto = buscarPorId(id);
-        Integer stockActual = producto.getStock() != null ? producto.getStock() : 0;
+        if (productoRepositorio.incrementarStock(id, cantidad, LocalDateTime.now()) == 0) {
+            throw new RecursoNoEncontradoException(PRODUCTO_NO_ENCONTRADO + id);
+        }
 
-        return actualizarStock(id, stockActual + cantidad);
+        logger.debug("Stock del producto {} aumentado en {}", id, cantidad);
     }
 
     @Override
@@ -366,13 +479,70 @@ public class ProductoServicioImpl implements ProductoServicio {
         }
 
         try {
-            return productoRepositorio.buscarPorNombreOCodigo(termino.trim().toUpperCase(), pageable);
+            if (!indiceBusqueda.estaListo()) {
+                return productoRepositorio.buscarPorNombreOCodigo(termino.trim().toUpperCase(), pageable);
+            }
+
+            Sort orden = pageable.getSort();
+            if (!IndiceBusquedaProductos.puedeOrdenar(orden)) {
+                // El índice no tiene la columna del orden: la base de datos ordena y pagina entre los IDs
+                // encontrados, salvo que sean demasiados para una lista IN
+                List<Long> ids = indiceBusqueda.buscar(termino, false, MAXIMO_IDS_ORDEN_EN_BASE_DATOS + 1);
+                if (ids.isEmpty()) {
+                    return Page.empty(pageable);
+                }
+                if (ids.size() > MAXIMO_IDS_ORDEN_EN_BASE_DATOS) {
+                    return productoRepositorio.buscarPorNombreOCodigo(termino.trim().toUpperCase(), pageable);
+                }
+                return productoRepositorio.findByIdIn(ids, pageable);
+            }
+
+            // Sin orden explícito se respeta la relevancia del índice; con orden por ID, código o
+            // nombre el índice ordena en memoria. En ambos casos solo se leen los productos de la página
+            List<Long> ids = orden.isSorted()
+                    ? indiceBusqueda.buscar(termino, false, orden)
+                    : indiceBusqueda.buscar(termino, false, 0);
+            if (ids.isEmpty()) {
+                return Page.empty(pageable);
+            }
+            int desde = (int) Math.min(pageable.getOffset(), ids.size());
+            int hasta = Math.min(desde + pageable.getPageSize(), ids.size());
+            List<Long> idsPagina = ids.subList(desde, hasta);
+            Map<Long, Producto> porId = productoRepositorio.findAllById(idsPagina).stream()
+                    .collect(Collectors.toMap(Producto::getId, Function.identity()));
+            List<Producto> contenido = idsPagina.stream()
+                    .map(porId::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            return new PageImpl<>(contenido, pageable, ids.size());
         } catch (Exception e) {
             logger.error("Error al buscar productos por nombre o código: {}", e.getMessage());
             throw new RuntimeException("Error al buscar productos", e);
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductoSugerenciaDTO> autocompletar(String termino, int limite) {
+        if (termino == null || termino.isBlank() || !indiceBusqueda.estaListo()) {
+            return List.of();
+        }
+
+        List<Long> ids = indiceBusqueda.buscar(termino, true, limite);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Precio y stock se leen por clave primaria para que estén al día
+        Map<Long, Integer> posicion = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            posicion.put(ids.get(i), i);
+        }
+        return productoRepositorio.buscarSugerencias(ids).stream()
+                .sorted(Comparator.comparing(sugerencia -> posicion.get(sugerencia.id())))
+                .toList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Producto> buscarPorCategoriaPaginado(String categoria, Pageable pageable) {
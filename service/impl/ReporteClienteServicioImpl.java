@@ -3,23 +3,30 @@ package informviva.gest.service.impl;
 
 import informviva.gest.dto.ClienteReporteDTO;
 import informviva.gest.model.Cliente;
+import informviva.gest.repository.VentaRepositorio;
 import informviva.gest.service.ClienteServicio;
 import informviva.gest.service.ReporteClienteServicio;
+import informviva.gest.util.Dinero;
+import informviva.gest.util.EscritorCsv;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementación del servicio para reportes de clientes
@@ -32,9 +39,20 @@ public class ReporteClienteServicioImpl implements ReporteClienteServicio {
 
     private static final Logger logger = LoggerFactory.getLogger(ReporteClienteServicioImpl.class);
 
+    // Filas que SXSSF mantiene en memoria; las anteriores se vuelcan a un archivo temporal
+    private static final int VENTANA_FILAS = 100;
+    // Filas de datos usadas para estimar el ancho de las columnas
+    private static final int FILAS_MUESTRA_ANCHO = 200;
+    private static final int ANCHO_MAXIMO_COLUMNA = 60;
+    private static final String[] ENCABEZADOS_REPORTE = {"RUT", "Nombre Completo", "Email", "Fecha Registro",
+            "Compras Realizadas", "Total Compras", "Promedio por Compra", "Última Compra"};
+
     @Autowired
     private ClienteServicio clienteServicio;
 
+    @Autowired
+    private VentaRepositorio ventaRepositorio;
+
     @Override
     public List<ClienteReporteDTO> generarReporteClientes(LocalDate fechaInicio, LocalDate fechaFin) {
         logger.info("Generando reporte de clientes para el período: {} - {}", fechaInicio, fechaFin);
@@ -63,29 +81,28 @@ public class ReporteClienteServicioImpl implements ReporteClienteServicio {
             Long totalClientes = clienteServicio.contarClientesNuevos(fechaInicio, fechaFin);
 
             // Calcular estadísticas básicas
-            estadisticas.put("totalClientesRegistrados", clienteServicio.obtenerTodos().size());
+            estadisticas.put("totalClientesRegistrados", clienteServicio.contarTodos());
             estadisticas.put("clientesNuevosEnPeriodo", totalClientes);
             estadisticas.put("clientesConCompras", clientesConCompras.size());
             estadisticas.put("clientesActivos", clienteServicio.contarClientesActivos());
 
-            // Calcular valores monetarios
-            BigDecimal ventasTotales = clientesConCompras.stream()
-                    .map(ClienteReporteDTO::getTotalCompras)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            // Totales en una sola pasada sobre el reporte
+            long ventasTotales = 0L;
+            int totalTransacciones = 0;
+            for (ClienteReporteDTO cliente : clientesConCompras) {
+                ventasTotales = Math.addExact(ventasTotales, cliente.getTotalCompras());
+                totalTransacciones += cliente.getComprasRealizadas();
+            }
 
             estadisticas.put("ventasTotales", ventasTotales);
 
             // Calcular promedios
             if (!clientesConCompras.isEmpty()) {
-                BigDecimal promedioComprasPorCliente = ventasTotales.divide(
+                BigDecimal promedioComprasPorCliente = Dinero.aBigDecimal(ventasTotales).divide(
                         BigDecimal.valueOf(clientesConCompras.size()), 2, RoundingMode.HALF_UP);
                 estadisticas.put("promedioComprasPorCliente", promedioComprasPorCliente);
 
-                int totalTransacciones = clientesConCompras.stream()
-                        .mapToInt(ClienteReporteDTO::getComprasRealizadas)
-                        .sum();
-
-                BigDecimal ticketPromedio = ventasTotales.divide(
+                BigDecimal ticketPromedio = Dinero.aBigDecimal(ventasTotales).divide(
                         BigDecimal.valueOf(totalTransacciones), 2, RoundingMode.HALF_UP);
                 estadisticas.put("ticketPromedio", ticketPromedio);
 
@@ -152,12 +169,7 @@ public class ReporteClienteServicioImpl implements ReporteClienteServicio {
     public List<Cliente> obtenerClientesInactivos(int diasInactividad) {
         LocalDate fechaLimite = LocalDate.now().minusDays(diasInactividad);
 
-        return clienteServicio.obtenerClientesConCompras(null, null).stream()
-                .filter(cliente -> cliente.getUltimaCompra() == null ||
-                        cliente.getUltimaCompra().isBefore(fechaLimite))
-                .map(dto -> clienteServicio.buscarPorId(dto.getId()))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        return clienteServicio.obtenerClientesSinComprasDesde(fechaLimite);
     }
 
     @Override
@@ -223,14 +235,28 @@ public class ReporteClienteServicioImpl implements ReporteClienteServicio {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public long exportarReporteClientesExcel(LocalDate fechaInicio, LocalDate fechaFin, OutputStream salida)
+            throws IOException {
+        // Las filas llegan de la base de datos a medida que se escriben, ya ordenadas por total descendente
+        try (Stream<ClienteReporteDTO> filas = ventaRepositorio.recorrerResumenComprasPorCliente(
+                fechaInicio.atStartOfDay(), fechaFin.plusDays(1).atStartOfDay())) {
+            return escribirExcel(filas.iterator(), salida);
+        }
+    }
+
     /**
-     * Exporta la lista de clientes a formato Excel
+     * Escribe las filas en un libro SXSSF. Solo se retienen en memoria las filas de muestra para
+     * el ancho de las columnas y la ventana de filas de SXSSF.
+     *
+     * @return Número de filas de datos escritas
      */
-    private byte[] exportarAExcel(List<ClienteReporteDTO> clientes) {
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-
-            Sheet sheet = workbook.createSheet("Reporte de Clientes");
+    private long escribirExcel(Iterator<ClienteReporteDTO> clientes, OutputStream salida) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(VENTANA_FILAS);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Reporte de Clientes");
 
             // Crear estilos
             CellStyle headerStyle = workbook.createCellStyle();
@@ -246,20 +272,29 @@ public class ReporteClienteServicioImpl implements ReporteClienteServicio {
             CellStyle dateStyle = workbook.createCellStyle();
             dateStyle.setDataFormat(workbook.createDataFormat().getFormat("dd/mm/yyyy"));
 
+            // Ajustar ancho de columnas a partir de las primeras filas, que se escriben después
+            List<ClienteReporteDTO> muestra = new ArrayList<>(FILAS_MUESTRA_ANCHO);
+            while (muestra.size() < FILAS_MUESTRA_ANCHO && clientes.hasNext()) {
+                muestra.add(clientes.next());
+            }
+            int[] anchos = estimarAnchos(muestra);
+            for (int i = 0; i < anchos.length; i++) {
+                sheet.setColumnWidth(i, anchos[i] * 256);
+            }
+
             // Crear encabezados
             Row headerRow = sheet.createRow(0);
-            String[] headers = {"RUT", "Nombre Completo", "Email", "Fecha Registro",
-                    "Compras Realizadas", "Total Compras", "Promedio por Compra", "Última Compra"};
-
-            for (int i = 0; i < headers.length; i++) {
+            for (int i = 0; i < ENCABEZADOS_REPORTE.length; i++) {
                 Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
+                cell.setCellValue(ENCABEZADOS_REPORTE[i]);
                 cell.setCellStyle(headerStyle);
             }
 
-            // Llenar datos
+            // Llenar datos: primero la muestra y luego el resto a medida que llega
             int rowIdx = 1;
-            for (ClienteReporteDTO cliente : clientes) {
+            Iterator<ClienteReporteDTO> pendientes = muestra.iterator();
+            while (pendientes.hasNext() || clientes.hasNext()) {
+                ClienteReporteDTO cliente = pendientes.hasNext() ? pendientes.next() : clientes.next();
                 Row row = sheet.createRow(rowIdx++);
 
                 row.createCell(0).setCellValue(cliente.getRut());
@@ -289,12 +324,56 @@ public class ReporteClienteServicioImpl implements ReporteClienteServicio {
                 }
             }
 
-            // Ajustar ancho de columnas
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
+            workbook.write(salida);
+            return rowIdx - 1L;
+        } finally {
+            // Elimina los archivos temporales de las filas ya volcadas
+            workbook.dispose();
+            workbook.close();
+        }
+    }
 
-            workbook.write(outputStream);
+    /**
+     * Estima el ancho (en caracteres) de cada columna a partir de los encabezados
+     * y de las filas de muestra
+     */
+    private int[] estimarAnchos(List<ClienteReporteDTO> clientes) {
+        int[] anchos = new int[ENCABEZADOS_REPORTE.length];
+        for (int i = 0; i < ENCABEZADOS_REPORTE.length; i++) {
+            anchos[i] = ENCABEZADOS_REPORTE[i].length();
+        }
+        // Fechas con formato dd/mm/yyyy
+        anchos[3] = Math.max(anchos[3], 10);
+        anchos[7] = Math.max(anchos[7], 10);
+
+        int muestra = Math.min(clientes.size(), FILAS_MUESTRA_ANCHO);
+        for (int i = 0; i < muestra; i++) {
+            ClienteReporteDTO cliente = clientes.get(i);
+            anchos[0] = Math.max(anchos[0], longitud(cliente.getRut()));
+            anchos[1] = Math.max(anchos[1], longitud(cliente.getNombreCompleto()));
+            anchos[2] = Math.max(anchos[2], longitud(cliente.getEmail()));
+            anchos[4] = Math.max(anchos[4], longitud(cliente.getComprasRealizadas()));
+            // Montos con separador de miles, decimales y símbolo
+            anchos[5] = Math.max(anchos[5], longitud(cliente.getTotalCompras()) + 5);
+            anchos[6] = Math.max(anchos[6], longitud(cliente.getPromedioPorCompra()) + 5);
+        }
+
+        for (int i = 0; i < anchos.length; i++) {
+            anchos[i] = Math.min(anchos[i] + 2, ANCHO_MAXIMO_COLUMNA);
+        }
+        return anchos;
+    }
+
+    private int longitud(Object valor) {
+        return valor != null ? valor.toString().length() : 0;
+    }
+
+    /**
+     * Exporta la lista de clientes a formato Excel
+     */
+    private byte[] exportarAExcel(List<ClienteReporteDTO> clientes) {
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            escribirExcel(clientes.iterator(), outputStream);
             return outputStream.toByteArray();
 
         } catch (IOException e) {
@@ -304,27 +383,23 @@ public class ReporteClienteServicioImpl implements ReporteClienteServicio {
     }
 
     /**
-     * Exporta la lista de clientes a formato CSV
+     * Exporta la lista de clientes a formato CSV (UTF-8)
      */
     private byte[] exportarACSV(List<ClienteReporteDTO> clientes) {
-        StringBuilder csv = new StringBuilder();
-
-        // Encabezados
-        csv.append("RUT,Nombre Completo,Email,Fecha Registro,Compras Realizadas,Total Compras,Promedio por Compra,Última Compra\n");
-
-        // Datos
-        for (ClienteReporteDTO cliente : clientes) {
-            csv.append(cliente.getRut()).append(",");
-            csv.append("\"").append(cliente.getNombreCompleto()).append("\",");
-            csv.append(cliente.getEmail()).append(",");
-            csv.append(cliente.getFechaRegistro() != null ? cliente.getFechaRegistro().toString() : "").append(",");
-            csv.append(cliente.getComprasRealizadas()).append(",");
-            csv.append(cliente.getTotalCompras()).append(",");
-            csv.append(cliente.getPromedioPorCompra()).append(",");
-            csv.append(cliente.getUltimaCompra() != null ? cliente.getUltimaCompra().toString() : "");
-            csv.append("\n");
-        }
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            try (EscritorCsv csv = new EscritorCsv(outputStream, false)) {
+                csv.escribirFila((Object[]) ENCABEZADOS_REPORTE);
+                for (ClienteReporteDTO cliente : clientes) {
+                    csv.escribirFila(cliente.getRut(), cliente.getNombreCompleto(), cliente.getEmail(),
+                            cliente.getFechaRegistro(), cliente.getComprasRealizadas(), cliente.getTotalCompras(),
+                            cliente.getPromedioPorCompra(), cliente.getUltimaCompra());
+                }
+            }
+            return outputStream.toByteArray();
 
-        return csv.toString().getBytes();
+        } catch (IOException e) {
+            logger.error("Error al exportar a CSV: {}", e.getMessage());
+            return new byte[0];
+        }
     }
 }
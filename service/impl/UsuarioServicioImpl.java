@@ -10,6 +10,8 @@ import informviva.gest.model.Usuario;
 import informviva.gest.repository.RepositorioUsuario;
 import informviva.gest.service.UsuarioServicio;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -85,6 +87,15 @@ public class UsuarioServicioImpl implements UsuarioServicio {
         repositorioUsuario.deleteById(id);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Usuario> listarPaginados(String busqueda, Pageable pageable) {
+        if (busqueda == null || busqueda.isBlank()) {
+            return repositorioUsuario.findAll(pageable);
+        }
+        return repositorioUsuario.buscarPorTexto(busqueda.trim(), pageable);
+    }
+
     @Override
     public List<Usuario> listarTodos() {
         // Si RepositorioUsuario extiende JpaRepository, findAll() devuelve List<Usuario>
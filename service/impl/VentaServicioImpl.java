@@ -1,33 +1,108 @@
 package informviva.gest.service.impl;
 
+import informviva.gest.config.ConfiguracionHibernate;
+import informviva.gest.dto.PaginaCursorDTO;
+import informviva.gest.dto.ResultadoLoteVentasDTO;
+import informviva.gest.dto.ResultadoLoteVentasDTO.ResultadoVenta;
 import informviva.gest.dto.VentaDTO;
+import informviva.gest.dto.VentaDetalleDTO;
+import informviva.gest.evento.VentaModificadaEvento;
+import informviva.gest.exception.RecursoNoEncontradoException;
 import informviva.gest.model.Cliente;
+import informviva.gest.model.Producto;
 import informviva.gest.model.Usuario;
 import informviva.gest.model.Venta;
+import informviva.gest.model.VentaDetalle;
+import informviva.gest.repository.ClienteRepositorio;
+import informviva.gest.repository.ProductoRepositorio;
+import informviva.gest.repository.RepositorioUsuario;
 import informviva.gest.repository.VentaRepositorio;
+import informviva.gest.service.CacheRangoFechas;
+import informviva.gest.service.CacheVentas;
+import informviva.gest.service.ProductoEstadisticaServicio;
+import informviva.gest.service.ProductoServicio;
+import informviva.gest.service.VentaDiariaServicio;
 import informviva.gest.service.VentaServicio;
+import informviva.gest.util.CursorPaginacion;
+import informviva.gest.util.Dinero;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Transactional
 public class VentaServicioImpl implements VentaServicio {
 
+    private static final Logger logger = LoggerFactory.getLogger(VentaServicioImpl.class);
+
     private static final String ESTADO_ANULADA = "ANULADA";
+    private static final String ESTADO_COMPLETADA = "COMPLETADA";
+    private static final double TASA_IVA = 0.19;
     private static final double CIEN_PORCIENTO = 100.0;
     private static final double CERO_PORCIENTO = 0.0;
+    private static final int MAX_VENTAS_LOTE = 10_000;
 
-    private final VentaRepositorio ventaRepositorio;
+    private static final String CLIENTE_NO_ENCONTRADO = "Cliente no encontrado con ID: ";
+    private static final String VENDEDOR_NO_ENCONTRADO = "Vendedor no encontrado con ID: ";
+    private static final String PRODUCTO_NO_ENCONTRADO = "Producto no encontrado con ID: ";
 
-    public VentaServicioImpl(VentaRepositorio ventaRepositorio) {
+    private final VentaRepositorio ventaRepositorio;
+    private final ClienteRepositorio clienteRepositorio;
+    private final RepositorioUsuario repositorioUsuario;
+    private final ProductoRepositorio productoRepositorio;
+    private final ProductoServicio productoServicio;
+    private final VentaDiariaServicio ventaDiariaServicio;
+    private final ProductoEstadisticaServicio productoEstadisticaServicio;
+    private final CacheVentas cacheVentas;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validador;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public VentaServicioImpl(VentaRepositorio ventaRepositorio,
+                             ClienteRepositorio clienteRepositorio,
+                             RepositorioUsuario repositorioUsuario,
+                             ProductoRepositorio productoRepositorio,
+                             ProductoServicio productoServicio,
+                             VentaDiariaServicio ventaDiariaServicio,
+                             ProductoEstadisticaServicio productoEstadisticaServicio,
+                             CacheVentas cacheVentas,
+                             ApplicationEventPublisher eventPublisher,
+                             Validator validador) {
         this.ventaRepositorio = ventaRepositorio;
+        this.clienteRepositorio = clienteRepositorio;
+        this.repositorioUsuario = repositorioUsuario;
+        this.productoRepositorio = productoRepositorio;
+        this.productoServicio = productoServicio;
+        this.ventaDiariaServicio = ventaDiariaServicio;
+        this.productoEstadisticaServicio = productoEstadisticaServicio;
+        this.cacheVentas = cacheVentas;
+        this.eventPublisher = eventPublisher;
+        this.validador = validador;
     }
 
     @Override
@@ -45,10 +120,211 @@ public class VentaServicioImpl implements VentaServicio {
         return ventaRepositorio.findById(id).orElse(null);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Venta buscarDetallePorId(Long id) {
+        return ventaRepositorio.buscarDetallePorId(id).orElse(null);
+    }
+
     @Override
     public Venta guardar(VentaDTO ventaDTO) {
-        Venta venta = convertirAEntidad(ventaDTO);
-        return ventaRepositorio.save(venta);
+        // Primero el descuento atómico de stock: si falla no se alcanza a insertar nada
+        productoServicio.reducirStock(ventaDTO.getDetalles());
+
+        Cliente cliente = clienteRepositorio.findById(ventaDTO.getClienteId())
+                .orElseThrow(() -> new RecursoNoEncontradoException(CLIENTE_NO_ENCONTRADO + ventaDTO.getClienteId()));
+        Usuario vendedor = repositorioUsuario.findById(ventaDTO.getVendedorId())
+                .orElseThrow(() -> new RecursoNoEncontradoException(VENDEDOR_NO_ENCONTRADO + ventaDTO.getVendedorId()));
+
+        Venta venta = convertirAEntidad(ventaDTO, cliente, vendedor, cargarProductos(List.of(ventaDTO)));
+        Venta guardada = ventaRepositorio.save(venta);
+        ventaDiariaServicio.registrarVentas(List.of(guardada.getId()));
+        productoEstadisticaServicio.registrarVentas(List.of(guardada.getId()));
+        eventPublisher.publishEvent(VentaModificadaEvento.de(guardada.getFecha()));
+        return guardada;
+    }
+
+    @Override
+    public ResultadoLoteVentasDTO guardarLote(List<VentaDTO> ventas) {
+        if (ventas == null || ventas.isEmpty()) {
+            throw new IllegalArgumentException("El lote debe contener al menos una venta");
+        }
+        if (ventas.size() > MAX_VENTAS_LOTE) {
+            throw new IllegalArgumentException("El lote no puede superar " + MAX_VENTAS_LOTE + " ventas");
+        }
+
+        long inicio = System.nanoTime();
+
+        // Cargar en bloque todas las referencias del lote (una consulta por tipo)
+        Map<Long, Producto> productos = cargarProductos(ventas);
+        Set<Long> clientesExistentes = idsExistentes(ventas, VentaDTO::getClienteId, clienteRepositorio::findAllById, Cliente::getId);
+        Set<Long> vendedoresExistentes = idsExistentes(ventas, VentaDTO::getVendedorId, repositorioUsuario::findAllById, Usuario::getId);
+
+        // Validar y reservar stock en memoria sobre la foto cargada
+        Map<Long, Integer> stockDisponible = new HashMap<>();
+        productos.values().forEach(p -> stockDisponible.put(p.getId(), p.getStock() != null ? p.getStock() : 0));
+
+        List<ResultadoVenta> resultados = new ArrayList<>(ventas.size());
+        List<Integer> aceptadas = new ArrayList<>();
+        List<VentaDetalleDTO> detallesAceptados = new ArrayList<>();
+
+        for (int i = 0; i < ventas.size(); i++) {
+            VentaDTO dto = ventas.get(i);
+            String error = validarVentaLote(dto, clientesExistentes, vendedoresExistentes, productos, stockDisponible);
+            if (error != null) {
+                resultados.add(ResultadoVenta.fallo(i, error));
+                continue;
+            }
+            resultados.add(null);
+            aceptadas.add(i);
+            detallesAceptados.addAll(dto.getDetalles());
+        }
+
+        // Descuento definitivo con UPDATE condicionados; si otra transacción consumió el stock
+        // entre la lectura y este punto, se revierte el lote completo
+        if (!detallesAceptados.isEmpty()) {
+            productoServicio.reducirStock(detallesAceptados);
+        }
+
+        // Inserción por bloques del tamaño del lote JDBC, liberando el contexto de persistencia
+        int pendientes = 0;
+        List<Venta> bloque = new ArrayList<>(ConfiguracionHibernate.TAMANO_LOTE);
+        List<Integer> indicesBloque = new ArrayList<>(ConfiguracionHibernate.TAMANO_LOTE);
+        LocalDateTime fechaMinima = null;
+        LocalDateTime fechaMaxima = null;
+        for (Integer indice : aceptadas) {
+            VentaDTO dto = ventas.get(indice);
+            Venta venta = convertirAEntidad(dto,
+                    clienteRepositorio.getReferenceById(dto.getClienteId()),
+                    repositorioUsuario.getReferenceById(dto.getVendedorId()),
+                    productos);
+            entityManager.persist(venta);
+            if (fechaMinima == null || venta.getFecha().isBefore(fechaMinima)) {
+                fechaMinima = venta.getFecha();
+            }
+            if (fechaMaxima == null || venta.getFecha().isAfter(fechaMaxima)) {
+                fechaMaxima = venta.getFecha();
+            }
+            bloque.add(venta);
+            indicesBloque.add(indice);
+
+            if (++pendientes % ConfiguracionHibernate.TAMANO_LOTE == 0) {
+                cerrarBloque(bloque, indicesBloque, resultados);
+            }
+        }
+        cerrarBloque(bloque, indicesBloque, resultados);
+        if (fechaMinima != null) {
+            eventPublisher.publishEvent(new VentaModificadaEvento(fechaMinima, fechaMaxima));
+        }
+
+        long duracionNanos = System.nanoTime() - inicio;
+        int exitosas = aceptadas.size();
+        double segundos = duracionNanos / 1_000_000_000.0;
+        double ventasPorSegundo = segundos > 0 ? exitosas / segundos : 0.0;
+
+        logger.info("Lote de ventas procesado: {} recibidas, {} guardadas en {} ms ({} ventas/s)",
+                ventas.size(), exitosas, duracionNanos / 1_000_000, Math.round(ventasPorSegundo));
+
+        return new ResultadoLoteVentasDTO(ventas.size(), exitosas, ventas.size() - exitosas,
+                duracionNanos / 1_000_000, ventasPorSegundo, resultados);
+    }
+
+    /**
+     * Envía a la base de datos el bloque pendiente, registra los IDs asignados y limpia el contexto
+     */
+    private void cerrarBloque(List<Venta> bloque, List<Integer> indicesBloque, List<ResultadoVenta> resultados) {
+        if (bloque.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        List<Long> ids = new ArrayList<>(bloque.size());
+        for (int i = 0; i < bloque.size(); i++) {
+            Long ventaId = bloque.get(i).getId();
+            ids.add(ventaId);
+            resultados.set(indicesBloque.get(i), ResultadoVenta.exito(indicesBloque.get(i), ventaId));
+        }
+        ventaDiariaServicio.registrarVentas(ids);
+        productoEstadisticaServicio.registrarVentas(ids);
+        entityManager.clear();
+        bloque.clear();
+        indicesBloque.clear();
+    }
+
+    /**
+     * Valida una venta del lote contra las referencias cargadas y reserva su stock en memoria
+     *
+     * @return Mensaje de error, o null si la venta es válida
+     */
+    private String validarVentaLote(VentaDTO dto, Set<Long> clientesExistentes, Set<Long> vendedoresExistentes,
+                                    Map<Long, Producto> productos, Map<Long, Integer> stockDisponible) {
+        if (dto == null) {
+            return "La venta no puede ser nula";
+        }
+
+        Set<ConstraintViolation<VentaDTO>> violaciones = validador.validate(dto);
+        if (!violaciones.isEmpty()) {
+            return violaciones.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (!clientesExistentes.contains(dto.getClienteId())) {
+            return CLIENTE_NO_ENCONTRADO + dto.getClienteId();
+        }
+        if (!vendedoresExistentes.contains(dto.getVendedorId())) {
+            return VENDEDOR_NO_ENCONTRADO + dto.getVendedorId();
+        }
+
+        Map<Long, Integer> solicitado = new HashMap<>();
+        for (VentaDetalleDTO detalle : dto.getDetalles()) {
+            Producto producto = productos.get(detalle.getProductoId());
+            if (producto == null) {
+                return PRODUCTO_NO_ENCONTRADO + detalle.getProductoId();
+            }
+            if (!Boolean.TRUE.equals(producto.getActivo())) {
+                return "El producto " + producto.getCodigo() + " no está activo";
+            }
+            solicitado.merge(detalle.getProductoId(), detalle.getCantidad(), Integer::sum);
+        }
+
+        for (Map.Entry<Long, Integer> entrada : solicitado.entrySet()) {
+            int disponible = stockDisponible.getOrDefault(entrada.getKey(), 0);
+            if (disponible < entrada.getValue()) {
+                return String.format("Stock insuficiente para el producto %s. Disponible: %d, Solicitado: %d",
+                        productos.get(entrada.getKey()).getCodigo(), disponible, entrada.getValue());
+            }
+        }
+        solicitado.forEach((productoId, cantidad) -> stockDisponible.merge(productoId, -cantidad, Integer::sum));
+        return null;
+    }
+
+    /**
+     * Carga en una sola consulta todos los productos referenciados por las ventas
+     */
+    private Map<Long, Producto> cargarProductos(List<VentaDTO> ventas) {
+        Set<Long> ids = ventas.stream()
+                .filter(Objects::nonNull)
+                .filter(v -> v.getDetalles() != null)
+                .flatMap(v -> v.getDetalles().stream())
+                .filter(Objects::nonNull)
+                .map(VentaDetalleDTO::getProductoId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return productoRepositorio.findAllById(ids).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+    }
+
+    private <T> Set<Long> idsExistentes(List<VentaDTO> ventas, Function<VentaDTO, Long> extractor,
+                                        Function<Set<Long>, List<T>> buscador, Function<T, Long> id) {
+        Set<Long> ids = ventas.stream()
+                .filter(Objects::nonNull)
+                .map(extractor)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        return buscador.apply(ids).stream().map(id).collect(Collectors.toCollection(HashSet::new));
     }
 
     @Override
@@ -63,17 +339,32 @@ public class VentaServicioImpl implements VentaServicio {
 
     @Override
     public void eliminar(Long id) {
+        Venta venta = buscarPorId(id);
+        if (venta != null && !ESTADO_ANULADA.equals(venta.getEstado())) {
+            // Las anuladas ya fueron descontadas del resumen diario y de las estadísticas por producto
+            ventaDiariaServicio.descontarVentas(List.of(id));
+            productoEstadisticaServicio.descontarVentas(List.of(id));
+        }
         ventaRepositorio.deleteById(id);
+        if (venta != null) {
+            eventPublisher.publishEvent(VentaModificadaEvento.de(venta.getFecha()));
+        }
     }
 
     @Override
     public Venta anular(Long id) {
         Venta venta = buscarPorId(id);
-        if (venta != null) {
-            venta.setEstado(ESTADO_ANULADA);
-            return ventaRepositorio.save(venta);
+        if (venta == null) {
+            return null;
         }
-        return null;
+        // Solo la solicitud que efectivamente cambia el estado descuenta la venta del resumen
+        if (ventaRepositorio.marcarAnulada(id) == 1) {
+            ventaDiariaServicio.descontarVentas(List.of(id));
+            productoEstadisticaServicio.descontarVentas(List.of(id));
+            eventPublisher.publishEvent(VentaModificadaEvento.de(venta.getFecha()));
+        }
+        venta.setEstado(ESTADO_ANULADA);
+        return venta;
     }
 
     @Override
@@ -81,6 +372,19 @@ public class VentaServicioImpl implements VentaServicio {
         return ventaRepositorio.findByFechaBetween(inicio, fin);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<Venta> buscarPaginaPorRangoFechas(LocalDateTime inicio, LocalDateTime fin,
+                                                            String cursor, int tamano) {
+        CursorPaginacion.ClaveFecha clave = CursorPaginacion.decodificarFecha(cursor);
+        // Se pide una venta de más para saber si existe una página siguiente sin contar el total
+        Pageable limite = PageRequest.of(0, tamano + 1);
+        List<Venta> filas = clave == null
+                ? ventaRepositorio.buscarRecientesEntreFechas(inicio, fin, limite)
+                : ventaRepositorio.buscarRecientesEntreFechasDespuesDe(inicio, fin, clave.fecha(), clave.id(), limite);
+        return PaginaCursorDTO.de(filas, tamano, venta -> CursorPaginacion.codificar(venta.getFecha(), venta.getId()));
+    }
+
     @Override
     public List<Venta> buscarPorCliente(Cliente cliente) {
         return ventaRepositorio.findByCliente(cliente);
@@ -107,35 +411,77 @@ public class VentaServicioImpl implements VentaServicio {
             return null;
         }
         VentaDTO dto = new VentaDTO();
-        // Copiar propiedades de venta a dto
+        dto.setId(venta.getId());
+        dto.setFecha(venta.getFecha());
+        dto.setClienteId(venta.getCliente() != null ? venta.getCliente().getId() : null);
+        dto.setVendedorId(venta.getVendedor() != null ? venta.getVendedor().getId() : null);
+        dto.setMetodoPago(venta.getMetodoPago());
+        dto.setObservaciones(venta.getObservaciones());
+        dto.setDetalles(venta.getDetalles().stream()
+                .map(d -> new VentaDetalleDTO(d.getId(), d.getProducto().getId(), d.getCantidad(),
+                        d.getPrecioUnitario(), d.getDescuento()))
+                .collect(Collectors.toList()));
         return dto;
     }
 
-    private Venta convertirAEntidad(VentaDTO dto) {
-        if (dto == null) {
-            return null;
-        }
+    /**
+     * Construye la entidad Venta con sus detalles y totales calculados.
+     * Los precios se toman del producto cuando el detalle no informa uno.
+     */
+    private Venta convertirAEntidad(VentaDTO dto, Cliente cliente, Usuario vendedor, Map<Long, Producto> productos) {
         Venta venta = new Venta();
-        // Copiar propiedades de dto a venta
+        venta.setFecha(dto.getFecha() != null ? dto.getFecha() : LocalDateTime.now());
+        venta.setCliente(cliente);
+        venta.setVendedor(vendedor);
+        venta.setMetodoPago(dto.getMetodoPago());
+        venta.setObservaciones(dto.getObservaciones());
+        venta.setEstado(ESTADO_COMPLETADA);
+
+        long subtotal = 0L;
+        int unidades = 0;
+        for (VentaDetalleDTO detalleDTO : dto.getDetalles()) {
+            Producto producto = productos.get(detalleDTO.getProductoId());
+            if (producto == null) {
+                throw new RecursoNoEncontradoException(PRODUCTO_NO_ENCONTRADO + detalleDTO.getProductoId());
+            }
+
+            VentaDetalle detalle = new VentaDetalle();
+            detalle.setProducto(productoRepositorio.getReferenceById(producto.getId()));
+            detalle.setCategoria(producto.getCategoria() != null ? producto.getCategoria().getNombre() : VentaDetalle.SIN_CATEGORIA);
+            detalle.setCantidad(detalleDTO.getCantidad());
+            detalle.setPrecioUnitario(detalleDTO.getPrecioUnitario() != null
+                    ? detalleDTO.getPrecioUnitario() : producto.getPrecio());
+            detalle.setDescuento(detalleDTO.getDescuento() != null ? detalleDTO.getDescuento() : 0L);
+            detalle.setSubtotal(detalle.calcularSubtotal());
+            detalle.setTotal(detalle.calcularTotal());
+            venta.agregarDetalle(detalle);
+
+            subtotal = Math.addExact(subtotal, detalle.getTotal());
+            unidades += detalle.getCantidad();
+        }
+
+        // El IVA se redondea al peso; el total es la suma exacta de subtotal e impuesto
+        long impuesto = Dinero.aplicarTasa(subtotal, TASA_IVA);
+        venta.setSubtotal(subtotal);
+        venta.setImpuesto(impuesto);
+        venta.setTotal(subtotal + impuesto);
+        venta.setMonto(subtotal + impuesto);
+        venta.setCantidad(unidades);
         return venta;
     }
 
     @Override
-    public Double calcularTotalVentas(LocalDateTime inicio, LocalDateTime fin) {
-        List<Venta> ventas = ventaRepositorio.findByFechaBetween(inicio, fin);
-        return ventas.stream()
-                .filter(v -> !ESTADO_ANULADA.equals(v.getEstado()))
-                .mapToDouble(Venta::getTotal)
-                .sum();
+    @Transactional(readOnly = true)
+    public Long calcularTotalVentas(LocalDateTime inicio, LocalDateTime fin) {
+        return cacheVentas.totalVentas().obtener(new CacheRangoFechas.Rango(inicio, fin),
+                () -> ventaRepositorio.calcularTotalIngresos(inicio, fin));
     }
 
     @Override
-    public Double calcularTotalVentas() {
-        List<Venta> ventas = ventaRepositorio.findAll();
-        return ventas.stream()
-                .filter(v -> !ESTADO_ANULADA.equals(v.getEstado()))
-                .mapToDouble(Venta::getTotal)
-                .sum();
+    @Transactional(readOnly = true)
+    public Long calcularTotalVentas() {
+        return cacheVentas.totalVentas().obtener(CacheRangoFechas.Rango.COMPLETO,
+                ventaRepositorio::calcularTotalIngresosHistorico);
     }
 
     @Override
@@ -150,9 +496,7 @@ public class VentaServicioImpl implements VentaServicio {
 
     @Override
     public Double calcularTicketPromedio(LocalDateTime inicio, LocalDateTime fin) {
-        Double totalVentas = calcularTotalVentas(inicio, fin);
-        Long totalTransacciones = contarTransacciones(inicio, fin);
-        return (totalTransacciones == 0) ? 0.0 : totalVentas / totalTransacciones;
+        return Dinero.promedio(calcularTotalVentas(inicio, fin), contarTransacciones(inicio, fin));
     }
 
     @Override
@@ -177,20 +521,10 @@ public class VentaServicioImpl implements VentaServicio {
     }
 
     @Override
-    public Double calcularTotalVentasPorCliente(Long clienteId) {
+    public Long calcularTotalVentasPorCliente(Long clienteId) {
         return ventaRepositorio.calcularTotalPorCliente(clienteId);
     }
 
-    @Override
-    public Long contarUnidadesVendidasPorProducto(Long productoId) {
-        return ventaRepositorio.contarUnidadesVendidasPorProducto(productoId);
-    }
-
-    @Override
-    public Double calcularIngresosPorProducto(Long productoId) {
-        return ventaRepositorio.calcularIngresosPorProducto(productoId);
-    }
-
     @Override
     public List<Venta> buscarVentasRecientesPorProducto(Long productoId, int limite) {
         Pageable pageable = PageRequest.of(0, limite, Sort.by(Sort.Direction.DESC, "fecha"));
@@ -0,0 +1,120 @@
+package informviva.gest.util;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import informviva.gest.exception.CursorInvalidoException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Codifica y decodifica los cursores de la paginación por clave (keyset).
+ * <p>
+ * Un cursor guarda la clave de ordenamiento del último elemento entregado, por ejemplo
+ * {@code (fecha, id)} o {@code (nombre, id)}; la página siguiente se obtiene con
+ * {@code WHERE (clave, id) > (:clave, :id)} sobre un índice, sin descartar filas como OFFSET.
+ * El texto se entrega en Base64 URL para que el cliente lo trate como un valor opaco.
+ */
+public final class CursorPaginacion {
+
+    /**
+     * Tamaño máximo de página aceptado en los listados por cursor
+     */
+    public static final int TAMANO_MAXIMO = 100;
+
+    private static final String SEPARADOR = "|";
+    private static final String CURSOR_INVALIDO = "Cursor de paginación inválido";
+
+    private CursorPaginacion() {
+    }
+
+    /**
+     * Clave de los listados ordenados por fecha
+     */
+    public record ClaveFecha(LocalDateTime fecha, Long id) {
+    }
+
+    /**
+     * Clave de los listados ordenados por nombre
+     */
+    public record ClaveNombre(String nombre, Long id) {
+    }
+
+    /**
+     * Ajusta el tamaño de página solicitado al rango 1..{@link #TAMANO_MAXIMO}
+     */
+    public static int limitarTamano(int tamano) {
+        return Math.max(1, Math.min(tamano, TAMANO_MAXIMO));
+    }
+
+    public static String codificar(LocalDateTime fecha, Long id) {
+        return codificarTexto(id, fecha.toString());
+    }
+
+    public static String codificar(String nombre, Long id) {
+        return codificarTexto(id, nombre != null ? nombre : "");
+    }
+
+    /**
+     * @param cursor Cursor recibido; null o vacío indica la primera página
+     * @return Clave decodificada, o null para la primera página
+     * @throws CursorInvalidoException si el cursor no tiene el formato esperado
+     */
+    public static ClaveFecha decodificarFecha(String cursor) {
+        String[] partes = decodificarTexto(cursor);
+        if (partes == null) {
+            return null;
+        }
+        try {
+            return new ClaveFecha(LocalDateTime.parse(partes[1]), Long.valueOf(partes[0]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new CursorInvalidoException(CURSOR_INVALIDO, e);
+        }
+    }
+
+    /**
+     * @param cursor Cursor recibido; null o vacío indica la primera página
+     * @return Clave decodificada, o null para la primera página
+     * @throws CursorInvalidoException si el cursor no tiene el formato esperado
+     */
+    public static ClaveNombre decodificarNombre(String cursor) {
+        String[] partes = decodificarTexto(cursor);
+        if (partes == null) {
+            return null;
+        }
+        try {
+            return new ClaveNombre(partes[1], Long.valueOf(partes[0]));
+        } catch (NumberFormatException e) {
+            throw new CursorInvalidoException(CURSOR_INVALIDO, e);
+        }
+    }
+
+    // El id va primero porque es el único componente que no puede contener el separador
+    private static String codificarTexto(Long id, String valor) {
+        String texto = id + SEPARADOR + valor;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodificarTexto(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String texto;
+        try {
+            texto = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new CursorInvalidoException(CURSOR_INVALIDO, e);
+        }
+        int separador = texto.indexOf(SEPARADOR);
+        if (separador <= 0) {
+            throw new CursorInvalidoException(CURSOR_INVALIDO);
+        }
+        return new String[]{texto.substring(0, separador), texto.substring(separador + 1)};
+    }
+}
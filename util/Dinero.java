@@ -0,0 +1,110 @@
+package informviva.gest.util;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+
+/**
+ * Operaciones sobre montos en pesos chilenos.
+ * <p>
+ * El peso no tiene decimales, por lo que los montos se guardan como enteros (long en Java,
+ * BIGINT en la base de datos): las sumas son exactas y se hacen sobre primitivos, sin
+ * Double ni BigDecimal intermedios. Los cálculos que producen fracciones (impuestos,
+ * porcentajes) se redondean al peso con {@link #redondear(double)}.
+ * <p>
+ * Las sumas usan aritmética con verificación de desborde: un total fuera de rango lanza
+ * {@link ArithmeticException} en lugar de entregar un valor incorrecto.
+ */
+public final class Dinero {
+
+    private Dinero() {
+    }
+
+    /**
+     * Redondea un monto calculado al peso más cercano (las mitades hacia arriba)
+     *
+     * @param monto Monto con decimales
+     * @return Monto en pesos
+     */
+    public static long redondear(double monto) {
+        return Math.round(monto);
+    }
+
+    /**
+     * @param pesos Monto que puede ser nulo, como el resultado de SUM sin filas
+     * @return El monto, o 0 si es nulo
+     */
+    public static long valor(Long pesos) {
+        return pesos != null ? pesos : 0L;
+    }
+
+    /**
+     * Multiplica un precio por una cantidad de unidades
+     *
+     * @param pesos    Precio unitario
+     * @param cantidad Unidades
+     * @return Monto total
+     */
+    public static long multiplicar(long pesos, int cantidad) {
+        return Math.multiplyExact(pesos, cantidad);
+    }
+
+    /**
+     * Aplica una tasa a un monto, redondeando al peso
+     *
+     * @param pesos Monto base
+     * @param tasa  Tasa como fracción (0.19 para 19 %)
+     * @return Monto resultante
+     */
+    public static long aplicarTasa(long pesos, double tasa) {
+        return redondear(pesos * tasa);
+    }
+
+    /**
+     * Suma un monto de cada elemento en un acumulador primitivo; los montos nulos cuentan como 0
+     *
+     * @param elementos Elementos a recorrer
+     * @param monto     Función que obtiene el monto de un elemento (por ejemplo, un getter Long)
+     * @return Suma de los montos
+     */
+    public static <T> long sumar(Iterable<? extends T> elementos, Function<? super T, Long> monto) {
+        long total = 0L;
+        for (T elemento : elementos) {
+            total = Math.addExact(total, valor(monto.apply(elemento)));
+        }
+        return total;
+    }
+
+    /**
+     * @param total    Monto total
+     * @param cantidad Cantidad de elementos
+     * @return Promedio con decimales, o 0 si no hay elementos
+     */
+    public static double promedio(long total, long cantidad) {
+        return cantidad == 0 ? 0.0 : (double) total / cantidad;
+    }
+
+    /**
+     * @param parte Monto parcial
+     * @param total Monto total
+     * @return Porcentaje que representa la parte sobre el total, o 0 si el total no es positivo
+     */
+    public static double porcentaje(long parte, long total) {
+        return total <= 0 ? 0.0 : parte * 100.0 / total;
+    }
+
+    /**
+     * Convierte a BigDecimal para las vistas y DTOs que exponen montos con escala
+     *
+     * @param pesos Monto en pesos
+     * @return Monto como BigDecimal
+     */
+    public static BigDecimal aBigDecimal(long pesos) {
+        return BigDecimal.valueOf(pesos);
+    }
+}
@@ -0,0 +1,123 @@
+package informviva.gest.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escritor de archivos CSV (RFC 4180) en UTF-8 sobre un flujo de salida, con compresión
+ * GZIP opcional. Las filas se escriben a medida que llegan a través de un búfer de tamaño
+ * fijo, por lo que la memoria usada no depende del número de filas.
+ * <p>
+ * Al cerrarse vacía el búfer y termina la compresión, pero no cierra el flujo subyacente.
+ *
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+public class EscritorCsv implements Flushable, Closeable {
+
+    private static final int TAMANO_BUFFER = 16 * 1024;
+    private static final char SEPARADOR = ',';
+    private static final String FIN_LINEA = "\r\n";
+
+    private final GZIPOutputStream gzip;
+    private final Writer escritor;
+    private long filas;
+
+    /**
+     * @param salida    Flujo donde se escribe el archivo
+     * @param comprimir true para escribir el archivo comprimido con GZIP
+     * @throws IOException Si no se puede iniciar la compresión
+     */
+    public EscritorCsv(OutputStream salida, boolean comprimir) throws IOException {
+        // syncFlush permite que flush() envíe lo ya comprimido sin esperar al final
+        this.gzip = comprimir ? new GZIPOutputStream(salida, TAMANO_BUFFER, true) : null;
+        this.escritor = new BufferedWriter(
+                new OutputStreamWriter(gzip != null ? gzip : salida, StandardCharsets.UTF_8), TAMANO_BUFFER);
+    }
+
+    /**
+     * Escribe una fila; los valores nulos se escriben como campos vacíos
+     *
+     * @param valores Valores de las columnas
+     * @throws IOException Si falla la escritura
+     */
+    public void escribirFila(Object... valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                escritor.write(SEPARADOR);
+            }
+            escribirCampo(valores[i]);
+        }
+        escritor.write(FIN_LINEA);
+        filas++;
+    }
+
+    private void escribirCampo(Object valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        String texto = formatear(valor);
+        if (!requiereComillas(texto)) {
+            escritor.write(texto);
+            return;
+        }
+        escritor.write('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"') {
+                escritor.write('"');
+            }
+            escritor.write(c);
+        }
+        escritor.write('"');
+    }
+
+    private String formatear(Object valor) {
+        // Evita la notación científica de Double.toString en montos grandes
+        if (valor instanceof Double numero) {
+            return BigDecimal.valueOf(numero).toPlainString();
+        }
+        if (valor instanceof BigDecimal numero) {
+            return numero.toPlainString();
+        }
+        return valor.toString();
+    }
+
+    private boolean requiereComillas(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == SEPARADOR || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Número de filas escritas, incluido el encabezado
+     */
+    public long getFilas() {
+        return filas;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        escritor.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        escritor.flush();
+        if (gzip != null) {
+            gzip.finish();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package informviva.gest.util;
+
+/**
+ * @author Roberto Rivas
+ * @version 2.0
+ */
+
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Histograma de latencias en microsegundos con buckets log-lineales de tamaño fijo.
+ * <p>
+ * Cada potencia de dos se divide en {@value #SUB_BUCKETS} buckets, por lo que los percentiles
+ * tienen un error relativo máximo de alrededor de 6 %. Registrar un valor no reserva memoria
+ * y es seguro desde varios hilos; la lectura de percentiles es aproximada si ocurre mientras
+ * se registran valores.
+ */
+public class HistogramaLatencia {
+
+    private static final int BITS_SUB_BUCKET = 4;
+    private static final int SUB_BUCKETS = 1 << BITS_SUB_BUCKET;
+    // Cubre hasta 2^40 µs (unos 12 días); los valores mayores caen en el último bucket
+    private static final int EXPONENTE_MAXIMO = 40;
+    private static final int TOTAL_BUCKETS = SUB_BUCKETS + (EXPONENTE_MAXIMO - BITS_SUB_BUCKET) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(TOTAL_BUCKETS);
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Resumen del histograma, con valores en milisegundos
+     */
+    public record Resumen(long cantidad, double promedioMs, double p50Ms, double p95Ms, double p99Ms, double maximoMs) {
+    }
+
+    /**
+     * Registra una latencia
+     *
+     * @param micros Latencia en microsegundos
+     */
+    public void registrar(long micros) {
+        long valor = Math.max(0, micros);
+        buckets.incrementAndGet(indice(valor));
+        cantidad.increment();
+        suma.add(valor);
+        maximo.accumulate(valor);
+    }
+
+    /**
+     * Obtiene el percentil indicado como el límite superior del bucket que lo contiene
+     *
+     * @param percentil Percentil entre 0 y 100
+     * @return Latencia en microsegundos; 0 si no hay registros
+     */
+    public long percentil(double percentil) {
+        long total = cantidad.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(total * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < TOTAL_BUCKETS; i++) {
+            acumulado += buckets.get(i);
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    public Resumen resumen() {
+        long total = cantidad.sum();
+        double promedio = total == 0 ? 0 : (double) suma.sum() / total;
+        return new Resumen(total, aMs(promedio), aMs(percentil(50)), aMs(percentil(95)), aMs(percentil(99)),
+                aMs(maximo.get()));
+    }
+
+    static int indice(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponente >= EXPONENTE_MAXIMO) {
+            return TOTAL_BUCKETS - 1;
+        }
+        int sub = (int) (micros >>> (exponente - BITS_SUB_BUCKET)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponente - BITS_SUB_BUCKET) * SUB_BUCKETS + sub;
+    }
+
+    static long limiteSuperior(int indice) {
+        if (indice < SUB_BUCKETS) {
+            return indice;
+        }
+        int exponente = (indice - SUB_BUCKETS) / SUB_BUCKETS + BITS_SUB_BUCKET;
+        int sub = (indice - SUB_BUCKETS) % SUB_BUCKETS;
+        long ancho = 1L << (exponente - BITS_SUB_BUCKET);
+        return (1L << exponente) + (sub + 1) * ancho - 1;
+    }
+
+    private static double aMs(double micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+}
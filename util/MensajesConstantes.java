@@ -33,6 +33,7 @@ public final class MensajesConstantes {
     public static final String ERROR_ACTUALIZAR_VENTA = "Error al actualizar la venta: ";
     public static final String ERROR_ANULAR_VENTA = "Error al anular la venta: ";
     public static final String ERROR_RUT_INVALIDO = "El RUT ingresado no es válido.";
+    public static final String ERROR_RUT_DUPLICADO = "Ya existe un cliente registrado con este RUT.";
     public static final String EXITO_CLIENTE_GUARDADO = "Cliente guardado correctamente.";
     public static final String ERROR_CLIENTE_CON_VENTAS = "No se puede eliminar el cliente porque tiene ventas registradas.";
     public static final String EXITO_CLIENTE_ELIMINADO = "Cliente eliminado correctamente.";
@@ -13,31 +13,14 @@ public class ValidadorRutClase implements ConstraintValidator<ValidadorRut, Stri
         // No necesitas inicializar nada en este caso.
     }
 
+    /**
+     * Acepta cualquier cantidad de dígitos en el cuerpo mientras su valor quepa en un int, como
+     * la versión anterior basada en Integer.parseInt. A diferencia de ella, no acepta un signo +
+     * delante del cuerpo ni dígitos que no sean ASCII.
+     */
     @Override
     public boolean isValid(String rut, ConstraintValidatorContext context) {
-        if (rut == null || rut.trim().isEmpty()) {
-            return false;
-        }
-
-        rut = rut.replace(".", "").replace("-", "").toUpperCase();
-        if (rut.length() < 2) return false;
-
-        try {
-            String cuerpo = rut.substring(0, rut.length() - 1);
-            String dv = rut.substring(rut.length() - 1);
-
-            int rutNum = Integer.parseInt(cuerpo);
-            int m = 0;
-            int r = 1;
-            for (; rutNum != 0; rutNum /= 10) {
-                r = (r + rutNum % 10 * (9 - m++ % 6)) % 11;
-            }
-
-            String dvEsperado = (r != 0) ? String.valueOf((char) (r + 47)) : "K";
-
-            return dv.equals(dvEsperado);
-        } catch (NumberFormatException e) {
-            return false;
-        }
+        // Se ejecuta en cada validación de Cliente; el cálculo compartido no crea objetos
+        return ValidadorRutUtil.digitoVerificadorValido(rut, 1, Integer.MAX_VALUE);
     }
 }
@@ -2,22 +2,114 @@ package informviva.gest.validador;
 
 public class ValidadorRutUtil {
 
+    // Largo del cuerpo (sin dígito verificador) aceptado por validar
+    private static final int MINIMO_DIGITOS_CUERPO = 7;
+    private static final int MAXIMO_DIGITOS_CUERPO = 8;
+
+    /**
+     * Lleva un RUT a su forma canónica: dígitos del cuerpo sin ceros a la izquierda seguidos
+     * del dígito verificador en mayúscula, sin puntos ni guion (ej. "12.345.678-k" → "12345678K").
+     * No verifica el dígito verificador.
+     *
+     * @param rut RUT en cualquier formato
+     * @return RUT normalizado, o null si no tiene la forma de un RUT
+     */
+    public static String normalizar(String rut) {
+        if (rut == null) {
+            return null;
+        }
+        StringBuilder normalizado = new StringBuilder(rut.length());
+        for (int i = 0; i < rut.length(); i++) {
+            char c = rut.charAt(i);
+            if (c >= '0' && c <= '9') {
+                // Omitir ceros a la izquierda del cuerpo
+                if (c != '0' || normalizado.length() > 0) {
+                    normalizado.append(c);
+                }
+            } else if (c == 'k' || c == 'K') {
+                normalizado.append('K');
+            } else if (c != '.' && c != '-' && !Character.isWhitespace(c)) {
+                return null;
+            }
+        }
+        int largo = normalizado.length();
+        // El cuerpo solo contiene dígitos; la K solo puede ser el dígito verificador
+        if (largo < 2 || normalizado.indexOf("K") >= 0 && normalizado.indexOf("K") != largo - 1) {
+            return null;
+        }
+        return normalizado.toString();
+    }
+
+    /**
+     * Valida un RUT con cuerpo de 7 u 8 dígitos, ignorando puntos y guion
+     *
+     * @param rut RUT en cualquier formato (ej. "12.345.678-5")
+     * @return true si el dígito verificador corresponde al cuerpo; false también si es null
+     */
     public static boolean validar(String rut) {
-        rut = rut.replace(".", "").replace("-", "").toUpperCase();
-        if (!rut.matches("\\d{7,8}[0-9K]")) return false;
+        return digitoVerificadorValido(rut, MINIMO_DIGITOS_CUERPO, MAXIMO_DIGITOS_CUERPO);
+    }
 
-        try {
-            int suma = 0;
-            int factor = 2;
-            for (int i = rut.length() - 2; i >= 0; i--) {
-                suma += Character.getNumericValue(rut.charAt(i)) * factor;
-                factor = factor == 7 ? 2 : factor + 1;
+    /**
+     * Verifica el dígito verificador (módulo 11) de un RUT en una sola pasada desde el final,
+     * sin crear cadenas intermedias. Los puntos y guiones se ignoran; cualquier otro carácter
+     * que no sea un dígito ASCII, o una K fuera de la última posición, invalida el RUT.
+     * <p>
+     * Además del largo, el valor del cuerpo no puede superar {@link Integer#MAX_VALUE}, el límite
+     * que imponía Integer.parseInt en la implementación anterior de {@link ValidadorRutClase}.
+     * Los ceros a la izquierda cuentan como dígitos para el largo pero no cambian el valor.
+     *
+     * @param rut           RUT en cualquier formato
+     * @param minimoDigitos Cantidad mínima de dígitos del cuerpo
+     * @param maximoDigitos Cantidad máxima de dígitos del cuerpo
+     * @return true si el cuerpo tiene un largo y valor permitidos y el dígito verificador corresponde
+     */
+    static boolean digitoVerificadorValido(String rut, int minimoDigitos, int maximoDigitos) {
+        if (rut == null) {
+            return false;
+        }
+        char dv = 0;
+        int digitos = 0;
+        int suma = 0;
+        int factor = 2;
+        long valor = 0;
+        long posicion = 1;
+        for (int i = rut.length() - 1; i >= 0; i--) {
+            char c = rut.charAt(i);
+            if (c == '.' || c == '-') {
+                continue;
+            }
+            if (dv == 0) {
+                if (c == 'k' || c == 'K') {
+                    dv = 'K';
+                } else if (c >= '0' && c <= '9') {
+                    dv = c;
+                } else {
+                    return false;
+                }
+                continue;
+            }
+            if (c < '0' || c > '9' || ++digitos > maximoDigitos) {
+                return false;
             }
-            int dvEsperado = 11 - (suma % 11);
-            char dvCalculado = (dvEsperado == 11) ? '0' : (dvEsperado == 10) ? 'K' : Character.forDigit(dvEsperado, 10);
-            return rut.charAt(rut.length() - 1) == dvCalculado;
-        } catch (Exception e) {
+            int digito = c - '0';
+            if (digito != 0) {
+                valor += digito * posicion;
+                if (posicion > Integer.MAX_VALUE || valor > Integer.MAX_VALUE) {
+                    return false;
+                }
+            }
+            if (posicion <= Integer.MAX_VALUE) {
+                posicion *= 10;
+            }
+            suma += digito * factor;
+            factor = factor == 7 ? 2 : factor + 1;
+        }
+        if (digitos < minimoDigitos) {
             return false;
         }
+        int resto = 11 - suma % 11;
+        char dvCalculado = resto == 11 ? '0' : resto == 10 ? 'K' : (char) ('0' + resto);
+        return dv == dvCalculado;
     }
 }